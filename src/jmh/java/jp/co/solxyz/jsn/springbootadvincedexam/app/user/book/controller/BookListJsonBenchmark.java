@@ -0,0 +1,54 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.controller;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.BookModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 書籍一覧画面に埋め込む書籍リストのJSON変換のベンチマーク
+ * リクエストごとにJSONマッパーを生成する場合と、BookListControllerと同じく生成済みのObjectWriterを使い回す場合を比較する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookListJsonBenchmark {
+
+    @Param({"50"})
+    private int bookCount;
+
+    private List<BookModel> bookModels;
+
+    private ObjectWriter sharedWriter;
+
+    @Setup
+    public void setUp() {
+        bookModels = IntStream.range(0, bookCount)
+                .mapToObj(i -> new BookModel(String.valueOf(9784000000000L + i), "テスト書籍" + i, "テスト著者", "テスト出版社", i % 3))
+                .toList();
+        sharedWriter = JsonMapper.builder().build().writerFor(new TypeReference<List<BookModel>>() {
+        });
+    }
+
+    @Benchmark
+    public String serializeWithNewMapper() {
+        return JsonMapper.builder().build().writeValueAsString(bookModels);
+    }
+
+    @Benchmark
+    public String serializeWithSharedWriter() {
+        return sharedWriter.writeValueAsString(bookModels);
+    }
+}
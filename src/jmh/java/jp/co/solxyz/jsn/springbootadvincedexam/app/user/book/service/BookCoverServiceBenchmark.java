@@ -0,0 +1,181 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookCoverStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 書影URL取得のベンチマーク
+ * セットアップ時にスタブのHTTPクライアントで書影URLを読み込み、キャッシュにヒットする場合のみ計測する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookCoverServiceBenchmark {
+
+    @Param({"1", "50"})
+    private int isbnCount;
+
+    private BookCoverService bookCoverService;
+
+    private List<String> isbnList;
+
+    @Setup
+    public void setUp() {
+        isbnList = IntStream.range(0, isbnCount)
+                .mapToObj(i -> String.valueOf(9784000000000L + i))
+                .toList();
+        String body = isbnList.stream()
+                .map(isbn -> "{\"summary\":{\"cover\":\"https://cover.openbd.jp/" + isbn + ".jpg\"}}")
+                .reduce((left, right) -> left + "," + right)
+                .map(json -> "[" + json + "]")
+                .orElse("[]");
+        // キャッシュヒット時はDBへ書き込まないため、永続化にはリポジトリを渡さない
+        BookCoverStore bookCoverStore = new BookCoverStore(null, Clock.systemDefaultZone());
+        bookCoverService = new BookCoverService(new StubHttpClient(body), JsonMapper.builder().build(), bookCoverStore);
+        bookCoverService.getCoverUrls(isbnList);
+    }
+
+    @Benchmark
+    public Map<String, String> getCoverUrlsOnCacheHit() {
+        return bookCoverService.getCoverUrls(isbnList);
+    }
+
+    /**
+     * 固定のレスポンスを返すHTTPクライアント
+     */
+    private static class StubHttpClient extends HttpClient {
+
+        private final String body;
+
+        StubHttpClient(String body) {
+            this.body = body;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+            return (HttpResponse<T>) new StubHttpResponse(request, body);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+            return CompletableFuture.completedFuture(send(request, responseBodyHandler));
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, responseBodyHandler);
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 固定の本文を返すHTTPレスポンス
+     */
+    private record StubHttpResponse(HttpRequest request, String body) implements HttpResponse<String> {
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
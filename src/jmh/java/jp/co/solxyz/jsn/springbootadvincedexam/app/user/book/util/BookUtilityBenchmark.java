@@ -0,0 +1,26 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ISBNフォーマット処理のベンチマーク
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookUtilityBenchmark {
+
+    private final String isbn = "9784873117904";
+
+    @Benchmark
+    public String getFormattedISBN() {
+        return BookUtility.getFormattedISBN(isbn);
+    }
+}
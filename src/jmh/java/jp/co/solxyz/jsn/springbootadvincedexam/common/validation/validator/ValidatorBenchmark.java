@@ -0,0 +1,37 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.common.validation.validator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ISBN・ユーザIDの入力チェックのベンチマーク
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidatorBenchmark {
+
+    private final IsbnValidator isbnValidator = new IsbnValidator();
+
+    private final UserIdValidator userIdValidator = new UserIdValidator();
+
+    private final String isbn = "9784873117904";
+
+    private final String userId = "f3d6bcdc-6c32-45b6-9aea-1aa6d36b6b17";
+
+    @Benchmark
+    public boolean isValidIsbn() {
+        return isbnValidator.isValid(isbn, null);
+    }
+
+    @Benchmark
+    public boolean isValidUserId() {
+        return userIdValidator.isValid(userId, null);
+    }
+}
@@ -0,0 +1,37 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.converter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LocalDateTimeとInstantの変換のベンチマーク
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocalDateTimeToInstantConverterBenchmark {
+
+    private final LocalDateTimeToInstantConverter converter = new LocalDateTimeToInstantConverter();
+
+    private final LocalDateTime localDateTime = LocalDateTime.of(2026, 5, 17, 10, 30);
+
+    private final Instant instant = Instant.parse("2026-05-17T01:30:00Z");
+
+    @Benchmark
+    public Instant convertToDatabaseColumn() {
+        return converter.convertToDatabaseColumn(localDateTime);
+    }
+
+    @Benchmark
+    public LocalDateTime convertToEntityAttribute() {
+        return converter.convertToEntityAttribute(instant);
+    }
+}
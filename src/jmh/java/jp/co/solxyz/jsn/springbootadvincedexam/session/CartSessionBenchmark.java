@@ -0,0 +1,55 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.session;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.session.dto.Cart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * カートへの追加・削除のベンチマーク
+ * カートに入っている冊数ごとに、末尾の書籍の追加(重複)と削除・再追加を計測する
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CartSessionBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int cartSize;
+
+    private CartSession cartSession;
+
+    private Cart lastCart;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        cartSession = new CartSession();
+        for (int i = 0; i < cartSize; i++) {
+            Cart cart = new Cart();
+            cart.setIsbn(String.valueOf(9784000000000L + i));
+            cartSession.addCart(cart);
+            lastCart = cart;
+        }
+    }
+
+    @Benchmark
+    public CartSession addDuplicateCart() {
+        cartSession.addCart(lastCart);
+        return cartSession;
+    }
+
+    @Benchmark
+    public CartSession removeAndAddCart() {
+        cartSession.removeCart(lastCart.getIsbn());
+        cartSession.addCart(lastCart);
+        return cartSession;
+    }
+}
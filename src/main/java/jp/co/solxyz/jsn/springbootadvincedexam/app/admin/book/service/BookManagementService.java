@@ -64,10 +64,11 @@ public class BookManagementService {
 
     /**
      * 書籍情報の更新
+     * 利用可能在庫数は更新時にDB上の現在値から算出されるため、ここでは設定しない
      * @param updatedBook 更新する書籍情報
      */
     public void updateBook(BookDetail updatedBook) {
-        Book currentBook = bookInventoryManager.getBookByIsbn(updatedBook.getIsbn());
+        Book currentBook = bookInventoryManager.getLatestBookByIsbn(updatedBook.getIsbn());
         // 入力された在庫数が現在の在庫数より少ない場合はエラー
         bookInventoryManager.compareInputStockLowerThanCurrent(updatedBook.getStock(), currentBook.getAvailableStock());
 
@@ -78,7 +79,6 @@ public class BookManagementService {
         book.setPublisher(updatedBook.getPublisher());
         book.setDescription(updatedBook.getDescription());
         book.setStock(updatedBook.getStock());
-        book.setAvailableStock(currentBook.getAvailableStock() + (updatedBook.getStock() - currentBook.getStock()));
         book.setUpdatedAt(LocalDateTime.now());
 
         bookMetadataManager.updateBook(book, currentBook.getUpdatedAt());
@@ -21,7 +21,7 @@ public class AccountProfile {
      * ユーザID
      */
     @NotBlank(message = "ユーザIDは必須です。", groups = OnUserUpdate.class)
-    @Pattern(regexp = "^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$", message = "不正なユーザIDです。",
+    @Pattern(regexp = "^[0-9a-f]{8}-[0-9a-f]{4}-[1-8][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$", message = "不正なユーザIDです。",
             groups = OnUserUpdate.class)
     private String userId;
 
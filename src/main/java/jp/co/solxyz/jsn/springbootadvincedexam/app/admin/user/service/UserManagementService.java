@@ -2,9 +2,9 @@ package jp.co.solxyz.jsn.springbootadvincedexam.app.admin.user.service;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.app.admin.user.json.AccountProfile;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.admin.user.model.UserManagementModel;
-import jp.co.solxyz.jsn.springbootadvincedexam.util.UUIDGenerator;
 import jp.co.solxyz.jsn.springbootadvincedexam.component.user.UserAccountManager;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.user.UserAccount;
+import jp.co.solxyz.jsn.springbootadvincedexam.util.IdGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
@@ -26,12 +26,19 @@ public class UserManagementService {
      */
     private final UserAccountManager userAccountManager;
 
+    /**
+     * ID生成
+     */
+    private final IdGenerator idGenerator;
+
     /**
      * コンストラクタ
      * @param userAccountManager ユーザアカウントリポジトリ
+     * @param idGenerator ID生成
      */
-    public UserManagementService(UserAccountManager userAccountManager) {
+    public UserManagementService(UserAccountManager userAccountManager, IdGenerator idGenerator) {
         this.userAccountManager = userAccountManager;
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -58,7 +65,7 @@ public class UserManagementService {
      */
     public void addUser(AccountProfile newUserModel) {
         UserAccount userAccount = new UserAccount();
-        userAccount.setUserId(UUIDGenerator.generateUserId());
+        userAccount.setUserId(idGenerator.generateUserId());
         userAccount.setIsAdmin(newUserModel.isAdmin());
         userAccount.setEmail(newUserModel.getEmail());
         userAccount.setUsername(newUserModel.getUserName());
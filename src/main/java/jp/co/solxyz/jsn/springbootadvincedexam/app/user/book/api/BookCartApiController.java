@@ -4,6 +4,8 @@ import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.json.CartIsbn;
 import jp.co.solxyz.jsn.springbootadvincedexam.session.dto.Cart;
 import jp.co.solxyz.jsn.springbootadvincedexam.session.CartSession;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -25,16 +27,24 @@ public class BookCartApiController {
      */
     private final CartSession cartSession;
 
+    /**
+     * カートに入れられる最大冊数
+     */
+    private final int maxCartSize;
+
     /**
      * コンストラクタ
      * @param cartSession カートセッション
+     * @param maxCartSize カートに入れられる最大冊数
      */
-    public BookCartApiController(CartSession cartSession) {
+    public BookCartApiController(CartSession cartSession, @Value("${book.cart.max-size}") int maxCartSize) {
         this.cartSession = cartSession;
+        this.maxCartSize = maxCartSize;
     }
 
     /**
      * カートに追加
+     * カートが最大冊数に達している場合は追加せず、409(Conflict)を返す
      * @param cartIsbn カート情報
      * @return レスポンス
      */
@@ -44,11 +54,15 @@ public class BookCartApiController {
             log.info("ISBN is null");
             return ResponseEntity.badRequest().build();
         }
+        if (!cartSession.contains(cartIsbn.getIsbn()) && cartSession.size() >= maxCartSize) {
+            log.info("Cart is full");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
 
         Cart cart = new Cart();
         cart.setIsbn(cartIsbn.getIsbn());
         cartSession.addCart(cart);
-        return ResponseEntity.ok(cartSession.getCartList().size());
+        return ResponseEntity.ok(cartSession.size());
     }
 
     /**
@@ -1,16 +1,30 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.api;
 
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookCoverImageService;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookCoverService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 
 /**
@@ -22,10 +36,20 @@ import java.util.regex.Pattern;
 public class BookCoverApiController {
 
     /**
-     * 一度に取得できるISBN数
+     * GETで一度に取得できるISBN数
      */
     private static final int MAX_ISBN_COUNT = 20;
 
+    /**
+     * POSTで一度に取得できるISBN数(キャッシュにないISBNをまとめてopenBDへ問い合わせるため、GETより多くする)
+     */
+    private static final int MAX_POST_ISBN_COUNT = 1000;
+
+    /**
+     * 書影画像をブラウザにキャッシュさせる期間
+     */
+    private static final Duration COVER_IMAGE_MAX_AGE = Duration.ofDays(7);
+
     /**
      * ISBN形式
      */
@@ -36,33 +60,90 @@ public class BookCoverApiController {
      */
     private final BookCoverService bookCoverService;
 
+    /**
+     * 書影画像サービス
+     */
+    private final BookCoverImageService bookCoverImageService;
+
     /**
      * コンストラクタ
      * @param bookCoverService 書影取得サービス
+     * @param bookCoverImageService 書影画像サービス
      */
-    public BookCoverApiController(BookCoverService bookCoverService) {
+    public BookCoverApiController(BookCoverService bookCoverService, BookCoverImageService bookCoverImageService) {
         this.bookCoverService = bookCoverService;
+        this.bookCoverImageService = bookCoverImageService;
     }
 
     /**
      * ISBNに対応する書影URLを取得
+     * openBDからの取得を待つ間はリクエストスレッドを解放し、取得完了後にレスポンスを返す
      * @param isbn カンマ区切りのISBN
      * @return ISBNと書影URLのマップ
      */
     @GetMapping
-    public ResponseEntity<Map<String, String>> getCoverUrls(@RequestParam("isbn") String isbn) {
-        List<String> requestedIsbns = Arrays.stream(isbn.split(","))
+    public CompletableFuture<ResponseEntity<Map<String, String>>> getCoverUrls(@RequestParam("isbn") String isbn) {
+        return findCoverUrls(Arrays.asList(isbn.split(",")), MAX_ISBN_COUNT);
+    }
+
+    /**
+     * ISBNに対応する書影URLをまとめて取得
+     * 書籍一覧画面に埋め込まれていない(キャッシュにない)書影のみを、1回のリクエストで取得するために使用する
+     * @param isbnList ISBNリスト
+     * @return ISBNと書影URLのマップ
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<Map<String, String>>> postCoverUrls(@RequestBody List<String> isbnList) {
+        return findCoverUrls(isbnList, MAX_POST_ISBN_COUNT);
+    }
+
+    /**
+     * 書影画像を取得
+     * ローカルディスクに保存した縮小画像を返し、ETagが一致する場合は304を返す
+     * @param isbn ISBN
+     * @return 書影画像(書影がない場合は404)
+     */
+    @GetMapping("/{isbn}/image")
+    public CompletableFuture<ResponseEntity<Resource>> getCoverImage(@PathVariable("isbn") String isbn) {
+        if (!ISBN_PATTERN.matcher(isbn).matches()) {
+            log.info("ISBN is invalid");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return bookCoverImageService.getCoverImage(isbn).thenApply(image -> image
+                .map(this::toImageResponse)
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    private ResponseEntity<Resource> toImageResponse(Path imagePath) {
+        FileSystemResource resource = new FileSystemResource(imagePath);
+        try {
+            long lastModified = resource.lastModified();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_JPEG)
+                    .cacheControl(CacheControl.maxAge(COVER_IMAGE_MAX_AGE).cachePrivate())
+                    .eTag(Long.toHexString(lastModified) + "-" + Long.toHexString(resource.contentLength()))
+                    .lastModified(lastModified)
+                    .body(resource);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<Map<String, String>>> findCoverUrls(List<String> isbns, int maxIsbnCount) {
+        List<String> requestedIsbns = isbns.stream()
+                .filter(Objects::nonNull)
                 .map(String::trim)
                 .filter(value -> !value.isBlank())
                 .toList();
         if (requestedIsbns.isEmpty()
-                || requestedIsbns.size() > MAX_ISBN_COUNT
+                || requestedIsbns.size() > maxIsbnCount
                 || requestedIsbns.stream().anyMatch(value -> !ISBN_PATTERN.matcher(value).matches())) {
             log.info("ISBN is invalid");
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
         List<String> isbnList = requestedIsbns.stream().distinct().toList();
-        return ResponseEntity.ok(bookCoverService.getCoverUrls(isbnList));
+        return bookCoverService.getCoverUrlsAsync(isbnList).thenApply(ResponseEntity::ok);
     }
 }
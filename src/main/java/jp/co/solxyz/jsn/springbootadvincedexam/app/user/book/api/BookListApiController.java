@@ -0,0 +1,102 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.api;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.json.BookInfo;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.BookModel;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookListService;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 書籍一覧APIコントローラ
+ */
+@RestController
+@RequestMapping("/api/book")
+@Slf4j
+public class BookListApiController {
+
+    /**
+     * 書籍一覧の出力時に1度に読み込む書籍数
+     */
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    /**
+     * 書籍一覧サービス
+     */
+    private final BookListService bookListService;
+
+    /**
+     * JSONマッパー
+     */
+    private final JsonMapper jsonMapper;
+
+    /**
+     * コンストラクタ
+     * @param bookListService 書籍一覧サービス
+     * @param jsonMapper JSONマッパー
+     */
+    public BookListApiController(BookListService bookListService, JsonMapper jsonMapper) {
+        this.bookListService = bookListService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * 全書籍の一覧をISBN順に取得
+     * 書籍をISBNのキーセットで少しずつ読み込み、1冊ずつレスポンスへ直接書き出すため、蔵書数が多くても一覧全体を文字列として保持しない
+     * @return 書籍一覧のJSON配列
+     */
+    @GetMapping("/list")
+    public ResponseEntity<StreamingResponseBody> getBookList() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = jsonMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                String after = null;
+                List<BookSummary> books;
+                do {
+                    books = bookListService.getBookSummariesAfter(after, STREAM_BATCH_SIZE);
+                    for (BookSummary book : books) {
+                        generator.writePOJO(new BookModel(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(),
+                                book.getAvailableStock()));
+                    }
+                    if (!books.isEmpty()) {
+                        after = books.get(books.size() - 1).getIsbn();
+                    }
+                    generator.flush();
+                } while (books.size() == STREAM_BATCH_SIZE);
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * 書籍詳細を取得
+     * 一覧では書籍説明を読み込まないため、詳細表示時にのみ取得する
+     * @param isbn ISBN
+     * @return 書籍詳細
+     */
+    @GetMapping("/{isbn:\\d{13}}")
+    public ResponseEntity<BookInfo> getBookDetail(@PathVariable("isbn") String isbn) {
+        Book book;
+        try {
+            book = bookListService.getBookDetail(isbn);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(new BookInfo(book.getIsbn(), book.getTitle(), book.getDescription(), book.getAuthor(),
+                book.getPublisher(), book.getAvailableStock()));
+    }
+}
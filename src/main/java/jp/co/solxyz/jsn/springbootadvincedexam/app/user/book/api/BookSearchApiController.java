@@ -0,0 +1,64 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.api;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.BookModel;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 書籍検索APIコントローラ
+ */
+@RestController
+@RequestMapping("/api/book/search")
+@Slf4j
+public class BookSearchApiController {
+
+    /**
+     * 検索語の最大文字数
+     */
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    /**
+     * 一度に取得できる最大件数
+     */
+    private static final int MAX_LIMIT = 100;
+
+    /**
+     * 書籍検索サービス
+     */
+    private final BookSearchService bookSearchService;
+
+    /**
+     * コンストラクタ
+     * @param bookSearchService 書籍検索サービス
+     */
+    public BookSearchApiController(BookSearchService bookSearchService) {
+        this.bookSearchService = bookSearchService;
+    }
+
+    /**
+     * 書籍を検索
+     * @param query 検索語(空白区切りでAND検索)
+     * @param limit 最大取得件数
+     * @return 検索結果の書籍リスト
+     */
+    @GetMapping
+    public ResponseEntity<List<BookModel>> search(@RequestParam("q") String query,
+            @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        if (query.isBlank() || query.length() > MAX_QUERY_LENGTH || limit < 1 || limit > MAX_LIMIT) {
+            log.info("search query or limit is invalid");
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<BookModel> books = bookSearchService.search(query, limit).stream()
+                .map(book -> new BookModel(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getAvailableStock()))
+                .toList();
+        return ResponseEntity.ok(books);
+    }
+}
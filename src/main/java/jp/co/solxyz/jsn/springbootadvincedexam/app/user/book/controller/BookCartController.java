@@ -3,7 +3,7 @@ package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.controller;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.BookModel;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.CartBookModel;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookCartService;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import jp.co.solxyz.jsn.springbootadvincedexam.security.MyUserDetails;
 import jp.co.solxyz.jsn.springbootadvincedexam.session.CartSession;
 import lombok.extern.slf4j.Slf4j;
@@ -57,7 +57,7 @@ public class BookCartController {
     @GetMapping
     public ModelAndView index() {
         ModelAndView mav = new ModelAndView("user/book-cart");
-        List<CartBookModel> tableData = bookCartService.getCartList(cartSession.getCartList());
+        List<CartBookModel> tableData = bookCartService.getCartList(cartSession.getIsbnList());
         mav.addObject("cartList", tableData);
         addCartPageAttributes(mav, tableData.size());
         return mav;
@@ -70,19 +70,20 @@ public class BookCartController {
      */
     @PostMapping
     public ModelAndView checkout(@AuthenticationPrincipal MyUserDetails userDetails) {
-        List<Book> unCheckedOutBooks;
+        List<String> isbnList = cartSession.getIsbnList();
+        List<BookSummary> unCheckedOutBooks;
         try {
-            unCheckedOutBooks = bookCartService.checkout(userDetails.getUserId(), cartSession.getCartList());
+            unCheckedOutBooks = bookCartService.checkout(userDetails.getUserId(), isbnList);
         } catch (DataAccessException e) {
             ModelAndView mav = new ModelAndView("user/book-cart");
             mav.addObject("errorMessage", "処理中にエラーが発生しました。");
-            addCartPageAttributes(mav, cartSession.getCartList().size());
+            addCartPageAttributes(mav, isbnList.size());
             return mav;
         }
 
         List<BookModel> displayedUnCheckedOutBookModels = unCheckedOutBooks.stream()
-                .map(book -> new BookModel(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getAvailableStock(),
-                        book.getDescription())).toList();
+                .map(book -> new BookModel(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getAvailableStock()))
+                .toList();
 
         cartSession.clearCart();
 
@@ -1,21 +1,28 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.BookModel;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookCoverService;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookListService;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookSearchService;
+import jp.co.solxyz.jsn.springbootadvincedexam.common.validation.anotation.Isbn;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 書籍一覧コントローラ
@@ -25,42 +32,106 @@ import java.util.List;
 @Slf4j
 public class BookListController {
 
+    /**
+     * 1ページに表示する書籍数
+     */
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * 検索結果の最大ページ番号(0始まり)
+     */
+    private static final int MAX_SEARCH_PAGE = 1000;
+
     /**
      * 書籍一覧サービス
      */
     private final BookListService bookListService;
 
+    /**
+     * 書籍検索サービス
+     */
+    private final BookSearchService bookSearchService;
+
+    /**
+     * 書影取得サービス
+     */
+    private final BookCoverService bookCoverService;
+
+    /**
+     * 書籍リストのJSON変換(シリアライザの解決を起動時に1度だけ行うため、型を固定して使い回す)
+     */
+    private final ObjectWriter bookListWriter;
+
     /**
      * コンストラクタ
      * @param bookListService 書籍一覧サービス
+     * @param bookSearchService 書籍検索サービス
+     * @param bookCoverService 書影取得サービス
+     * @param jsonMapper JSONマッパー
      */
-    public BookListController(BookListService bookListService) {
+    public BookListController(BookListService bookListService, BookSearchService bookSearchService, BookCoverService bookCoverService,
+            JsonMapper jsonMapper) {
         this.bookListService = bookListService;
+        this.bookSearchService = bookSearchService;
+        this.bookCoverService = bookCoverService;
+        this.bookListWriter = jsonMapper.writerFor(new TypeReference<List<BookModel>>() {
+        });
     }
 
     /**
      * 書籍一覧画面表示
+     * ISBNをカーソルとしたキーセットページングで1ページ分のみ表示する
+     * 検索語が指定された場合は検索結果をページ番号で1ページ分表示し、一致した全件数を表示する
+     * @param after 前ページ末尾のISBN(先頭ページの場合は未指定)
+     * @param query 検索語
+     * @param page 検索結果のページ番号(0始まり)
      * @return 書籍一覧画面
-     * @throws JsonProcessingException 指定した日付のフォーマットが不適切、または変換対象がJSON形式にシリアライズできない場合
      */
     @GetMapping
-    public ModelAndView bookList() throws JsonProcessingException {
+    public ModelAndView bookList(@RequestParam(name = "after", required = false) @Isbn String after,
+            @RequestParam(name = "q", required = false) @Size(max = 100) String query,
+            @RequestParam(name = "page", defaultValue = "0") @Min(0) @Max(MAX_SEARCH_PAGE) int page) {
         ModelAndView mav = new ModelAndView("user/book-list");
-        
-        JavaTimeModule module = new JavaTimeModule();
-        module.addSerializer(LocalDate.class, new LocalDateSerializer(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        module.addDeserializer(LocalDate.class, new LocalDateDeserializer(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(module);
+        // 画面は検索語の有無で表示を切り替えるため、空白のみの検索語は未指定として扱う
+        String normalizedQuery = query == null || query.isBlank() ? null : query.strip();
 
-        List<BookModel> displayedBookModels = bookListService.getAllBooks().stream()
-                .map(book -> new BookModel(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getAvailableStock(),
-                        book.getDescription())).toList();
+        List<BookModel> displayedBookModels;
+        if (normalizedQuery != null) {
+            Page<BookSummary> searchResult = bookSearchService.search(normalizedQuery, PageRequest.of(page, PAGE_SIZE));
+            displayedBookModels = toBookModels(searchResult.getContent());
+            mav.addObject("bookCount", searchResult.getTotalElements());
+            mav.addObject("nextCursor", null);
+            mav.addObject("nextPage", searchResult.hasNext() ? page + 1 : null);
+            mav.addObject("firstPage", searchResult.isFirst());
+        } else {
+            // 次ページの有無を判定するため1件多く取得する
+            List<BookSummary> books = bookListService.getBookSummariesAfter(after, PAGE_SIZE + 1);
+            boolean hasNextPage = books.size() > PAGE_SIZE;
+            displayedBookModels = toBookModels(books.stream().limit(PAGE_SIZE).toList());
+            mav.addObject("bookCount", bookListService.countBooks());
+            mav.addObject("nextCursor", hasNextPage ? displayedBookModels.get(displayedBookModels.size() - 1).getIsbn() : null);
+            mav.addObject("nextPage", null);
+            mav.addObject("firstPage", after == null);
+        }
         mav.addObject("books", displayedBookModels);
-        mav.addObject("booksJson", mapper.writeValueAsString(displayedBookModels));
-        mav.addObject("bookCount", displayedBookModels.size());
+        mav.addObject("booksJson", bookListWriter.writeValueAsString(displayedBookModels));
+        mav.addObject("query", normalizedQuery);
         mav.addObject("activeMenu", "bookList");
 
         return mav;
     }
+
+    /**
+     * 書籍概要を画面表示用の書籍情報に変換する
+     * キャッシュ済みの書影URLは埋め込み、画面からはキャッシュにない書影のみを問い合わせるようにする
+     * @param books 書籍概要リスト
+     * @return 画面表示用の書籍情報リスト
+     */
+    private List<BookModel> toBookModels(List<BookSummary> books) {
+        Map<String, String> coverUrls = bookCoverService.getCachedCoverUrls(books.stream().map(BookSummary::getIsbn).toList());
+        return books.stream()
+                .map(book -> new BookModel(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getAvailableStock(),
+                        coverUrls.get(book.getIsbn())))
+                .toList();
+    }
 }
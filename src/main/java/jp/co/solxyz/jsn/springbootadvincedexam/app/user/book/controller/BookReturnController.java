@@ -55,57 +55,42 @@ public class BookReturnController {
     @GetMapping
     public ModelAndView index(@AuthenticationPrincipal MyUserDetails userDetails) {
         ModelAndView mav = new ModelAndView("user/book-lending");
-        List<UnreturnedBookModel> unreturnedBooks = bookReturnService.getCurrentUserBooks(userDetails.getUserId());
-        List<UnreturnedBookModel> displayBooks = unreturnedBooks.stream()
-                .map(this::createDisplayBook)
-                .toList();
+        List<UnreturnedBookModel> displayBooks = bookReturnService.getCurrentUserBooks(userDetails.getUserId());
+
+        // 返却期限の計算と返却期限が近い書籍数の集計を1回の走査で行う
+        LocalDate today = LocalDate.now(clock);
+        long dueSoonCount = 0;
+        for (UnreturnedBookModel book : displayBooks) {
+            applyDueStatus(book, today);
+            if (book.isDueSoon()) {
+                dueSoonCount++;
+            }
+        }
 
-        mav.addObject("books", unreturnedBooks);
         mav.addObject("displayBooks", displayBooks);
-        addLendingPageAttributes(mav, displayBooks);
-        return mav;
-    }
-
-    /**
-     * 借りている書籍画面で共通して使用する表示属性を追加する
-     * @param mav モデルとビュー
-     * @param displayBooks 表示用の未返却書籍
-     */
-    private void addLendingPageAttributes(ModelAndView mav, List<UnreturnedBookModel> displayBooks) {
-        long dueSoonCount = displayBooks.stream()
-                .filter(UnreturnedBookModel::isDueSoon)
-                .count();
-
         mav.addObject("activeMenu", "lending");
         mav.addObject("bookCount", displayBooks.size());
         mav.addObject("dueSoonCount", dueSoonCount);
         mav.addObject("returnDueDays", RETURN_DUE_DAYS);
+        return mav;
     }
 
     /**
-     * 画面表示用の未返却書籍情報を作成する
+     * 未返却書籍に返却期限と貸出ステータスを設定する
      * @param book 未返却書籍
-     * @return 画面表示用の未返却書籍
+     * @param today 現在日
      */
-    private UnreturnedBookModel createDisplayBook(UnreturnedBookModel book) {
-        UnreturnedBookModel displayBook = new UnreturnedBookModel();
-        displayBook.setIsbn(book.getIsbn());
-        displayBook.setTitle(book.getTitle());
-        displayBook.setAuthor(book.getAuthor());
-        displayBook.setPublisher(book.getPublisher());
-        displayBook.setRentalAt(book.getRentalAt());
-
+    private void applyDueStatus(UnreturnedBookModel book, LocalDate today) {
         LocalDateTime dueAt = calculateDueAt(book.getRentalAt());
-        long remainingDays = calculateRemainingDays(dueAt);
+        long remainingDays = calculateRemainingDays(dueAt, today);
         boolean overdue = dueAt != null && remainingDays < 0;
         boolean dueSoon = dueAt != null && !overdue && remainingDays <= DUE_SOON_DAYS;
 
-        displayBook.setDueAt(dueAt);
-        displayBook.setRemainingDays(Math.max(remainingDays, 0));
-        displayBook.setDueSoon(dueSoon);
-        displayBook.setOverdue(overdue);
-        displayBook.setStatusLabel(createStatusLabel(overdue, dueSoon));
-        return displayBook;
+        book.setDueAt(dueAt);
+        book.setRemainingDays(Math.max(remainingDays, 0));
+        book.setDueSoon(dueSoon);
+        book.setOverdue(overdue);
+        book.setStatusLabel(createStatusLabel(overdue, dueSoon));
     }
 
     /**
@@ -123,13 +108,14 @@ public class BookReturnController {
     /**
      * 返却期限日までの残日数を計算する
      * @param dueAt 返却期限日時
+     * @param today 現在日
      * @return 返却期限日までの残日数
      */
-    private long calculateRemainingDays(LocalDateTime dueAt) {
+    private long calculateRemainingDays(LocalDateTime dueAt, LocalDate today) {
         if (dueAt == null) {
             return 0;
         }
-        return ChronoUnit.DAYS.between(LocalDate.now(clock), dueAt.toLocalDate());
+        return ChronoUnit.DAYS.between(today, dueAt.toLocalDate());
     }
 
     /**
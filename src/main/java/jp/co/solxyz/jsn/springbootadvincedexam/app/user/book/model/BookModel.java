@@ -1,11 +1,13 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
  * 書籍一覧に表示する書籍情報
+ * 書籍説明は詳細表示時に書籍詳細APIから取得する
  */
 @Data
 @AllArgsConstructor
@@ -26,7 +28,19 @@ public class BookModel {
     /** 在庫数 */
     private int availableStock;
 
-    /** 説明 */
-    private String description;
-
+    /** 書影URL(書影なしの場合は空文字、書影を取得していない場合はnull) */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String coverUrl;
+
+    /**
+     * 書影を含まない書籍情報を生成する
+     * @param isbn ISBN
+     * @param title タイトル
+     * @param author 著者
+     * @param publisher 出版社
+     * @param availableStock 在庫数
+     */
+    public BookModel(String isbn, String title, String author, String publisher, int availableStock) {
+        this(isbn, title, author, publisher, availableStock, null);
+    }
 }
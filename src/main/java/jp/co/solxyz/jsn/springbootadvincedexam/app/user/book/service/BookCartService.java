@@ -3,8 +3,7 @@ package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.CartBookModel;
 import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookLendingManager;
 import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookInventoryManager;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
-import jp.co.solxyz.jsn.springbootadvincedexam.session.dto.Cart;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -38,19 +37,14 @@ public class BookCartService {
 
     /**
      * カート情報取得
-     * @param carts カート情報
+     * @param isbnList カートに入っているISBNの一覧
      * @return カート書籍情報
      */
-    public List<CartBookModel> getCartList(List<Cart> carts) {
-        List<String> isbnList = new ArrayList<>();
-        for (Cart cart : carts) {
-            isbnList.add(cart.getIsbn());
-        }
-
-        List<Book> books = bookInventoryManager.getBooksByIsbn(isbnList);
+    public List<CartBookModel> getCartList(List<String> isbnList) {
+        List<BookSummary> books = bookInventoryManager.getBookSummariesByIsbn(isbnList);
 
         List<CartBookModel> cartBooks = new ArrayList<>();
-        for (Book book : books) {
+        for (BookSummary book : books) {
             cartBooks.add(new CartBookModel(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher()));
         }
         return cartBooks;
@@ -59,16 +53,10 @@ public class BookCartService {
     /**
      * 書籍の貸出処理
      * @param userId ユーザID
-     * @param carts カート情報
+     * @param isbnList カートに入っているISBNの一覧
      * @return 借りれなかった書籍一覧
      */
-    public List<Book> checkout(String userId, List<Cart> carts) {
-        List<String> isbnList = new ArrayList<>();
-
-        for (Cart cart : carts) {
-            isbnList.add(cart.getIsbn());
-        }
-
+    public List<BookSummary> checkout(String userId, List<String> isbnList) {
         return bookLendingManager.checkout(userId, isbnList);
     }
 }
@@ -0,0 +1,466 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.annotation.PreDestroy;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookInventoryManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * 書影画像サービス
+ * 書影画像を書影URLごとに一度だけ取得し、縮小した画像をローカルディスクに保存して配信する
+ * 書影URLが変わった場合は新しい書影URLから取得し直し、古い画像は削除する
+ * 蔵書にないISBNの画像は取得・配信しない
+ */
+@Service
+@Slf4j
+public class BookCoverImageService {
+
+    /**
+     * 書影画像の保存先ディレクトリ
+     */
+    private static final Path COVER_IMAGE_DIRECTORY = Path.of("covers");
+
+    /**
+     * 保存する書影画像の最大の高さ(詳細表示の書影を高解像度ディスプレイでも粗くならない大きさにする)
+     */
+    private static final int MAX_IMAGE_HEIGHT = 400;
+
+    /**
+     * 取得する書影画像の最大サイズ(バイト)
+     */
+    private static final int MAX_IMAGE_BYTES = 5 * 1024 * 1024;
+
+    /**
+     * 書影画像の保存先ディレクトリの最大サイズ(バイト)
+     */
+    private static final long MAX_DIRECTORY_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * 縮小前の書影画像の最大画素数(圧縮率の高い巨大な画像を展開してメモリを使い果たさないようにする)
+     */
+    private static final long MAX_SOURCE_PIXELS = 4096L * 4096;
+
+    /**
+     * 書影画像取得のタイムアウト
+     */
+    private static final Duration IMAGE_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * 取得できなかった書影URLを再取得しない期間
+     */
+    private static final Duration FAILED_IMAGE_TTL = Duration.ofHours(1);
+
+    /**
+     * 取得できなかった書影URLを保持する最大数
+     */
+    private static final long MAX_FAILED_IMAGES = 10_000;
+
+    /**
+     * 画像の展開・縮小・保存を行うスレッド数
+     */
+    private static final int IMAGE_PROCESSING_THREADS = 2;
+
+    /**
+     * 書影取得サービス
+     */
+    private final BookCoverService bookCoverService;
+
+    /**
+     * 書籍在庫管理
+     */
+    private final BookInventoryManager bookInventoryManager;
+
+    /**
+     * HTTPクライアント
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * 書影画像の保存先ディレクトリ
+     */
+    private final Path imageDirectory;
+
+    /**
+     * 取得する書影画像の最大サイズ(バイト)
+     */
+    private final int maxImageBytes;
+
+    /**
+     * 書影画像の保存先ディレクトリの最大サイズ(バイト)
+     */
+    private final long maxDirectoryBytes;
+
+    /**
+     * 画像の展開・縮小・保存を行うExecutor(HTTPクライアントの完了通知スレッドをふさがないようにする)
+     */
+    private final Executor imageExecutor;
+
+    /**
+     * 取得できなかった書影URL(一定期間は再取得せずに空を返す)
+     */
+    private final Cache<String, Boolean> failedCoverUrls;
+
+    /**
+     * 保存済みの書影画像の合計サイズ(バイト、未集計の場合は-1)
+     */
+    private long storedBytes = -1;
+
+    /**
+     * 取得中の書影画像(同じISBNの取得が同時に要求された場合は、先に開始した取得の完了を待つ)
+     */
+    private final Map<String, CompletableFuture<Optional<Path>>> inFlightImages = new ConcurrentHashMap<>();
+
+    /**
+     * コンストラクタ
+     * @param bookCoverService 書影取得サービス
+     * @param bookInventoryManager 書籍在庫管理
+     */
+    @Autowired
+    public BookCoverImageService(BookCoverService bookCoverService, BookInventoryManager bookInventoryManager) {
+        this(bookCoverService, bookInventoryManager, HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build(),
+                COVER_IMAGE_DIRECTORY, MAX_IMAGE_BYTES, MAX_DIRECTORY_BYTES,
+                Executors.newFixedThreadPool(IMAGE_PROCESSING_THREADS, runnable -> {
+                    Thread thread = new Thread(runnable, "cover-image");
+                    thread.setDaemon(true);
+                    return thread;
+                }), Ticker.systemTicker());
+    }
+
+    BookCoverImageService(BookCoverService bookCoverService, BookInventoryManager bookInventoryManager, HttpClient httpClient,
+            Path imageDirectory, int maxImageBytes, long maxDirectoryBytes, Executor imageExecutor, Ticker ticker) {
+        this.bookCoverService = bookCoverService;
+        this.bookInventoryManager = bookInventoryManager;
+        this.httpClient = httpClient;
+        this.imageDirectory = imageDirectory;
+        this.maxImageBytes = maxImageBytes;
+        this.maxDirectoryBytes = maxDirectoryBytes;
+        this.imageExecutor = imageExecutor;
+        this.failedCoverUrls = Caffeine.newBuilder()
+                .maximumSize(MAX_FAILED_IMAGES)
+                .expireAfterWrite(FAILED_IMAGE_TTL)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * 画像の展開・縮小・保存を行うスレッドを停止する
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (imageExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * 書影画像のファイルを取得する
+     * 現在の書影URLの画像を保存済みの場合はそのファイルを返し、未保存の場合は書影URLから取得して縮小・保存する
+     * @param isbn ISBN
+     * @return 書影画像のファイル(蔵書にないISBNの場合、書影がない場合、または取得できなかった場合は空)
+     */
+    public CompletableFuture<Optional<Path>> getCoverImage(String isbn) {
+        if (!bookInventoryManager.existsBook(isbn)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return bookCoverService.getCoverUrlsAsync(List.of(isbn))
+                .thenCompose(coverUrls -> getCoverImage(isbn, coverUrls.get(isbn)));
+    }
+
+    /**
+     * ISBNと書影URLから書影画像のファイル名を作成する
+     * 書影URLが変わった場合に別のファイルとして取得し直すよう、書影URLから求めた値を含める
+     * @param isbn ISBN
+     * @param coverUrl 書影URL
+     * @return 書影画像のファイル名
+     */
+    static String imageFileName(String isbn, String coverUrl) {
+        return isbn + "-" + UUID.nameUUIDFromBytes(coverUrl.getBytes(StandardCharsets.UTF_8)) + ".jpg";
+    }
+
+    private CompletableFuture<Optional<Path>> getCoverImage(String isbn, String coverUrl) {
+        if (coverUrl == null || !(coverUrl.startsWith("https://") || coverUrl.startsWith("http://"))) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        Path imagePath = imageDirectory.resolve(imageFileName(isbn, coverUrl));
+        if (Files.isRegularFile(imagePath)) {
+            return CompletableFuture.completedFuture(Optional.of(imagePath));
+        }
+        if (failedCoverUrls.getIfPresent(coverUrl) != null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        CompletableFuture<Optional<Path>> newFetch = new CompletableFuture<>();
+        CompletableFuture<Optional<Path>> inFlight = inFlightImages.putIfAbsent(isbn, newFetch);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        fetchAndStore(isbn, coverUrl, imagePath).whenComplete((storedPath, e) -> {
+            inFlightImages.remove(isbn, newFetch);
+            if (e != null) {
+                log.warn("書影画像を取得できませんでした。ISBN: {}", isbn, e);
+                failedCoverUrls.put(coverUrl, Boolean.TRUE);
+                newFetch.complete(Optional.empty());
+            } else {
+                newFetch.complete(Optional.of(storedPath));
+            }
+        });
+        return newFetch;
+    }
+
+    private CompletableFuture<Path> fetchAndStore(String isbn, String coverUrl, Path imagePath) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(coverUrl))
+                .timeout(IMAGE_TIMEOUT)
+                .GET()
+                .build();
+        // 最大サイズを超える画像は受信途中で中止し、メモリ上に全体を読み込まない
+        HttpResponse.BodyHandler<byte[]> bodyHandler = responseInfo -> new LimitedByteArraySubscriber(maxImageBytes,
+                responseInfo.headers().firstValueAsLong("Content-Length").orElse(-1));
+        return httpClient.sendAsync(request, bodyHandler)
+                .thenApplyAsync(response -> {
+                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                        throw new CompletionException(new IOException("cover image returned status " + response.statusCode()));
+                    }
+                    return storeThumbnail(isbn, response.body(), imagePath);
+                }, imageExecutor);
+    }
+
+    /**
+     * 画像を縮小してJPEG形式で保存する
+     * 書き込み途中のファイルを配信しないよう、一時ファイルに書き込んでから置き換える
+     */
+    private Path storeThumbnail(String isbn, byte[] imageBytes, Path imagePath) {
+        try {
+            BufferedImage thumbnail = resize(readImage(imageBytes));
+
+            Files.createDirectories(imageDirectory);
+            Path temporaryPath = Files.createTempFile(imageDirectory, imagePath.getFileName().toString(), ".tmp");
+            long replacedBytes;
+            try {
+                ImageIO.write(thumbnail, "jpg", temporaryPath.toFile());
+                replacedBytes = imagePath.toFile().length();
+                Files.move(temporaryPath, imagePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryPath);
+            }
+            recordStoredImage(isbn, imagePath, replacedBytes);
+            return imagePath;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 画像を展開する
+     * 展開前に画像の大きさを読み取り、最大画素数を超える画像は展開しない
+     */
+    private BufferedImage readImage(byte[] imageBytes) throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("unsupported cover image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_SOURCE_PIXELS) {
+                    throw new IOException("cover image has too many pixels: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 保存した書影画像のサイズを合計に反映し、同じISBNの古い書影URLの画像を削除する
+     * 合計が最大サイズを超えた場合は保存日時の古い画像から削除する
+     * 削除を繰り返さないよう、最大サイズの9割まで削除する
+     * @param isbn ISBN
+     * @param imagePath 保存した書影画像
+     * @param replacedBytes 置き換えた画像のサイズ(新規に保存した場合は0)
+     */
+    private synchronized void recordStoredImage(String isbn, Path imagePath, long replacedBytes) {
+        try {
+            long removedBytes = 0;
+            for (Path image : listStoredImages()) {
+                String fileName = image.getFileName().toString();
+                boolean sameIsbn = fileName.equals(isbn + ".jpg") || fileName.startsWith(isbn + "-");
+                if (!sameIsbn || image.equals(imagePath)) {
+                    continue;
+                }
+                long imageBytes = image.toFile().length();
+                if (Files.deleteIfExists(image)) {
+                    removedBytes += imageBytes;
+                }
+            }
+            if (storedBytes < 0) {
+                storedBytes = listStoredImages().stream().mapToLong(image -> image.toFile().length()).sum();
+            } else {
+                storedBytes += imagePath.toFile().length() - replacedBytes - removedBytes;
+            }
+            if (storedBytes <= maxDirectoryBytes) {
+                return;
+            }
+
+            List<Path> storedImages = listStoredImages();
+            long totalBytes = storedImages.stream().mapToLong(image -> image.toFile().length()).sum();
+            int deletedCount = 0;
+            for (Path image : storedImages) {
+                if (totalBytes <= maxDirectoryBytes / 10 * 9) {
+                    break;
+                }
+                if (image.equals(imagePath)) {
+                    continue;
+                }
+                long imageBytes = image.toFile().length();
+                if (Files.deleteIfExists(image)) {
+                    totalBytes -= imageBytes;
+                    deletedCount++;
+                }
+            }
+            storedBytes = totalBytes;
+            log.info("保存済みの書影画像を{}件削除しました。", deletedCount);
+        } catch (IOException e) {
+            log.warn("保存済みの書影画像を削除できませんでした。", e);
+        }
+    }
+
+    /**
+     * 保存済みの書影画像を保存日時の古い順に取得する
+     */
+    private List<Path> listStoredImages() throws IOException {
+        try (Stream<Path> files = Files.list(imageDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jpg"))
+                    .filter(Files::isRegularFile)
+                    .sorted(Comparator.comparingLong(file -> file.toFile().lastModified()))
+                    .toList();
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source) {
+        int height = Math.min(source.getHeight(), MAX_IMAGE_HEIGHT);
+        int width = Math.max(1, Math.round((float) source.getWidth() * height / source.getHeight()));
+        // JPEGは透過を扱えないため、アルファチャンネルのない形式に描画する
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    /**
+     * 受信したバイト数を数え、最大サイズを超えた時点で受信を中止するBodySubscriber
+     * Content-Lengthが最大サイズを超える場合は、本文を受信せずに中止する
+     */
+    private static final class LimitedByteArraySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final int maxBytes;
+
+        private final long contentLength;
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        private Flow.Subscription subscription;
+
+        LimitedByteArraySubscriber(int maxBytes, long contentLength) {
+            this.maxBytes = maxBytes;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (contentLength > maxBytes) {
+                abort(contentLength);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (result.isDone()) {
+                return;
+            }
+            for (ByteBuffer buffer : buffers) {
+                if (body.size() + buffer.remaining() > maxBytes) {
+                    abort((long) body.size() + buffer.remaining());
+                    return;
+                }
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                body.writeBytes(bytes);
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(body.toByteArray());
+        }
+
+        private void abort(long receivedBytes) {
+            subscription.cancel();
+            result.completeExceptionally(new IOException("cover image is too large: " + receivedBytes + " bytes"));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 書影事前取得サービス
+ * 書籍一覧の表示時に書影URLがキャッシュミスとならないよう、バックグラウンドでopenBDから取得しておく
+ */
+@Service
+@Slf4j
+public class BookCoverPrefetchService {
+
+    /**
+     * 全書籍の書影取得時に、openBDへ一度に問い合わせるISBN数
+     */
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    /**
+     * 全書籍の書影取得時に、openBDへの問い合わせ間に空ける間隔
+     */
+    private static final Duration SWEEP_BATCH_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * 書影取得サービス
+     */
+    private final BookCoverService bookCoverService;
+
+    /**
+     * 書籍リポジトリ
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * openBDへの問い合わせ間に空ける間隔
+     */
+    private final Duration batchInterval;
+
+    /**
+     * コンストラクタ
+     * @param bookCoverService 書影取得サービス
+     * @param bookRepository 書籍リポジトリ
+     */
+    @Autowired
+    public BookCoverPrefetchService(BookCoverService bookCoverService, BookRepository bookRepository) {
+        this(bookCoverService, bookRepository, SWEEP_BATCH_INTERVAL);
+    }
+
+    BookCoverPrefetchService(BookCoverService bookCoverService, BookRepository bookRepository, Duration batchInterval) {
+        this.bookCoverService = bookCoverService;
+        this.bookRepository = bookRepository;
+        this.batchInterval = batchInterval;
+    }
+
+    /**
+     * 書籍の登録・更新のコミット後に、その書籍の書影URLを取得する
+     * 取得は非同期で行い、登録・更新処理は待たせない
+     * @param event 書籍カタログ変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(BookCatalogChangedEvent event) {
+        if (event.getChangeType() != ChangeType.REGISTERED && event.getChangeType() != ChangeType.UPDATED) {
+            return;
+        }
+        bookCoverService.refreshCover(event.getIsbn());
+    }
+
+    /**
+     * 全書籍のうち、キャッシュにない書影URLを取得する
+     * 起動直後と、その後は定期的に実行する
+     * openBDに負荷をかけないよう、ISBN順に分割し、問い合わせの完了を待ってから間隔を空けて次を問い合わせる
+     * 利用者の参照に使う書籍キャッシュを全書籍で置き換えないよう、ISBNのみをDBから直接取得する
+     */
+    @Scheduled(initialDelay = 1, fixedDelay = 360, timeUnit = TimeUnit.MINUTES)
+    public void sweep() {
+        String lastIsbn = "";
+        int fetchedCount = 0;
+        List<String> isbns;
+        do {
+            isbns = bookRepository.findIsbnsByIsbnGreaterThan(lastIsbn, Limit.of(SWEEP_BATCH_SIZE));
+            if (isbns.isEmpty()) {
+                break;
+            }
+            int requestedCount = bookCoverService.prefetchCovers(isbns).join();
+            fetchedCount += requestedCount;
+            lastIsbn = isbns.get(isbns.size() - 1);
+            // キャッシュ済みでopenBDへ問い合わせなかった場合は間隔を空けない
+            if (requestedCount > 0 && isbns.size() == SWEEP_BATCH_SIZE && !pause()) {
+                return;
+            }
+        } while (isbns.size() == SWEEP_BATCH_SIZE);
+        log.info("書影の事前取得が完了しました。取得したISBN数: {}", fetchedCount);
+    }
+
+    private boolean pause() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(batchInterval.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            log.warn("書影の事前取得が中断されました。");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,7 +1,20 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jp.co.solxyz.jsn.springbootadvincedexam.common.resilience.CallNotPermittedException;
+import jp.co.solxyz.jsn.springbootadvincedexam.common.resilience.CircuitBreaker;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookCoverStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.json.JsonMapper;
@@ -14,17 +27,23 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * 書影取得サービス
  */
 @Service
 @Slf4j
-public class BookCoverService {
+public class BookCoverService implements MeterBinder {
 
     /**
      * openBD API URL
@@ -37,9 +56,50 @@ public class BookCoverService {
     private static final String MISSING_COVER = "";
 
     /**
-     * キャッシュできるISBN数
+     * キャッシュできるISBN数(起動時に保存済みの書影URLをすべて読み込めるよう、蔵書数より大きくする)
      */
-    private static final int MAX_CACHE_SIZE = 500;
+    private static final int MAX_CACHE_SIZE = 10_000;
+
+    /**
+     * 書影URLのキャッシュ有効期間
+     */
+    private static final Duration COVER_TTL = Duration.ofHours(24);
+
+    /**
+     * 書影なしのキャッシュ有効期間(後から書影が登録される場合があるため短くする)
+     */
+    private static final Duration MISSING_COVER_TTL = Duration.ofHours(1);
+
+    /**
+     * 参照された書影URLをバックグラウンドで再取得するまでの期間
+     */
+    private static final Duration COVER_REFRESH_INTERVAL = Duration.ofHours(12);
+
+    /**
+     * openBDへのリクエストのタイムアウト
+     */
+    private static final Duration OPENBD_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * openBDへの問い合わせを遮断するまでの連続失敗回数
+     */
+    private static final int OPENBD_FAILURE_THRESHOLD = 5;
+
+    /**
+     * openBDへの問い合わせを遮断する期間
+     */
+    private static final Duration OPENBD_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * openBDへ同時に問い合わせできる数
+     */
+    private static final int OPENBD_MAX_CONCURRENT_REQUESTS = 4;
+
+    /**
+     * openBDへ一度に問い合わせるISBN数
+     * URLが長くなりすぎないよう、これを超える場合は分割して順に問い合わせる
+     */
+    private static final int OPENBD_MAX_ISBNS_PER_REQUEST = 100;
 
     /**
      * HTTPクライアント
@@ -51,28 +111,72 @@ public class BookCoverService {
      */
     private final JsonMapper jsonMapper;
 
+    /**
+     * 書影URLの永続化
+     */
+    private final BookCoverStore bookCoverStore;
+
+    /**
+     * openBD API URL(末尾にISBNを連結する)
+     */
+    private final String openBdApiUrl;
+
+    /**
+     * openBDへの問い合わせのサーキットブレーカー
+     * openBDの障害時は問い合わせずにキャッシュ済みの書影URLのみを返し、タイムアウトまで待たせない
+     */
+    private final CircuitBreaker openBdCircuitBreaker;
+
     /**
      * ISBNごとの書影URLキャッシュ
+     * 同じISBNの取得が同時に要求された場合は、先に開始した取得の完了を待つ
      */
-    private final Map<String, String> coverCache;
+    private final AsyncLoadingCache<String, String> coverCache;
 
     /**
      * コンストラクタ
      * @param jsonMapper JSONマッパー
+     * @param bookCoverStore 書影URLの永続化
      */
     @Autowired
-    public BookCoverService(JsonMapper jsonMapper) {
-        this(HttpClient.newHttpClient(), jsonMapper, MAX_CACHE_SIZE);
+    public BookCoverService(JsonMapper jsonMapper, BookCoverStore bookCoverStore) {
+        this(HttpClient.newHttpClient(), jsonMapper, bookCoverStore);
     }
 
-    BookCoverService(HttpClient httpClient, JsonMapper jsonMapper) {
-        this(httpClient, jsonMapper, MAX_CACHE_SIZE);
+    BookCoverService(HttpClient httpClient, JsonMapper jsonMapper, BookCoverStore bookCoverStore) {
+        this(httpClient, jsonMapper, bookCoverStore, OPENBD_API_URL, MAX_CACHE_SIZE, Ticker.systemTicker(), ForkJoinPool.commonPool());
     }
 
-    BookCoverService(HttpClient httpClient, JsonMapper jsonMapper, int maxCacheSize) {
+    BookCoverService(HttpClient httpClient, JsonMapper jsonMapper, BookCoverStore bookCoverStore, String openBdApiUrl, int maxCacheSize,
+            Ticker ticker, Executor executor) {
         this.httpClient = httpClient;
         this.jsonMapper = jsonMapper;
-        this.coverCache = createCoverCache(maxCacheSize);
+        this.bookCoverStore = bookCoverStore;
+        this.openBdApiUrl = openBdApiUrl;
+        this.openBdCircuitBreaker = new CircuitBreaker("openBD", OPENBD_FAILURE_THRESHOLD, OPENBD_OPEN_DURATION,
+                OPENBD_MAX_CONCURRENT_REQUESTS, ticker::read);
+        this.coverCache = createCoverCache(maxCacheSize, ticker, executor);
+    }
+
+    /**
+     * キャッシュのヒット・ミス・追い出し件数と、openBDへの問い合わせのサーキットブレーカーの状態をメトリクスとして登録する
+     * @param registry メトリクスレジストリ
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, coverCache.synchronous(), "bookCovers");
+        openBdCircuitBreaker.bindTo(registry);
+    }
+
+    /**
+     * 起動時に保存済みの書影URLをキャッシュへ読み込む
+     * 再起動直後もopenBDへ問い合わせずに書影を返せるようにする
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStoredCovers() {
+        Map<String, String> storedCoverUrls = bookCoverStore.loadCoverUrls(MISSING_COVER_TTL);
+        coverCache.synchronous().putAll(storedCoverUrls);
+        log.info("保存済みの書影を{}件読み込みました。", storedCoverUrls.size());
     }
 
     /**
@@ -81,34 +185,91 @@ public class BookCoverService {
      * @return ISBNと書影URLのマップ
      */
     public Map<String, String> getCoverUrls(List<String> isbnList) {
+        return getCoverUrlsAsync(isbnList).join();
+    }
+
+    /**
+     * ISBNに対応する書影URLを非同期で取得
+     * キャッシュにないISBNのみopenBDから取得し、他のリクエストが取得中のISBNはその取得結果を待つ
+     * openBDから取得できなかった場合は、取得済みの書影URLのみを返す(取得中のISBNの完了は待たない)
+     * @param isbnList ISBNリスト
+     * @return ISBNと書影URLのマップ(openBDからの取得完了後に完了する)
+     */
+    public CompletableFuture<Map<String, String>> getCoverUrlsAsync(List<String> isbnList) {
         List<String> normalizedIsbns = isbnList.stream()
                 .map(String::trim)
                 .filter(isbn -> !isbn.isBlank())
                 .distinct()
                 .toList();
 
-        Map<String, String> coverUrls = new LinkedHashMap<>();
-        List<String> missingIsbns = normalizedIsbns.stream()
-                .filter(isbn -> {
-                    String coverUrl = coverCache.get(isbn);
-                    if (coverUrl != null) {
-                        if (!coverUrl.isBlank()) {
-                            coverUrls.put(isbn, coverUrl);
-                        }
-                        return false;
-                    }
-                    return true;
-                })
+        return coverCache.getAll(normalizedIsbns)
+                .exceptionally(e -> getLoadedCoverUrls(normalizedIsbns))
+                .thenApply(coverUrls -> collectCoverUrls(normalizedIsbns, coverUrls));
+    }
+
+    /**
+     * キャッシュ済みの書影URLのみを取得する
+     * openBDへは問い合わせないため、画面表示時に待たせずに書影URLを埋め込むために使用する
+     * @param isbnList ISBNリスト
+     * @return ISBNと書影URLのマップ(書影なしは空文字、キャッシュにないISBNは含まない)
+     */
+    public Map<String, String> getCachedCoverUrls(List<String> isbnList) {
+        return coverCache.synchronous().getAllPresent(isbnList);
+    }
+
+    /**
+     * キャッシュにないISBNの書影URLをopenBDから取得してキャッシュする
+     * 利用者からの要求時にキャッシュミスとならないよう、事前に取得するために使用する
+     * キャッシュ済みのISBNは問い合わせず、ヒット数にも数えない
+     * @param isbnList ISBNリスト
+     * @return openBDへ問い合わせたISBN数(取得完了後に完了し、openBDから取得できなかった場合も正常に完了する)
+     */
+    public CompletableFuture<Integer> prefetchCovers(List<String> isbnList) {
+        // 取得中のISBNも問い合わせ済みとして扱い、取得の完了は待たない
+        Map<String, CompletableFuture<String>> cachedCoverUrls = coverCache.asMap();
+        List<String> missingIsbns = isbnList.stream()
+                .filter(isbn -> !cachedCoverUrls.containsKey(isbn))
+                .distinct()
                 .toList();
-        if (!missingIsbns.isEmpty()) {
-            fetchAndCacheCovers(missingIsbns);
+        if (missingIsbns.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
         }
+        // 取得失敗はfetchCoversでログ出力済みのため、ここでは無視する
+        return coverCache.getAll(missingIsbns).handle((coverUrls, e) -> missingIsbns.size());
+    }
 
-        normalizedIsbns.forEach(isbn -> {
-            if (coverUrls.containsKey(isbn)) {
-                return;
+    /**
+     * ISBNの書影URLをopenBDから再取得してキャッシュする
+     * 書籍の登録・更新時に、キャッシュ済みの書影なしを最新の内容に置き換えるために使用する
+     * 再取得できなかった場合はキャッシュ済みの書影URLを残す
+     * @param isbn ISBN
+     */
+    public void refreshCover(String isbn) {
+        coverCache.synchronous().refresh(isbn);
+    }
+
+    /**
+     * 取得済みの書影URLの複製を取得する
+     * 取得中のISBNは完了を待たずに除外し、ヒット数にも数えない
+     * @param isbnList ISBNリスト
+     * @return ISBNと書影URLの変更不可のマップ(書影なしは空文字)
+     */
+    private Map<String, String> getLoadedCoverUrls(List<String> isbnList) {
+        Map<String, String> loadedCoverUrls = new HashMap<>();
+        for (String isbn : isbnList) {
+            CompletableFuture<String> future = coverCache.asMap().get(isbn);
+            String coverUrl = future == null || future.isCompletedExceptionally() ? null : future.getNow(null);
+            if (coverUrl != null) {
+                loadedCoverUrls.put(isbn, coverUrl);
             }
-            String coverUrl = coverCache.get(isbn);
+        }
+        return Map.copyOf(loadedCoverUrls);
+    }
+
+    private Map<String, String> collectCoverUrls(List<String> isbnList, Map<String, String> loadedCoverUrls) {
+        Map<String, String> coverUrls = new LinkedHashMap<>();
+        isbnList.forEach(isbn -> {
+            String coverUrl = loadedCoverUrls.get(isbn);
             if (coverUrl != null && !coverUrl.isBlank()) {
                 coverUrls.put(isbn, coverUrl);
             }
@@ -116,45 +277,118 @@ public class BookCoverService {
         return coverUrls;
     }
 
-    private void fetchAndCacheCovers(List<String> isbnList) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder(buildOpenBdUri(isbnList))
-                    .timeout(Duration.ofSeconds(5))
-                    .GET()
-                    .build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new IOException("openBD returned status " + response.statusCode());
+    /**
+     * ISBNを一定数ごとに分割し、openBDへ順に問い合わせる
+     * 一部の問い合わせが失敗した場合は、取得できたISBNの書影URLのみを返す
+     * @param isbnList ISBNリスト
+     * @return ISBNと書影URLのマップ(全ての問い合わせが失敗した場合は例外で完了する)
+     */
+    private CompletableFuture<Map<String, String>> fetchCoversInBatches(List<String> isbnList) {
+        if (isbnList.size() <= OPENBD_MAX_ISBNS_PER_REQUEST) {
+            return fetchCovers(isbnList);
+        }
+        CompletableFuture<Map<String, String>> future = CompletableFuture.completedFuture(new LinkedHashMap<>());
+        for (int from = 0; from < isbnList.size(); from += OPENBD_MAX_ISBNS_PER_REQUEST) {
+            List<String> batch = isbnList.subList(from, Math.min(from + OPENBD_MAX_ISBNS_PER_REQUEST, isbnList.size()));
+            // 取得失敗はfetchCoversでログ出力済みのため、ここでは残りの問い合わせを続ける
+            future = future.thenCompose(coverUrls -> fetchCovers(batch).handle((batchCoverUrls, e) -> {
+                if (batchCoverUrls != null) {
+                    coverUrls.putAll(batchCoverUrls);
+                }
+                return coverUrls;
+            }));
+        }
+        return future.thenApply(coverUrls -> {
+            if (coverUrls.isEmpty()) {
+                throw new CompletionException(new IOException("openBD requests failed for all batches"));
             }
+            return coverUrls;
+        });
+    }
 
-            JsonNode root = jsonMapper.readTree(response.body());
-            for (int index = 0; index < isbnList.size(); index++) {
-                String isbn = isbnList.get(index);
-                coverCache.put(isbn, readCoverUrl(root, index));
-            }
-        } catch (IOException e) {
-            log.warn("openBDから書影を取得できませんでした。", e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("openBDからの書影取得が中断されました。", e);
-        }
+    private CompletableFuture<Map<String, String>> fetchCovers(List<String> isbnList) {
+        HttpRequest request = HttpRequest.newBuilder(buildOpenBdUri(isbnList))
+                .timeout(OPENBD_TIMEOUT)
+                .GET()
+                .build();
+        // 送信時の例外や2xx以外のステータスもopenBDの障害としてサーキットブレーカーに記録する
+        return openBdCircuitBreaker.execute(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                        .thenApply(response -> {
+                            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                                throw new CompletionException(new IOException("openBD returned status " + response.statusCode()));
+                            }
+                            return response;
+                        }))
+                .thenApply(response -> {
+                    JsonNode root = jsonMapper.readTree(response.body());
+                    Map<String, String> coverUrls = new LinkedHashMap<>();
+                    for (int index = 0; index < isbnList.size(); index++) {
+                        coverUrls.put(isbnList.get(index), readCoverUrl(root, index));
+                    }
+                    return coverUrls;
+                })
+                .whenComplete((coverUrls, e) -> {
+                    if (e == null) {
+                        bookCoverStore.enqueue(coverUrls);
+                    } else if (e.getCause() instanceof CallNotPermittedException) {
+                        log.debug("openBDへの問い合わせを遮断中のため、書影を取得しませんでした。");
+                    } else {
+                        log.warn("openBDから書影を取得できませんでした。", e);
+                    }
+                });
     }
 
     private URI buildOpenBdUri(List<String> isbnList) {
         String joinedIsbns = isbnList.stream()
                 .map(isbn -> URLEncoder.encode(isbn, StandardCharsets.UTF_8))
-                .reduce((left, right) -> left + "," + right)
-                .orElse("");
-        return URI.create(OPENBD_API_URL + joinedIsbns);
+                .collect(Collectors.joining(","));
+        return URI.create(openBdApiUrl + joinedIsbns);
     }
 
-    private Map<String, String> createCoverCache(int maxCacheSize) {
-        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
-                return size() > maxCacheSize;
-            }
-        });
+    /**
+     * 書影URLキャッシュを生成する
+     * 書影なしは書影URLより短い期間で期限切れにし、参照された書影URLは期限切れ前にバックグラウンドで再取得する
+     * openBDから取得できなかったISBNはキャッシュしない
+     * 取得できた書影URLは再起動後も利用できるよう、永続化の書き込み待ちに追加する
+     */
+    private AsyncLoadingCache<String, String> createCoverCache(int maxCacheSize, Ticker ticker, Executor executor) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxCacheSize)
+                .expireAfter(new Expiry<String, String>() {
+                    @Override
+                    public long expireAfterCreate(String isbn, String coverUrl, long currentTime) {
+                        return ttlOf(coverUrl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String isbn, String coverUrl, long currentTime, long currentDuration) {
+                        return ttlOf(coverUrl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String isbn, String coverUrl, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .refreshAfterWrite(COVER_REFRESH_INTERVAL)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<String, String>() {
+                    @Override
+                    public CompletableFuture<String> asyncLoad(String isbn, Executor loaderExecutor) {
+                        return fetchCovers(List.of(isbn)).thenApply(coverUrls -> coverUrls.get(isbn));
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<String, String>> asyncLoadAll(Set<? extends String> isbns, Executor loaderExecutor) {
+                        return fetchCoversInBatches(List.copyOf(isbns));
+                    }
+                });
+    }
+
+    private Duration ttlOf(String coverUrl) {
+        return MISSING_COVER.equals(coverUrl) ? MISSING_COVER_TTL : COVER_TTL;
     }
 
     private String readCoverUrl(JsonNode root, int index) {
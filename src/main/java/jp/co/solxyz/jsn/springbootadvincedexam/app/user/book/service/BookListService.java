@@ -2,9 +2,11 @@ package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookInventoryManager;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * 書籍一覧サービス
@@ -26,10 +28,30 @@ public class BookListService {
     }
 
     /**
-     * 全書籍取得
-     * @return 全書籍
+     * 指定したISBNより後ろの書籍概要を1ページ分取得
+     * @param afterIsbn 前ページ末尾のISBN(先頭ページの場合はnull)
+     * @param limit 取得件数
+     * @return 書籍概要リスト
      */
-    public List<Book> getAllBooks() {
-        return bookInventoryManager.getAllBooks();
+    public List<BookSummary> getBookSummariesAfter(String afterIsbn, int limit) {
+        return bookInventoryManager.getBookSummariesAfter(afterIsbn, limit);
+    }
+
+    /**
+     * 書籍の総数を取得
+     * @return 書籍の総数
+     */
+    public long countBooks() {
+        return bookInventoryManager.countBooks();
+    }
+
+    /**
+     * 書籍詳細を取得
+     * @param isbn ISBN
+     * @return 書籍
+     * @throws NoSuchElementException DBに指定されたISBNの書籍が存在しない場合
+     */
+    public Book getBookDetail(String isbn) throws NoSuchElementException {
+        return bookInventoryManager.getBookByIsbn(isbn);
     }
 }
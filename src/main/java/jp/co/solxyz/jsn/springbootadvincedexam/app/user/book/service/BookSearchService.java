@@ -0,0 +1,84 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookInventoryManager;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookSearchIndex;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 書籍検索サービス
+ */
+@Service
+public class BookSearchService {
+
+    /**
+     * 書籍検索インデックス
+     */
+    private final BookSearchIndex bookSearchIndex;
+
+    /**
+     * 書籍サービスビジネスロジック
+     */
+    private final BookInventoryManager bookInventoryManager;
+
+    /**
+     * コンストラクタ
+     * @param bookSearchIndex 書籍検索インデックス
+     * @param bookInventoryManager 書籍サービスビジネスロジック
+     */
+    public BookSearchService(BookSearchIndex bookSearchIndex, BookInventoryManager bookInventoryManager) {
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookInventoryManager = bookInventoryManager;
+    }
+
+    /**
+     * 検索語に一致する書籍概要を取得
+     * 在庫数は索引に持たないため、一致した書籍のみDBから取得する
+     * @param query 検索語
+     * @param limit 最大取得件数
+     * @return 検索結果の順に並んだ書籍概要リスト
+     */
+    public List<BookSummary> search(String query, int limit) {
+        return toBookSummaries(bookSearchIndex.search(query, limit));
+    }
+
+    /**
+     * 検索語に一致する書籍概要を1ページ分取得
+     * 一致した全件数は索引から求め、1ページ分の書籍のみDBから取得する
+     * @param query 検索語
+     * @param pageable ページ番号と1ページの件数
+     * @return 検索結果の順に並んだ1ページ分の書籍概要と一致した全件数
+     */
+    public Page<BookSummary> search(String query, Pageable pageable) {
+        BookSearchIndex.SearchHits hits = bookSearchIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(toBookSummaries(hits.isbnList()), pageable, hits.totalCount());
+    }
+
+    /**
+     * 検索結果のISBNを書籍概要に変換する
+     * 索引とDBの反映に差がありDBに存在しない書籍は除外する
+     * @param isbnList 検索結果の順に並んだISBNリスト
+     * @return 検索結果の順に並んだ書籍概要リスト
+     */
+    private List<BookSummary> toBookSummaries(List<String> isbnList) {
+        if (isbnList.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, BookSummary> bookByIsbn = bookInventoryManager.getBookSummariesByIsbn(isbnList).stream()
+                .collect(Collectors.toMap(BookSummary::getIsbn, Function.identity()));
+        return isbnList.stream()
+                .map(bookByIsbn::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,15 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.common.resilience;
+
+/**
+ * サーキットブレーカーにより呼び出しが拒否された場合の例外
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+    /**
+     * コンストラクタ
+     * @param message メッセージ
+     */
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
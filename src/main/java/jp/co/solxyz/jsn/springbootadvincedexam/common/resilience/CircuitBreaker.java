@@ -0,0 +1,181 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.common.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 外部サービス呼び出し用のサーキットブレーカー
+ * 連続して失敗した場合は一定期間呼び出しを遮断(OPEN)し、期間経過後に1件だけ試行(HALF_OPEN)して、成功すれば再開(CLOSED)する
+ * また、同時に実行できる呼び出し数を制限し、外部サービスの遅延時にスレッドや接続を使い切らないようにする
+ */
+@Slf4j
+public class CircuitBreaker implements MeterBinder {
+
+    /**
+     * サーキットブレーカーの状態
+     */
+    public enum State {
+        /** 呼び出し可能 */
+        CLOSED,
+        /** 呼び出し遮断中 */
+        OPEN,
+        /** 再開可否の試行中 */
+        HALF_OPEN
+    }
+
+    /** 名前(メトリクスのタグに使用する) */
+    private final String name;
+
+    /** 遮断するまでの連続失敗回数 */
+    private final int failureThreshold;
+
+    /** 遮断を続ける期間(ナノ秒) */
+    private final long openDurationNanos;
+
+    /** 同時実行数の制限 */
+    private final Semaphore bulkhead;
+
+    /** 現在時刻(ナノ秒)の取得 */
+    private final LongSupplier nanoTime;
+
+    /** 拒否した呼び出し数 */
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    /** 状態 */
+    private State state = State.CLOSED;
+
+    /** 連続失敗回数 */
+    private int consecutiveFailures;
+
+    /** 遮断を開始した時刻(ナノ秒) */
+    private long openedAt;
+
+    /** HALF_OPEN状態で試行中の呼び出しがあるか */
+    private boolean trialCallInFlight;
+
+    /**
+     * コンストラクタ
+     * @param name 名前
+     * @param failureThreshold 遮断するまでの連続失敗回数
+     * @param openDuration 遮断を続ける期間
+     * @param maxConcurrentCalls 同時に実行できる呼び出し数
+     * @param nanoTime 現在時刻(ナノ秒)の取得
+     */
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, int maxConcurrentCalls, LongSupplier nanoTime) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * 呼び出しを実行する
+     * 遮断中または同時実行数の上限に達している場合は、呼び出さずに{@link CallNotPermittedException}で失敗したFutureを返す
+     * @param call 呼び出し
+     * @param <T> 呼び出し結果の型
+     * @return 呼び出し結果
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        if (!bulkhead.tryAcquire()) {
+            rejectedCalls.incrementAndGet();
+            return CompletableFuture.failedFuture(new CallNotPermittedException(name + " has reached the concurrency limit"));
+        }
+        if (!tryAcquirePermission()) {
+            bulkhead.release();
+            rejectedCalls.incrementAndGet();
+            return CompletableFuture.failedFuture(new CallNotPermittedException(name + " circuit is open"));
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, e) -> {
+            bulkhead.release();
+            if (e == null) {
+                onSuccess();
+            } else {
+                onFailure();
+            }
+        });
+    }
+
+    /**
+     * 現在の状態を取得する
+     * 遮断期間を過ぎている場合はHALF_OPENを返す
+     * @return 状態
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoTime.getAsLong() - openedAt >= openDurationNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * 状態と拒否した呼び出し数をメトリクスとして登録する
+     * @param registry メトリクスレジストリ
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (State meterState : State.values()) {
+            Gauge.builder("circuitbreaker.state", this, breaker -> breaker.getState() == meterState ? 1 : 0)
+                    .description("現在の状態の場合は1、それ以外は0")
+                    .tag("name", name)
+                    .tag("state", meterState.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        FunctionCounter.builder("circuitbreaker.calls.rejected", rejectedCalls, AtomicLong::get)
+                .description("遮断中または同時実行数の上限により拒否した呼び出し数")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        State currentState = getState();
+        if (currentState == State.CLOSED) {
+            return true;
+        }
+        if (currentState == State.HALF_OPEN && !trialCallInFlight) {
+            state = State.HALF_OPEN;
+            trialCallInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("{}の呼び出しを再開します。", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialCallInFlight = false;
+    }
+
+    private synchronized void onFailure() {
+        trialCallInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("{}の呼び出しが{}回連続で失敗したため、一時的に遮断します。", name, consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = nanoTime.getAsLong();
+        }
+    }
+}
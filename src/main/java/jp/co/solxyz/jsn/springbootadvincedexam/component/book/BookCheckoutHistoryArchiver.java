@@ -0,0 +1,110 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 貸出履歴のアーカイブ
+ * 返却から一定期間が経過した貸出履歴をアーカイブテーブルへ移動し、貸出・返却で参照する貸出履歴テーブルを貸出中の件数程度に保つ
+ */
+@Component
+@Slf4j
+public class BookCheckoutHistoryArchiver {
+
+    /**
+     * 返却後、貸出履歴テーブルに残しておく期間
+     */
+    private static final Duration RETENTION_PERIOD = Duration.ofDays(90);
+
+    /**
+     * 1回に移動する最大件数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 1回の実行で移動するバッチ数の上限(残りは次回の実行で移動する)
+     */
+    private static final int MAX_BATCHES_PER_RUN = 200;
+
+    /**
+     * 貸出・返却の処理を妨げないよう、バッチ間に空ける間隔
+     */
+    private static final Duration BATCH_INTERVAL = Duration.ofMillis(200);
+
+    /**
+     * 書籍貸出履歴リポジトリ
+     */
+    private final BookCheckoutHistoryRepository bookCheckoutHistoryRepository;
+
+    /**
+     * 現在日時取得用Clock
+     */
+    private final Clock clock;
+
+    /**
+     * バッチ間に空ける間隔
+     */
+    private final Duration batchInterval;
+
+    /**
+     * コンストラクタ
+     * @param bookCheckoutHistoryRepository 書籍貸出履歴リポジトリ
+     * @param clock 現在日時取得用Clock
+     */
+    @Autowired
+    public BookCheckoutHistoryArchiver(BookCheckoutHistoryRepository bookCheckoutHistoryRepository, Clock clock) {
+        this(bookCheckoutHistoryRepository, clock, BATCH_INTERVAL);
+    }
+
+    BookCheckoutHistoryArchiver(BookCheckoutHistoryRepository bookCheckoutHistoryRepository, Clock clock, Duration batchInterval) {
+        this.bookCheckoutHistoryRepository = bookCheckoutHistoryRepository;
+        this.clock = clock;
+        this.batchInterval = batchInterval;
+    }
+
+    /**
+     * 返却から保存期間が経過した貸出履歴をアーカイブテーブルへ移動する
+     * 利用の少ない深夜に実行し、バッチごとにコミットして間隔を空ける
+     * @return 移動した件数
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public int archive() {
+        LocalDateTime returnedBefore = LocalDateTime.now(clock).minus(RETENTION_PERIOD);
+        int archivedCount = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            int count;
+            try {
+                count = bookCheckoutHistoryRepository.archiveReturnedBefore(returnedBefore, BATCH_SIZE);
+            } catch (DataAccessException e) {
+                log.error("貸出履歴のアーカイブに失敗しました。移動済み: {}件", archivedCount, e);
+                return archivedCount;
+            }
+            archivedCount += count;
+            if (count < BATCH_SIZE || !pause()) {
+                break;
+            }
+        }
+        log.info("貸出履歴のアーカイブが完了しました。移動した件数: {}", archivedCount);
+        return archivedCount;
+    }
+
+    private boolean pause() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(batchInterval.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            log.warn("貸出履歴のアーカイブが中断されました。");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jakarta.annotation.PreDestroy;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCover;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCoverRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 書影URLの永続化クラス
+ * openBDから取得した書影URLをDBに保存し、再起動後もopenBDへ問い合わせずに書影を返せるようにする
+ * 保存はリクエストを待たせないよう、定期的にまとめて書き込む
+ */
+@Component
+@Slf4j
+public class BookCoverStore {
+
+    /** 書き込み待ちの書影URLをDBへ反映する間隔(ミリ秒) */
+    private static final long FLUSH_INTERVAL_MILLIS = 10_000;
+
+    /** 書影リポジトリ */
+    private final BookCoverRepository bookCoverRepository;
+
+    /** 現在日時取得用Clock */
+    private final Clock clock;
+
+    /** 書き込み待ちの書影URL(同じISBNは最新の取得結果で上書きする) */
+    private final Map<String, String> pendingCoverUrls = new ConcurrentHashMap<>();
+
+    /**
+     * コンストラクタ
+     * @param bookCoverRepository 書影リポジトリ
+     * @param clock 現在日時取得用Clock
+     */
+    public BookCoverStore(BookCoverRepository bookCoverRepository, Clock clock) {
+        this.bookCoverRepository = bookCoverRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * 保存済みの書影URLを読み込む
+     * 書影なしは取得から指定期間を過ぎたものを除外する(後から書影が登録される場合があるため)
+     * @param missingCoverTtl 書影なしの有効期間
+     * @return ISBNと書影URLのマップ(書影なしは空文字)
+     */
+    public Map<String, String> loadCoverUrls(Duration missingCoverTtl) {
+        LocalDateTime missingCoverExpiredAt = LocalDateTime.now(clock).minus(missingCoverTtl);
+        List<BookCover> covers;
+        try {
+            covers = bookCoverRepository.findAll();
+        } catch (DataAccessException e) {
+            // 読み込めない場合もopenBDから取得できるため、起動は継続する
+            log.warn("保存済みの書影を読み込めませんでした。", e);
+            return Map.of();
+        }
+
+        Map<String, String> coverUrls = new HashMap<>();
+        covers.stream()
+                .filter(cover -> !cover.getCoverUrl().isEmpty() || cover.getFetchedAt().isAfter(missingCoverExpiredAt))
+                .forEach(cover -> coverUrls.put(cover.getIsbn().trim(), cover.getCoverUrl()));
+        return coverUrls;
+    }
+
+    /**
+     * 書影URLを書き込み待ちに追加する
+     * @param coverUrls ISBNと書影URLのマップ(書影なしは空文字)
+     */
+    public void enqueue(Map<String, String> coverUrls) {
+        pendingCoverUrls.putAll(coverUrls);
+    }
+
+    /**
+     * 書き込み待ちの書影URLをDBへ反映する
+     * 行ごとに存在確認と保存を行わないよう、1回のバッチでまとめて登録・更新する
+     * 反映できなかった書影URLは次回の反映時に再度書き込む
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MILLIS)
+    public void flush() {
+        if (pendingCoverUrls.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> snapshot = new HashMap<>(pendingCoverUrls);
+        LocalDateTime fetchedAt = LocalDateTime.now(clock);
+        List<BookCover> covers = snapshot.entrySet().stream()
+                .map(entry -> new BookCover(entry.getKey(), entry.getValue(), fetchedAt))
+                .toList();
+        try {
+            bookCoverRepository.upsertAll(covers);
+        } catch (DataAccessException e) {
+            log.warn("書影をDBへ保存できませんでした。", e);
+            return;
+        }
+        // 反映中に新しい取得結果で上書きされたISBNは、次回の反映まで残す
+        snapshot.forEach((isbn, coverUrl) -> pendingCoverUrls.remove(isbn, coverUrl));
+    }
+
+    /**
+     * 終了時に書き込み待ちの書影URLをDBへ反映する
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * 書き込み待ちの書影URL数を取得する
+     * @return 書き込み待ちの書影URL数
+     */
+    int pendingCount() {
+        return pendingCoverUrls.size();
+    }
+}
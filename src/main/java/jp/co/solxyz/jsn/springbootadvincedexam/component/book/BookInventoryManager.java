@@ -1,46 +1,165 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * 書籍への基本的な操作を行うビジネスロジッククラス
+ * 書籍はISBNごとにメモリ上へキャッシュし、書籍情報・在庫の変更がコミットされた時点で破棄する
+ * キャッシュにはDBから取得したエンティティの複製を保持し、呼び出し元にも複製を返す
+ * 一覧のページング・件数・全件取得は件数に上限がないため、キャッシュせずに毎回DBへ問い合わせる
  */
 @Component
 @Slf4j
-public class BookInventoryManager {
+public class BookInventoryManager implements MeterBinder {
+
+    /**
+     * キャッシュする最大書籍数
+     */
+    private static final long MAX_CACHED_BOOKS = 10_000;
+
+    /**
+     * キャッシュの有効期間(破棄漏れがあった場合の上限)
+     */
+    private static final Duration CACHE_EXPIRY = Duration.ofMinutes(30);
 
     /** 書籍リポジトリ*/
     private final BookRepository bookRepository;
 
+    /**
+     * ISBNごとの書籍キャッシュ(書籍説明を含む)
+     */
+    private final Cache<String, Book> bookCache;
+
+    /**
+     * ISBNごとの書籍概要キャッシュ(書籍説明を含まない)
+     */
+    private final Cache<String, BookSummary> bookSummaryCache;
+
+    /**
+     * 書籍情報・在庫の変更回数(読み込み中に変更された書籍をキャッシュしないために使用する)
+     * キャッシュの破棄と、読み込み結果の保持はこのオブジェクトで同期する
+     */
+    private final AtomicLong bookVersion = new AtomicLong();
+
     /**
      * コンストラクタ
      * @param bookRepository 書籍リポジトリ
      */
     public BookInventoryManager(BookRepository bookRepository) {
         this.bookRepository = bookRepository;
+        this.bookCache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_BOOKS)
+                .expireAfterWrite(CACHE_EXPIRY)
+                .recordStats()
+                .build();
+        this.bookSummaryCache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_BOOKS)
+                .expireAfterWrite(CACHE_EXPIRY)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * キャッシュのヒット・ミス・追い出し件数をメトリクスとして登録する
+     * @param registry メトリクスレジストリ
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, bookCache, "books");
+        CaffeineCacheMetrics.monitor(registry, bookSummaryCache, "bookSummaries");
     }
 
     /**
      * 全ての書籍を取得
+     * 全件を1件ずつキャッシュすると上限を超えて追い出しが続くため、キャッシュを経由せずにDBから取得する
      * @return 書籍リスト
      */
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
     }
 
+    /**
+     * 指定したISBNより後ろの書籍概要をISBN順に取得する
+     * 基準となるISBNが指定されていない場合は先頭から取得する
+     * @param afterIsbn 基準となるISBN
+     * @param limit 取得件数
+     * @return 書籍概要リスト
+     */
+    public List<BookSummary> getBookSummariesAfter(String afterIsbn, int limit) {
+        if (afterIsbn == null || afterIsbn.isEmpty()) {
+            return bookRepository.findSummariesOrderByIsbn(Limit.of(limit));
+        }
+        return bookRepository.findSummariesAfterIsbn(afterIsbn, Limit.of(limit));
+    }
+
+    /**
+     * 書籍の総数を取得
+     * @return 書籍の総数
+     */
+    public long countBooks() {
+        return bookRepository.count();
+    }
+
+    /**
+     * 指定したISBNの書籍が存在するか
+     * キャッシュ済みの場合はDBへ問い合わせない
+     * @param isbn ISBN
+     * @return 書籍が存在する場合はtrue
+     */
+    public boolean existsBook(String isbn) {
+        if (bookSummaryCache.getIfPresent(isbn) != null || bookCache.getIfPresent(isbn) != null) {
+            return true;
+        }
+        return bookRepository.existsById(isbn);
+    }
+
     /**
      * ISBNリストから書籍を取得
+     * キャッシュにない書籍のみまとめてDBから取得する
      * @param isbnList ISBNリスト
-     * @return 書籍リスト
+     * @return 書籍リスト(存在しないISBNは含まない)
      */
     public List<Book> getBooksByIsbn(List<String> isbnList) {
-        return bookRepository.findAllById(isbnList);
+        return getAll(bookCache, isbnList, missingIsbns -> bookRepository.findAllById(missingIsbns).stream()
+                .collect(Collectors.toMap(Book::getIsbn, BookInventoryManager::copyOf)), BookInventoryManager::copyOf);
+    }
+
+    /**
+     * ISBNリストから書籍概要を取得
+     * キャッシュにない書籍概要のみまとめてDBから取得する
+     * @param isbnList ISBNリスト
+     * @return 書籍概要リスト(存在しないISBNは含まない)
+     */
+    public List<BookSummary> getBookSummariesByIsbn(Collection<String> isbnList) {
+        return getAll(bookSummaryCache, isbnList, missingIsbns -> bookRepository.findSummariesByIsbnIn(missingIsbns).stream()
+                .collect(Collectors.toMap(BookSummary::getIsbn, Function.identity())), BookInventoryManager::copyOfSummary);
     }
 
     /**
@@ -50,12 +169,26 @@ public class BookInventoryManager {
      * @throws NoSuchElementException DBに指定されたISBNの書籍が存在しない場合
      */
     public Book getBookByIsbn(String isbn) throws NoSuchElementException {
-        Book book = bookRepository.findById(isbn).orElse(null);
+        Book book = bookCache.get(isbn, key -> bookRepository.findById(key).map(BookInventoryManager::copyOf).orElse(null));
         if (book == null) {
             log.info("指定されたISBNの書籍が存在しません。");
             throw new NoSuchElementException("指定されたISBNの書籍が存在しない、または削除されています。");
         }
-        return book;
+        return copyOf(book);
+    }
+
+    /**
+     * キャッシュを使わずにDBからISBNの書籍を1件取得
+     * 更新処理の基準となる最新の書籍情報を取得する場合に使用する
+     * @param isbn ISBN
+     * @return 書籍
+     * @throws NoSuchElementException DBに指定されたISBNの書籍が存在しない場合
+     */
+    public Book getLatestBookByIsbn(String isbn) throws NoSuchElementException {
+        return bookRepository.findById(isbn).orElseThrow(() -> {
+            log.info("指定されたISBNの書籍が存在しません。");
+            return new NoSuchElementException("指定されたISBNの書籍が存在しない、または削除されています。");
+        });
     }
 
     /**
@@ -70,4 +203,88 @@ public class BookInventoryManager {
             throw new IllegalArgumentException("在庫数は現在の在庫数未満の数値にはできません。　現在の在庫数: " + availableStock);
         }
     }
+
+    /**
+     * 書籍情報・在庫の変更がコミットされた後にキャッシュを破棄する
+     * トランザクション外で発行された場合は即時に破棄する
+     * @param event 書籍カタログ変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(BookCatalogChangedEvent event) {
+        synchronized (bookVersion) {
+            bookVersion.incrementAndGet();
+            bookCache.invalidate(event.getIsbn());
+            bookSummaryCache.invalidate(event.getIsbn());
+        }
+    }
+
+    /**
+     * ISBNリストから書籍をISBNリストの順に取得する
+     * キャッシュにない書籍のみまとめてDBから取得し、読み込み中に書籍が変更されなかった場合のみキャッシュする
+     * @param cache キャッシュ
+     * @param isbnList ISBNリスト
+     * @param loader キャッシュにないISBNの書籍をDBから取得する処理
+     * @param copier 呼び出し元に返す複製を作成する処理
+     * @return 書籍リスト(存在しないISBNは含まない)
+     */
+    private <T> List<T> getAll(Cache<String, T> cache, Collection<String> isbnList,
+            Function<List<String>, Map<String, T>> loader, UnaryOperator<T> copier) {
+        long version = bookVersion.get();
+        Set<String> isbns = new LinkedHashSet<>(isbnList);
+        Map<String, T> books = new HashMap<>(cache.getAllPresent(isbns));
+        List<String> missingIsbns = isbns.stream().filter(isbn -> !books.containsKey(isbn)).toList();
+        if (!missingIsbns.isEmpty()) {
+            Map<String, T> loadedBooks = loader.apply(missingIsbns);
+            books.putAll(loadedBooks);
+            storeLoaded(cache, loadedBooks, version);
+        }
+        return isbns.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(copier)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * 読み込み中に書籍情報・在庫の変更がなかった場合のみ読み込んだ書籍をキャッシュする
+     * @param cache キャッシュ
+     * @param loadedBooks ISBNごとの読み込んだ書籍
+     * @param version 読み込み開始時点の変更回数
+     */
+    private <T> void storeLoaded(Cache<String, T> cache, Map<String, T> loadedBooks, long version) {
+        synchronized (bookVersion) {
+            if (bookVersion.get() == version) {
+                cache.putAll(loadedBooks);
+            }
+        }
+    }
+
+    /**
+     * 書籍の複製を作成する
+     * @param book 書籍
+     * @return 書籍の複製
+     */
+    private static Book copyOf(Book book) {
+        Book copy = new Book();
+        copy.setIsbn(book.getIsbn());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setPublisher(book.getPublisher());
+        copy.setStock(book.getStock());
+        copy.setAvailableStock(book.getAvailableStock());
+        copy.setDescription(book.getDescription());
+        copy.setCreatedAt(book.getCreatedAt());
+        copy.setUpdatedAt(book.getUpdatedAt());
+        return copy;
+    }
+
+    /**
+     * 書籍概要の複製を作成する
+     * @param bookSummary 書籍概要
+     * @return 書籍概要の複製
+     */
+    private static BookSummary copyOfSummary(BookSummary bookSummary) {
+        return new BookSummary(bookSummary.getIsbn(), bookSummary.getTitle(), bookSummary.getAuthor(),
+                bookSummary.getPublisher(), bookSummary.getAvailableStock());
+    }
 }
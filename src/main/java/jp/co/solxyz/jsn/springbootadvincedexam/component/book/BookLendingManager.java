@@ -1,29 +1,54 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.UnreturnedBookModel;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.UserLoansChangedEvent;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCheckoutHistory;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.UserLoanSummaryRepository;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.UnreturnedBookSummary;
+import jp.co.solxyz.jsn.springbootadvincedexam.util.IdGenerator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * 書籍の貸出に関するビジネスロジッククラス
+ * ユーザごとの貸出中の書籍はメモリ上へキャッシュし、DBの貸出状況の変更回数と一致する場合のみ使用する
  */
 @Component
 @Slf4j
-public class BookLendingManager {
+public class BookLendingManager implements MeterBinder {
+
+    /**
+     * 貸出中の書籍をキャッシュする最大ユーザ数
+     */
+    private static final long MAX_CACHED_USERS = 10_000;
+
+    /**
+     * 貸出中の書籍のキャッシュの有効期間(最後に参照されてからの期間)
+     */
+    private static final Duration CACHE_EXPIRY = Duration.ofMinutes(30);
 
     /**
      * 書籍リポジトリ
@@ -35,36 +60,80 @@ public class BookLendingManager {
      */
     private final BookCheckoutHistoryRepository bookCheckoutHistoryRepository;
 
+    /**
+     * ユーザごとの貸出状況の集計リポジトリ
+     */
+    private final UserLoanSummaryRepository userLoanSummaryRepository;
+
+    /**
+     * イベント発行
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * ID生成
+     */
+    private final IdGenerator idGenerator;
+
+    /**
+     * ユーザIDごとの貸出中の書籍のキャッシュ
+     */
+    private final Cache<String, ActiveLoans> activeLoanCache;
+
     /**
      * コンストラクタ
      * @param bookRepository 書籍リポジトリ
      * @param bookCheckoutHistoryRepository 書籍貸出履歴リポジトリ
+     * @param userLoanSummaryRepository ユーザごとの貸出状況の集計リポジトリ
+     * @param eventPublisher イベント発行
+     * @param idGenerator ID生成
      */
-    public BookLendingManager(BookRepository bookRepository, BookCheckoutHistoryRepository bookCheckoutHistoryRepository) {
+    public BookLendingManager(BookRepository bookRepository, BookCheckoutHistoryRepository bookCheckoutHistoryRepository,
+            UserLoanSummaryRepository userLoanSummaryRepository, ApplicationEventPublisher eventPublisher,
+            IdGenerator idGenerator) {
         this.bookRepository = bookRepository;
         this.bookCheckoutHistoryRepository = bookCheckoutHistoryRepository;
+        this.userLoanSummaryRepository = userLoanSummaryRepository;
+        this.eventPublisher = eventPublisher;
+        this.idGenerator = idGenerator;
+        this.activeLoanCache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_USERS)
+                .expireAfterAccess(CACHE_EXPIRY)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * キャッシュのヒット・ミス・追い出し件数をメトリクスとして登録する
+     * @param registry メトリクスレジストリ
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, activeLoanCache, "activeLoans");
     }
 
     /**
      * チェックアウト
+     * 書籍説明(CLOB)を読み込まないよう、書籍は書籍概要として取得する
      * @param userId ユーザID
      * @param isbnList ISBNリスト
      * @return 借りられなかった書籍リスト
      * @throws DataAccessException DBとの接続で問題が発生した場合
      */
     @Transactional(rollbackFor = Exception.class)
-    public List<Book> checkout(String userId, List<String> isbnList) throws DataAccessException {
+    public List<BookSummary> checkout(String userId, List<String> isbnList) throws DataAccessException {
         // 借りられなかった本
-        List<Book> notCheckoutBooks = new ArrayList<>();
+        List<BookSummary> notCheckoutBooks = new ArrayList<>();
 
-        List<Book> books = bookRepository.findAllById(isbnList);
-        List<BookCheckoutHistory> userBooks = bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId);
+        long loanVersion = lockUserLoans(userId);
+        List<BookSummary> books = bookRepository.findSummariesByIsbnIn(isbnList);
+        Set<String> userIsbns = getActiveIsbns(userId, loanVersion);
 
         // 借りる本
-        List<Book> checkoutBooks = new ArrayList<>();
+        List<BookSummary> checkoutBooks = new ArrayList<>();
         // すでに借りている本がある場合は、借りられない
-        for (Book book : books) {
-            if (userBooks.stream().anyMatch(h -> h.getIsbn().equals(book.getIsbn()))) {
+        for (BookSummary book : books) {
+            if (userIsbns.contains(book.getIsbn())) {
                 log.info("すでに借りている本のため、チェックアウトできません。ISBN: {}", book.getIsbn());
                 notCheckoutBooks.add(book);
             } else {
@@ -72,33 +141,43 @@ public class BookLendingManager {
             }
         }
 
+        // 在庫の確認と減算をまとめて行い、減算できた本のみ貸し出す
+        // 同時に貸し出された場合に行ロックの取得順序が揃うよう、ISBN順に更新する
+        checkoutBooks.sort(Comparator.comparing(BookSummary::getIsbn));
+        int[] updatedCounts = bookRepository.decrementAvailableStock(checkoutBooks.stream().map(BookSummary::getIsbn).toList());
+
         List<BookCheckoutHistory> bookCheckoutHistories = new ArrayList<>();
-        for (Book book : checkoutBooks) {
-            if (book.getAvailableStock() == 0) {
+        Set<String> checkedOutIsbns = new HashSet<>();
+        for (int i = 0; i < checkoutBooks.size(); i++) {
+            BookSummary book = checkoutBooks.get(i);
+            if (updatedCounts[i] <= 0) {
                 log.info("在庫がないため、チェックアウトできません。ISBN: {}", book.getIsbn());
                 notCheckoutBooks.add(book);
                 continue;
             }
-            // 在庫を減らす
-            book.setAvailableStock(book.getAvailableStock() - 1);
 
             // チェックアウト履歴を作成
             BookCheckoutHistory bookCheckoutHistory = new BookCheckoutHistory();
-            bookCheckoutHistory.setRentalId(String.valueOf(UUID.randomUUID()));
+            bookCheckoutHistory.setRentalId(idGenerator.generateRentalId());
             bookCheckoutHistory.setUserId(userId);
             bookCheckoutHistory.setIsbn(book.getIsbn());
             bookCheckoutHistory.setRentalAt(LocalDateTime.now());
             bookCheckoutHistories.add(bookCheckoutHistory);
-
+            checkedOutIsbns.add(book.getIsbn());
+            eventPublisher.publishEvent(new BookCatalogChangedEvent(book.getIsbn(), ChangeType.STOCK_CHANGED));
         }
 
-        bookRepository.saveAll(books);
+        // 貸出履歴は件数によらず1回のバッチで登録する
         try {
-            bookCheckoutHistoryRepository.saveAll(bookCheckoutHistories);
+            bookCheckoutHistoryRepository.insertAll(bookCheckoutHistories);
+            if (!checkedOutIsbns.isEmpty()) {
+                userLoanSummaryRepository.addActiveLoanCount(userId, checkedOutIsbns.size());
+            }
         } catch (DataAccessException e) {
             log.error("チェックアウト履歴の登録に失敗しました。", e);
             throw e;
         }
+        eventPublisher.publishEvent(new UserLoansChangedEvent(userId, loanVersion, checkedOutIsbns, Set.of()));
         return notCheckoutBooks;
     }
 
@@ -108,17 +187,15 @@ public class BookLendingManager {
      * @return 貸出中の本
      */
     public List<UnreturnedBookModel> getUnreturnedBooksByUserId(String userId) {
-        List<BookCheckoutHistory> histories = bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId);
-        Set<String> isbnList = histories.stream().map(BookCheckoutHistory::getIsbn).collect(Collectors.toSet());
-        List<Book> result = bookRepository.findAllById(isbnList);
-        List<UnreturnedBookModel> unreturnedBooks = new ArrayList<>();
-        for (Book book : result) {
+        List<UnreturnedBookSummary> summaries = bookCheckoutHistoryRepository.findUnreturnedBookSummariesByUserId(userId);
+        List<UnreturnedBookModel> unreturnedBooks = new ArrayList<>(summaries.size());
+        for (UnreturnedBookSummary summary : summaries) {
             UnreturnedBookModel unreturnedBook = new UnreturnedBookModel();
-            unreturnedBook.setIsbn(book.getIsbn());
-            unreturnedBook.setTitle(book.getTitle());
-            unreturnedBook.setAuthor(book.getAuthor());
-            unreturnedBook.setPublisher(book.getPublisher());
-            unreturnedBook.setRentalAt(histories.stream().filter(h -> h.getIsbn().equals(book.getIsbn())).findFirst().get().getRentalAt());
+            unreturnedBook.setIsbn(summary.getIsbn());
+            unreturnedBook.setTitle(summary.getTitle());
+            unreturnedBook.setAuthor(summary.getAuthor());
+            unreturnedBook.setPublisher(summary.getPublisher());
+            unreturnedBook.setRentalAt(summary.getRentalAt());
             unreturnedBooks.add(unreturnedBook);
         }
 
@@ -135,21 +212,81 @@ public class BookLendingManager {
     @Transactional(rollbackFor = Exception.class)
     public void returnBook(String userId, String isbn) throws NoSuchElementException, DataAccessException {
         try {
-            Book book = bookRepository.findById(isbn).orElseThrow(() -> {
+            if (!bookRepository.existsById(isbn)) {
                 log.info("ISBNの一致する書籍が見つかりません。ISBN: {}", isbn);
-                return new NoSuchElementException("ISBNの一致する書籍が存在しません。");
-            });
+                throw new NoSuchElementException("ISBNの一致する書籍が存在しません。");
+            }
+            long loanVersion = lockUserLoans(userId);
             int updatedHistoryCount = bookCheckoutHistoryRepository.updateReturnAt(userId, isbn, LocalDateTime.now());
             if (updatedHistoryCount != 1) {
                 log.info("返却対象の貸し出し履歴が見つかりません。USER_ID: {}, ISBN: {}", userId, isbn);
                 throw new NoSuchElementException("返却対象の貸し出し履歴が存在しません。");
             }
 
-            book.setAvailableStock(book.getAvailableStock() + 1);
-            bookRepository.save(book);
+            bookRepository.incrementAvailableStock(isbn);
+            userLoanSummaryRepository.addActiveLoanCount(userId, -1);
+            eventPublisher.publishEvent(new BookCatalogChangedEvent(isbn, ChangeType.STOCK_CHANGED));
+            eventPublisher.publishEvent(new UserLoansChangedEvent(userId, loanVersion, Set.of(), Set.of(isbn)));
         } catch (DataAccessException e) {
             log.error("貸し出し履歴の更新に失敗しました。", e);
             throw e;
         }
     }
+
+    /**
+     * 貸出・返却がコミットされた後に、キャッシュ済みの貸出中の書籍へ反映する
+     * キャッシュが変更直前の状態でない場合(他のインスタンスで変更された場合など)は破棄する
+     * トランザクション外で発行された場合は即時に反映する
+     * @param event ユーザの貸出状況変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserLoansChanged(UserLoansChangedEvent event) {
+        activeLoanCache.asMap().computeIfPresent(event.getUserId(), (userId, activeLoans) -> {
+            if (activeLoans.loanVersion() != event.getLoanVersion() - 1) {
+                return null;
+            }
+            Set<String> isbns = new HashSet<>(activeLoans.isbns());
+            isbns.addAll(event.getCheckedOutIsbns());
+            isbns.removeAll(event.getReturnedIsbns());
+            return new ActiveLoans(event.getLoanVersion(), Set.copyOf(isbns));
+        });
+    }
+
+    /**
+     * ユーザの貸出状況の集計をロックし、このトランザクションでの変更後の変更回数を取得する
+     * 同じユーザの貸出・返却はロックの解放まで待たされるため、取得後に読み込む貸出中の書籍は他のトランザクションで変更されない
+     * @param userId ユーザID
+     * @return 変更後の貸出状況の変更回数
+     */
+    private long lockUserLoans(String userId) {
+        userLoanSummaryRepository.incrementLoanVersion(userId);
+        return userLoanSummaryRepository.findLoanVersionByUserId(userId).orElseThrow();
+    }
+
+    /**
+     * ユーザの貸出中の書籍のISBNを取得する
+     * キャッシュがこのトランザクションでの変更直前の状態の場合はキャッシュから返し、そうでない場合はDBから取得してキャッシュする
+     * @param userId ユーザID
+     * @param loanVersion このトランザクションでの変更後の貸出状況の変更回数
+     * @return 貸出中の書籍のISBNのセット
+     */
+    private Set<String> getActiveIsbns(String userId, long loanVersion) {
+        ActiveLoans cachedLoans = activeLoanCache.getIfPresent(userId);
+        if (cachedLoans != null && cachedLoans.loanVersion() == loanVersion - 1) {
+            return cachedLoans.isbns();
+        }
+        ActiveLoans loadedLoans = new ActiveLoans(loanVersion - 1,
+                Set.copyOf(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)));
+        activeLoanCache.asMap().merge(userId, loadedLoans,
+                (current, loaded) -> current.loanVersion() >= loaded.loanVersion() ? current : loaded);
+        return loadedLoans.isbns();
+    }
+
+    /**
+     * 貸出状況の変更回数と、その時点の貸出中の書籍のISBN
+     * @param loanVersion 貸出状況の変更回数
+     * @param isbns 貸出中の書籍のISBN
+     */
+    private record ActiveLoans(long loanVersion, Set<String> isbns) {
+    }
 }
@@ -1,9 +1,12 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
 
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
@@ -25,14 +28,20 @@ public class BookMetadataManager {
     /** 書籍貸出履歴リポジトリ */
     private final BookCheckoutHistoryRepository bookCheckoutHistoryRepository;
 
+    /** イベント発行 */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * コンストラクタ
      * @param bookRepository 書籍リポジトリ
      * @param bookCheckoutHistoryRepository 書籍貸出履歴リポジトリ
+     * @param eventPublisher イベント発行
      */
-    public BookMetadataManager(BookRepository bookRepository, BookCheckoutHistoryRepository bookCheckoutHistoryRepository) {
+    public BookMetadataManager(BookRepository bookRepository, BookCheckoutHistoryRepository bookCheckoutHistoryRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
         this.bookCheckoutHistoryRepository = bookCheckoutHistoryRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -51,6 +60,7 @@ public class BookMetadataManager {
             }
 
             bookRepository.save(book);
+            eventPublisher.publishEvent(new BookCatalogChangedEvent(book.getIsbn(), ChangeType.REGISTERED));
         } catch (DataAccessException e) {
             log.error("DBへの接続ができませんでした。", e);
             throw e;
@@ -59,10 +69,11 @@ public class BookMetadataManager {
 
     /**
      * 書籍情報の更新
+     * 利用可能在庫数は渡された書籍情報の値ではなく、DB上の現在値に在庫数の増減分を加算して更新する
      * @param book 更新する書籍情報
      * @param optimisticLockUpdatedAt 楽観的ロック用の最新の更新日時
      * @throws NoSuchElementException DBに更新対象の書籍が存在しない場合
-     * @throws OptimisticLockingFailureException 対象の書籍が既に他の管理者によって更新されていた場合
+     * @throws OptimisticLockingFailureException 対象の書籍が既に他の管理者によって更新されていた場合、または貸出中の冊数が変更後の在庫数を超える場合
      * @throws DataAccessException DBとの接続で問題が発生した場合
      */
     @Transactional(rollbackFor = Exception.class)
@@ -77,7 +88,6 @@ public class BookMetadataManager {
         int result;
         try {
             result = bookRepository.updateBook(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getStock(),
-                    book.getAvailableStock(),
                     book.getDescription(), book.getUpdatedAt(), optimisticLockUpdatedAt);
         } catch (DataAccessException e) {
             log.error("DBへの接続ができませんでした。");
@@ -88,6 +98,7 @@ public class BookMetadataManager {
             log.info("古いデータをもとに更新をしようとしました。");
             throw new OptimisticLockingFailureException("他の管理者によって更新されました。再度更新処理を行ってください。");
         }
+        eventPublisher.publishEvent(new BookCatalogChangedEvent(book.getIsbn(), ChangeType.UPDATED));
     }
 
     /**
@@ -106,13 +117,14 @@ public class BookMetadataManager {
             throw new NoSuchElementException("指定されたISBNの書籍が存在しない、または削除されています。");
         }
 
-        if (!bookCheckoutHistoryRepository.findUnreturnedBooksByIsbn(isbn).isEmpty()) {
+        if (bookCheckoutHistoryRepository.existsByIsbnAndReturnAtIsNull(isbn)) {
             log.info("貸し出し中の書籍は削除できません。");
             throw new IllegalStateException("貸し出し中の書籍は削除できません。");
         }
 
         try {
             bookRepository.deleteById(isbn);
+            eventPublisher.publishEvent(new BookCatalogChangedEvent(isbn, ChangeType.DELETED));
         } catch (DataAccessException e) {
             log.error("DBへの接続ができませんでした。", e);
             throw e;
@@ -0,0 +1,528 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 書籍検索用のインメモリ転置インデックス
+ * タイトル・著者・出版社・説明をNFKC正規化した上で文字単位のユニグラム・バイグラムに分割して索引する。
+ * 分かち書きを行わないため日本語の部分一致検索にも対応し、候補は原文との部分一致で確認してから返す。
+ */
+@Component
+public class BookSearchIndex {
+
+    /**
+     * 項目間の区切り文字(検索語にまたがって一致させないため)
+     */
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    /**
+     * 削除済みの枠を詰めるまでに許容する、削除済みの枠の最小数
+     */
+    private static final int MIN_REMOVED_DOCUMENTS_TO_COMPACT = 64;
+
+    /**
+     * 読み書きロック
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * ISBNと文書IDの対応
+     */
+    private final Map<String, Integer> documentIdByIsbn = new HashMap<>();
+
+    /**
+     * 文書IDごとの索引済み書籍(削除済みの場合はnull)
+     */
+    private final List<IndexedBook> documents = new ArrayList<>();
+
+    /**
+     * 削除済みの枠の数
+     */
+    private int removedDocumentCount;
+
+    /**
+     * トークンごとの文書IDリスト
+     */
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    /**
+     * 書籍を索引に追加する
+     * 同じISBNの書籍が索引済みの場合は置き換える
+     * @param book 書籍
+     */
+    public void put(Book book) {
+        lock.writeLock().lock();
+        try {
+            putInternal(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 複数の書籍をまとめて索引に追加する
+     * @param books 書籍リスト
+     */
+    public void putAll(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            for (Book book : books) {
+                putInternal(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 書籍を索引から削除する
+     * @param isbn ISBN
+     */
+    public void remove(String isbn) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(isbn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引を空にする
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documentIdByIsbn.clear();
+            documents.clear();
+            postings.clear();
+            removedDocumentCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引済みの書籍数を取得する
+     * @return 索引済みの書籍数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentIdByIsbn.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 削除済みを含む文書の枠数を取得する
+     * @return 文書の枠数
+     */
+    int documentSlotCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 検索語に一致する書籍のISBNを取得する
+     * 空白区切りの検索語は全て含む書籍(AND検索)を対象とし、タイトルが検索語で始まる書籍、タイトルに検索語を含む書籍、その他の順に並べる。
+     * 同じ順位の書籍は索引への登録順(起動時の構築ではISBN順)に並べる。
+     * @param query 検索語
+     * @param limit 最大取得件数
+     * @return 一致した書籍のISBNリスト
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = splitTerms(normalize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // 表示順位ごとに文書ID順(登録順)で振り分ける。最上位が件数に達した時点で以降の候補は結果に影響しない
+            List<List<String>> rankedHits = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+            for (int documentId : findCandidates(terms)) {
+                IndexedBook document = documents.get(documentId);
+                if (document == null || !document.containsAll(terms)) {
+                    continue;
+                }
+                rankedHits.get(document.rank(terms)).add(document.isbn());
+                if (rankedHits.get(0).size() >= limit) {
+                    break;
+                }
+            }
+
+            return rankedHits.stream()
+                    .flatMap(List::stream)
+                    .limit(limit)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 検索語に一致する書籍のうち、指定したページのISBNと一致した全件数を取得する
+     * 並び順は{@link #search(String, int)}と同じ。全件数を数えるため候補は全て照合するが、保持するISBNはページ末尾までに限る。
+     * @param query 検索語
+     * @param offset 先頭から読み飛ばす件数
+     * @param limit 最大取得件数
+     * @return 指定したページのISBNリストと一致した全件数
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        List<String> terms = splitTerms(normalize(query));
+        if (terms.isEmpty() || offset < 0 || limit <= 0) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            long keepCount = (long) offset + limit;
+            List<List<String>> rankedHits = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+            int totalCount = 0;
+            for (int documentId : findCandidates(terms)) {
+                IndexedBook document = documents.get(documentId);
+                if (document == null || !document.containsAll(terms)) {
+                    continue;
+                }
+                totalCount++;
+                List<String> hits = rankedHits.get(document.rank(terms));
+                if (hits.size() < keepCount) {
+                    hits.add(document.isbn());
+                }
+            }
+
+            List<String> isbnList = rankedHits.stream()
+                    .flatMap(List::stream)
+                    .skip(offset)
+                    .limit(limit)
+                    .toList();
+            return new SearchHits(isbnList, totalCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 全ての検索語のトークンを含む文書IDを取得する(読み取りロック取得済みであること)
+     * 候補には検索語の一部のトークンのみ一致する文書も含まれるため、原文との照合が必要となる
+     * @param terms 検索語リスト
+     * @return 昇順に並んだ候補の文書ID
+     */
+    private int[] findCandidates(List<String> terms) {
+        List<PostingList> postingLists = new ArrayList<>();
+        for (String term : terms) {
+            for (String token : queryTokens(term)) {
+                PostingList postingList = postings.get(token);
+                if (postingList == null) {
+                    return new int[0];
+                }
+                postingLists.add(postingList);
+            }
+        }
+        // 件数の少ないリストから積集合を取り、比較回数を抑える
+        postingLists.sort(Comparator.comparingInt(PostingList::size));
+
+        int[] candidates = postingLists.get(0).toArray();
+        for (int i = 1; i < postingLists.size() && candidates.length > 0; i++) {
+            candidates = postingLists.get(i).intersect(candidates);
+        }
+        return candidates;
+    }
+
+    /**
+     * 書籍を索引に追加する(書き込みロック取得済みであること)
+     * 索引済みの書籍の置き換えでは同じ文書IDを使い、登録順を維持する
+     * @param book 書籍
+     */
+    private void putInternal(Book book) {
+        String title = normalize(book.getTitle());
+        String[] fields = { title, normalize(book.getAuthor()), normalize(book.getPublisher()), normalize(book.getDescription()) };
+        IndexedBook document = new IndexedBook(book.getIsbn(), title, String.join(String.valueOf(FIELD_SEPARATOR), fields));
+
+        Integer documentId = documentIdByIsbn.get(book.getIsbn());
+        if (documentId == null) {
+            addDocument(document);
+            return;
+        }
+        removeTokens(documentId, documents.get(documentId));
+        documents.set(documentId, document);
+        addTokens(documentId, document);
+    }
+
+    /**
+     * 書籍を索引から削除する(書き込みロック取得済みであること)
+     * 削除済みの枠が全体の半分を超えた場合は、枠を詰めて索引を作り直す
+     * @param isbn ISBN
+     */
+    private void removeInternal(String isbn) {
+        Integer documentId = documentIdByIsbn.remove(isbn);
+        if (documentId == null) {
+            return;
+        }
+
+        removeTokens(documentId, documents.get(documentId));
+        documents.set(documentId, null);
+        removedDocumentCount++;
+        if (removedDocumentCount >= MIN_REMOVED_DOCUMENTS_TO_COMPACT && removedDocumentCount * 2 > documents.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * 削除済みの枠を詰めて索引を作り直す(書き込みロック取得済みであること)
+     * 文書IDは登録順に振り直すため、検索結果の並び順は変わらない
+     */
+    private void compact() {
+        List<IndexedBook> indexedBooks = documents.stream().filter(Objects::nonNull).toList();
+        documentIdByIsbn.clear();
+        documents.clear();
+        postings.clear();
+        removedDocumentCount = 0;
+        indexedBooks.forEach(this::addDocument);
+    }
+
+    /**
+     * 新しい文書IDで索引済みの書籍を追加する(書き込みロック取得済みであること)
+     * @param document 索引済みの書籍
+     */
+    private void addDocument(IndexedBook document) {
+        int documentId = documents.size();
+        documents.add(document);
+        documentIdByIsbn.put(document.isbn(), documentId);
+        addTokens(documentId, document);
+    }
+
+    private void addTokens(int documentId, IndexedBook document) {
+        for (String token : documentTokens(document.fields())) {
+            postings.computeIfAbsent(token, key -> new PostingList()).add(documentId);
+        }
+    }
+
+    private void removeTokens(int documentId, IndexedBook document) {
+        for (String token : documentTokens(document.fields())) {
+            PostingList postingList = postings.get(token);
+            if (postingList != null) {
+                postingList.remove(documentId);
+                if (postingList.size() == 0) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * 検索用に文字列を正規化する
+     * 全角英数字・半角カナの揺れを吸収するためNFKC正規化し、小文字に揃える
+     * @param value 文字列
+     * @return 正規化した文字列
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 正規化した検索語を空白で分割する
+     * @param normalizedQuery 正規化した検索語
+     * @return 検索語リスト
+     */
+    private static List<String> splitTerms(String normalizedQuery) {
+        return Arrays.stream(normalizedQuery.split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * 書籍の各項目から索引するトークンを作成する
+     * @param fields 正規化した項目
+     * @return ユニグラムとバイグラムのトークン
+     */
+    private static Set<String> documentTokens(String[] fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i < field.length(); i++) {
+                char current = field.charAt(i);
+                if (Character.isWhitespace(current)) {
+                    continue;
+                }
+                tokens.add(String.valueOf(current));
+                if (i + 1 < field.length() && !Character.isWhitespace(field.charAt(i + 1))) {
+                    tokens.add(field.substring(i, i + 2));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 検索語から照合するトークンを作成する
+     * 1文字の検索語はユニグラム、それ以外はバイグラムで照合する
+     * @param term 正規化した検索語
+     * @return トークン
+     */
+    private static Set<String> queryTokens(String term) {
+        if (term.length() == 1) {
+            return Set.of(term);
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < term.length(); i++) {
+            tokens.add(term.substring(i, i + 2));
+        }
+        return tokens;
+    }
+
+    /**
+     * 検索結果の1ページ分
+     * @param isbnList 指定したページのISBNリスト
+     * @param totalCount 一致した全件数
+     */
+    public record SearchHits(List<String> isbnList, int totalCount) {
+    }
+
+    /**
+     * 索引済みの書籍
+     * @param isbn ISBN
+     * @param title 正規化したタイトル
+     * @param text 正規化した全項目を区切り文字で連結した文字列
+     */
+    private record IndexedBook(String isbn, String title, String text) {
+
+        /**
+         * 正規化した各項目を取得する
+         * @return 正規化した項目
+         */
+        String[] fields() {
+            return text.split(String.valueOf(FIELD_SEPARATOR), -1);
+        }
+
+        /**
+         * 全ての検索語を含むか判定する
+         * @param terms 検索語リスト
+         * @return 全ての検索語を含む場合true
+         */
+        boolean containsAll(List<String> terms) {
+            return terms.stream().allMatch(text::contains);
+        }
+
+        /**
+         * 表示順位を算出する
+         * @param terms 検索語リスト
+         * @return 表示順位(小さいほど上位)
+         */
+        int rank(List<String> terms) {
+            if (title.startsWith(terms.get(0))) {
+                return 0;
+            }
+            if (terms.stream().allMatch(title::contains)) {
+                return 1;
+            }
+            return 2;
+        }
+    }
+
+    /**
+     * 昇順に並んだ文書IDのリスト
+     */
+    private static final class PostingList {
+
+        /**
+         * 文書ID
+         */
+        private int[] documentIds = new int[4];
+
+        /**
+         * 件数
+         */
+        private int size;
+
+        /**
+         * 文書IDを追加する
+         * 文書IDは採番順に追加されるため、通常は末尾への追加となる
+         * @param documentId 文書ID
+         */
+        void add(int documentId) {
+            int index = size == 0 || documentIds[size - 1] < documentId
+                    ? size
+                    : Arrays.binarySearch(documentIds, 0, size, documentId);
+            if (index >= 0 && index < size) {
+                return;
+            }
+            int insertionPoint = index >= 0 ? index : -index - 1;
+            if (size == documentIds.length) {
+                documentIds = Arrays.copyOf(documentIds, size * 2);
+            }
+            System.arraycopy(documentIds, insertionPoint, documentIds, insertionPoint + 1, size - insertionPoint);
+            documentIds[insertionPoint] = documentId;
+            size++;
+        }
+
+        /**
+         * 文書IDを削除する
+         * @param documentId 文書ID
+         */
+        void remove(int documentId) {
+            int index = Arrays.binarySearch(documentIds, 0, size, documentId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(documentIds, index + 1, documentIds, index, size - index - 1);
+            size--;
+        }
+
+        /**
+         * 件数を取得する
+         * @return 件数
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * 文書IDを配列で取得する
+         * @return 文書IDの配列
+         */
+        int[] toArray() {
+            return Arrays.copyOf(documentIds, size);
+        }
+
+        /**
+         * 指定した文書IDとの積集合を取得する
+         * @param sortedDocumentIds 昇順に並んだ文書ID
+         * @return 両方に含まれる文書ID
+         */
+        int[] intersect(int[] sortedDocumentIds) {
+            int[] result = new int[Math.min(size, sortedDocumentIds.length)];
+            int count = 0;
+            for (int documentId : sortedDocumentIds) {
+                if (Arrays.binarySearch(documentIds, 0, size, documentId) >= 0) {
+                    result[count++] = documentId;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * 書籍検索インデックスをDBの内容と同期するクラス
+ */
+@Component
+@Slf4j
+public class BookSearchIndexSynchronizer {
+
+    /**
+     * 索引の再構築時に一度に読み込む書籍数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * 書籍リポジトリ
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * 書籍検索インデックス
+     */
+    private final BookSearchIndex bookSearchIndex;
+
+    /**
+     * コンストラクタ
+     * @param bookRepository 書籍リポジトリ
+     * @param bookSearchIndex 書籍検索インデックス
+     */
+    public BookSearchIndexSynchronizer(BookRepository bookRepository, BookSearchIndex bookSearchIndex) {
+        this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+    }
+
+    /**
+     * 起動時に全書籍から索引を構築する
+     * 全件を一度に読み込まないよう、ISBN順に分割して読み込む
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        bookSearchIndex.clear();
+        String lastIsbn = "";
+        List<Book> books;
+        do {
+            books = bookRepository.findByIsbnGreaterThanOrderByIsbnAsc(lastIsbn, Limit.of(REBUILD_BATCH_SIZE));
+            bookSearchIndex.putAll(books);
+            if (!books.isEmpty()) {
+                lastIsbn = books.get(books.size() - 1).getIsbn();
+            }
+        } while (books.size() == REBUILD_BATCH_SIZE);
+        log.info("書籍検索インデックスを構築しました。件数: {}", bookSearchIndex.size());
+    }
+
+    /**
+     * 書籍の登録・更新・削除のコミット後に索引へ反映する
+     * コミット済みの内容を読み込むため、新しいトランザクションで取得する
+     * @param event 書籍カタログ変更イベント
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChanged(BookCatalogChangedEvent event) {
+        // 在庫数は索引していないため反映不要
+        if (event.getChangeType() == ChangeType.STOCK_CHANGED) {
+            return;
+        }
+        if (event.getChangeType() == ChangeType.DELETED) {
+            bookSearchIndex.remove(event.getIsbn());
+            return;
+        }
+        bookRepository.findById(event.getIsbn()).ifPresentOrElse(
+                bookSearchIndex::put,
+                () -> bookSearchIndex.remove(event.getIsbn()));
+    }
+}
@@ -0,0 +1,33 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 書籍カタログ変更イベント
+ * 書籍の登録・更新・削除、貸出・返却のトランザクション内で発行し、コミット後に購読側で反映する
+ */
+@Data
+@AllArgsConstructor
+public class BookCatalogChangedEvent {
+
+    /**
+     * 変更種別
+     */
+    public enum ChangeType {
+        /** 登録 */
+        REGISTERED,
+        /** 更新 */
+        UPDATED,
+        /** 削除 */
+        DELETED,
+        /** 貸出・返却による在庫数の変更 */
+        STOCK_CHANGED
+    }
+
+    /** 変更された書籍のISBN */
+    private final String isbn;
+
+    /** 変更種別 */
+    private final ChangeType changeType;
+}
@@ -0,0 +1,27 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * ユーザの貸出状況変更イベント
+ * 貸出・返却のトランザクション内で発行し、コミット後に購読側で反映する
+ */
+@Data
+@AllArgsConstructor
+public class UserLoansChangedEvent {
+
+    /** ユーザID */
+    private final String userId;
+
+    /** 変更後の貸出状況の変更回数 */
+    private final long loanVersion;
+
+    /** 貸し出した書籍のISBN */
+    private final Set<String> checkedOutIsbns;
+
+    /** 返却した書籍のISBN */
+    private final Set<String> returnedIsbns;
+}
@@ -1,7 +1,7 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.component.user;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.user.UserAccount;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.UserLoanSummaryRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.user.UserAccountRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.util.PasswordUtility;
 import lombok.extern.slf4j.Slf4j;
@@ -29,9 +29,9 @@ public class UserAccountManager {
     private final UserAccountRepository userAccountRepository;
 
     /**
-     * 書籍貸し出し履歴リポジトリ
+     * ユーザごとの貸出状況の集計リポジトリ
      */
-    private final BookCheckoutHistoryRepository bookCheckoutHistoryRepository;
+    private final UserLoanSummaryRepository userLoanSummaryRepository;
 
     /**
      * パスワードユーティリティ
@@ -41,13 +41,13 @@ public class UserAccountManager {
     /**
      * コンストラクタ
      * @param userAccountRepository ユーザアカウントリポジトリ
-     * @param bookCheckoutHistoryRepository 書籍貸し出し履歴リポジトリ
+     * @param userLoanSummaryRepository ユーザごとの貸出状況の集計リポジトリ
      * @param passwordUtility パスワードユーティリティ
      */
-    public UserAccountManager(UserAccountRepository userAccountRepository, BookCheckoutHistoryRepository bookCheckoutHistoryRepository,
+    public UserAccountManager(UserAccountRepository userAccountRepository, UserLoanSummaryRepository userLoanSummaryRepository,
             PasswordUtility passwordUtility) {
         this.userAccountRepository = userAccountRepository;
-        this.bookCheckoutHistoryRepository = bookCheckoutHistoryRepository;
+        this.userLoanSummaryRepository = userLoanSummaryRepository;
         this.passwordUtility = passwordUtility;
     }
 
@@ -170,7 +170,7 @@ public class UserAccountManager {
             return new NoSuchElementException("存在しないユーザIDか、既にユーザが削除されています。");
         });
 
-        if (!bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId).isEmpty()) {
+        if (userLoanSummaryRepository.existsByUserIdAndActiveLoanCountGreaterThan(userId, 0)) {
             log.warn("未返却の書籍が存在します。");
             throw new IllegalStateException("未返却の書籍が存在するため、ユーザを削除できません。");
         }
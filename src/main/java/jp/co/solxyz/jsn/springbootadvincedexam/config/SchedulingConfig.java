@@ -0,0 +1,12 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定期実行設定クラス
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
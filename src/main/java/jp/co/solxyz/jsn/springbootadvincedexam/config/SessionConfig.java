@@ -0,0 +1,41 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.config;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.session.CompactSessionAttributeSerializer;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+
+/**
+ * セッション設定クラス
+ */
+@Configuration
+public class SessionConfig implements BeanClassLoaderAware {
+
+    /**
+     * セッション属性のデシリアライズに使用するクラスローダ
+     */
+    private ClassLoader classLoader;
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * セッション属性を{@link CompactSessionAttributeSerializer}で読み書きするようにセッションリポジトリを設定する
+     * @return セッションリポジトリの設定
+     */
+    @Bean
+    public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> compactSessionAttributeCustomizer() {
+        CompactSessionAttributeSerializer serializer = new CompactSessionAttributeSerializer(classLoader);
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, new SerializingConverter(serializer));
+        conversionService.addConverter(byte[].class, Object.class, new DeserializingConverter(serializer));
+        return sessionRepository -> sessionRepository.setConversionService(conversionService);
+    }
+}
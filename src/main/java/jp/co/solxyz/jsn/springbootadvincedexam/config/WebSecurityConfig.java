@@ -32,7 +32,7 @@ public class WebSecurityConfig {
                         .failureUrl("/login?error=true")
                         .permitAll()).logout(logout -> logout.logoutSuccessUrl("/login"))
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/admin/**", "/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/css/**", "/js/*", "/login", "/").permitAll()
                         .anyRequest().authenticated());
         return http.build();
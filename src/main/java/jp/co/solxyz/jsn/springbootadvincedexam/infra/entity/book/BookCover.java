@@ -0,0 +1,41 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 書影エンティティ
+ */
+@Entity
+@Table(name = "book_covers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCover {
+
+    /**
+     * ISBN
+     */
+    @Id
+    @Column(name = "isbn")
+    private String isbn;
+
+    /**
+     * 書影URL(書影なしの場合は空文字)
+     */
+    @Column(name = "cover_url")
+    private String coverUrl;
+
+    /**
+     * openBDから取得した日時
+     */
+    @Column(name = "fetched_at", columnDefinition = "TIMESTAMP")
+    private LocalDateTime fetchedAt;
+}
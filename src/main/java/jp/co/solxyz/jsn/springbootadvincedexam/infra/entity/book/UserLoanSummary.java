@@ -0,0 +1,39 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ユーザごとの貸出状況の集計エンティティ
+ */
+@Entity
+@Table(name = "user_loan_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserLoanSummary {
+
+    /**
+     * ユーザID
+     */
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    /**
+     * 貸出中の冊数
+     */
+    @Column(name = "active_loan_count")
+    private int activeLoanCount;
+
+    /**
+     * 貸出状況の変更回数
+     */
+    @Column(name = "loan_version")
+    private long loanVersion;
+}
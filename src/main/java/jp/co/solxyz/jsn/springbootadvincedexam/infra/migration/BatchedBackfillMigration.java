@@ -0,0 +1,79 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * 大量データの補正(バックフィル)を分割して行うマイグレーションの基底クラス
+ * 1回の更新件数を制限し、バッチごとにコミットすることで、長時間のロックや巨大なトランザクションを避ける
+ * 途中で失敗した場合もコミット済みのバッチは残るため、更新SQLは再実行しても結果が変わらないように記述する
+ * <p>
+ * サブクラスを{@code @Component}として登録すると、Flywayのマイグレーションとして適用される
+ * クラス名はFlywayの命名規則(例: {@code V3__BackfillXxx})に従う
+ */
+@Slf4j
+public abstract class BatchedBackfillMigration extends BaseJavaMigration {
+
+    /**
+     * 1回の更新件数の既定値
+     */
+    private static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    /**
+     * 1バッチ分を更新するSQLを取得する
+     * 最初のパラメータに1回の更新件数を受け取り(例: {@code FETCH FIRST ? ROWS ONLY})、未補正の行がなくなると0件を返すこと
+     * @return 1バッチ分を更新するSQL
+     */
+    protected abstract String getBatchUpdateSql();
+
+    /**
+     * 1回の更新件数を取得する
+     * @return 1回の更新件数
+     */
+    protected int getBatchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * バッチごとにコミットするため、Flywayのトランザクション内では実行しない
+     * @return false
+     */
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    /**
+     * 更新件数が0になるまで、1バッチずつ更新とコミットを繰り返す
+     * @param context マイグレーションのコンテキスト
+     * @throws SQLException DBとの接続で問題が発生した場合
+     */
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long totalCount = 0;
+        try (PreparedStatement statement = connection.prepareStatement(getBatchUpdateSql())) {
+            int updatedCount;
+            do {
+                statement.setInt(1, getBatchSize());
+                updatedCount = statement.executeUpdate();
+                connection.commit();
+                totalCount += updatedCount;
+                log.info("{}: {}件を補正しました。(累計: {}件)", getDescription(), updatedCount, totalCount);
+            } while (updatedCount > 0);
+        } catch (SQLException e) {
+            connection.rollback();
+            log.error("{}: データの補正に失敗しました。補正済み: {}件", getDescription(), totalCount, e);
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
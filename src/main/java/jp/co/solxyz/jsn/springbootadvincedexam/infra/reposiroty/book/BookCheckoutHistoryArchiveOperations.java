@@ -0,0 +1,21 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 返却済みの貸出履歴をアーカイブテーブルへ移動するリポジトリ操作
+ */
+public interface BookCheckoutHistoryArchiveOperations {
+
+    /**
+     * 返却日時が基準日時より前の貸出履歴を、返却日時の古い順に最大件数までアーカイブテーブルへ移動する
+     * アーカイブテーブルへの登録と貸出履歴の削除は同じトランザクションで行う
+     * @param returnedBefore 基準日時
+     * @param batchSize 1回に移動する最大件数
+     * @return 移動した件数
+     */
+    @Transactional
+    int archiveReturnedBefore(LocalDateTime returnedBefore, int batchSize);
+}
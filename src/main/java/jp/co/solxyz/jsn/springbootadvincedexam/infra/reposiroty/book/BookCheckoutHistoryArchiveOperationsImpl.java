@@ -0,0 +1,61 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 返却済みの貸出履歴をアーカイブテーブルへ移動するリポジトリ操作の実装
+ */
+public class BookCheckoutHistoryArchiveOperationsImpl implements BookCheckoutHistoryArchiveOperations {
+
+    /**
+     * 移動対象の貸出IDを取得するSQL
+     */
+    private static final String SELECT_ARCHIVE_TARGETS_SQL =
+            "SELECT RENTAL_ID FROM BOOK_CHECKOUT_HISTORY WHERE RETURN_AT < ? ORDER BY RETURN_AT, RENTAL_ID FETCH FIRST ? ROWS ONLY";
+
+    /**
+     * アーカイブテーブルへ登録するSQL
+     */
+    private static final String INSERT_ARCHIVE_SQL =
+            "INSERT INTO BOOK_CHECKOUT_HISTORY_ARCHIVE (RENTAL_ID, ISBN, USER_ID, RENTAL_AT, RETURN_AT, ARCHIVED_AT) "
+                    + "SELECT RENTAL_ID, ISBN, USER_ID, RENTAL_AT, RETURN_AT, CURRENT_TIMESTAMP FROM BOOK_CHECKOUT_HISTORY WHERE RENTAL_ID = ?";
+
+    /**
+     * 移動した貸出履歴を削除するSQL
+     */
+    private static final String DELETE_HISTORY_SQL = "DELETE FROM BOOK_CHECKOUT_HISTORY WHERE RENTAL_ID = ?";
+
+    /**
+     * JDBCテンプレート
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * コンストラクタ
+     * @param jdbcTemplate JDBCテンプレート
+     */
+    public BookCheckoutHistoryArchiveOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 返却日時が基準日時より前の貸出履歴を、返却日時の古い順に最大件数までアーカイブテーブルへ移動する
+     * 登録と削除はそれぞれ1回のバッチで送信する
+     * @param returnedBefore 基準日時
+     * @param batchSize 1回に移動する最大件数
+     * @return 移動した件数
+     */
+    @Override
+    public int archiveReturnedBefore(LocalDateTime returnedBefore, int batchSize) {
+        List<String> rentalIds = jdbcTemplate.queryForList(SELECT_ARCHIVE_TARGETS_SQL, String.class, returnedBefore, batchSize);
+        if (rentalIds.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVE_SQL, rentalIds, rentalIds.size(), (ps, rentalId) -> ps.setString(1, rentalId));
+        jdbcTemplate.batchUpdate(DELETE_HISTORY_SQL, rentalIds, rentalIds.size(), (ps, rentalId) -> ps.setString(1, rentalId));
+        return rentalIds.size();
+    }
+}
@@ -0,0 +1,20 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCheckoutHistory;
+
+import java.util.List;
+
+/**
+ * 貸出履歴をまとめて登録するリポジトリ操作
+ */
+public interface BookCheckoutHistoryBatchOperations {
+
+    /**
+     * 新規の貸出履歴をまとめて登録する
+     * エンティティの永続化コンテキストを経由せず、件数によらず1回のバッチで送信する
+     * 貸出IDは呼び出し元で採番しておくこと
+     * @param histories 登録する貸出履歴
+     * @return 貸出履歴と同じ順序の登録件数
+     */
+    int[] insertAll(List<BookCheckoutHistory> histories);
+}
@@ -0,0 +1,50 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCheckoutHistory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * 貸出履歴をまとめて登録するリポジトリ操作の実装
+ */
+public class BookCheckoutHistoryBatchOperationsImpl implements BookCheckoutHistoryBatchOperations {
+
+    /**
+     * 貸出履歴を登録するSQL(返却日時はNULL、バージョンは既定値の0となる)
+     */
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO BOOK_CHECKOUT_HISTORY (RENTAL_ID, ISBN, USER_ID, RENTAL_AT) VALUES (?, ?, ?, ?)";
+
+    /**
+     * JDBCテンプレート
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * コンストラクタ
+     * @param jdbcTemplate JDBCテンプレート
+     */
+    public BookCheckoutHistoryBatchOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 新規の貸出履歴をまとめて登録する
+     * @param histories 登録する貸出履歴
+     * @return 貸出履歴と同じ順序の登録件数
+     */
+    @Override
+    public int[] insertAll(List<BookCheckoutHistory> histories) {
+        if (histories.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, histories, histories.size(), (ps, history) -> {
+            ps.setString(1, history.getRentalId());
+            ps.setString(2, history.getIsbn());
+            ps.setString(3, history.getUserId());
+            ps.setTimestamp(4, Timestamp.valueOf(history.getRentalAt()));
+        })[0];
+    }
+}
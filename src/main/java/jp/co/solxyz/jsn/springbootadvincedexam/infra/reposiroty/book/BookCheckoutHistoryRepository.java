@@ -1,6 +1,7 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCheckoutHistory;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.UnreturnedBookSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,28 +11,42 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 書籍貸し出し履歴リポジトリ
  */
 @Repository
-public interface BookCheckoutHistoryRepository extends JpaRepository<BookCheckoutHistory, String> {
+public interface BookCheckoutHistoryRepository extends JpaRepository<BookCheckoutHistory, String>,
+        BookCheckoutHistoryBatchOperations, BookCheckoutHistoryArchiveOperations {
 
     /**
-     * ユーザIDにより未返却の書籍を検索
+     * ユーザIDにより未返却の書籍のISBNを検索
+     * 貸出履歴のエンティティを読み込まず、貸出済みかの判定に使用するISBNのみを取得する
      * @param userId ユーザID
-     * @return 未返却の書籍のリスト
+     * @return 未返却の書籍のISBNのセット
      */
-    @Query("from BookCheckoutHistory e where e.userId = :userId and e.returnAt is null")
-    List<BookCheckoutHistory> findUnreturnedBooksByUserId(String userId);
+    @Query("select e.isbn from BookCheckoutHistory e where e.userId = :userId and e.returnAt is null")
+    Set<String> findUnreturnedIsbnsByUserId(@Param("userId") String userId);
 
     /**
-     * isbnにより未返却の書籍を検索
-     * @param  isbn ISBN
-     * @return 未返却の書籍のリスト
+     * ユーザIDにより未返却の書籍の概要を検索
+     * 貸出履歴と書籍を1回のクエリで結合し、貸出日時の古い順に返す
+     * @param userId ユーザID
+     * @return 未返却の書籍の概要のリスト
+     */
+    @Query("select new jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.UnreturnedBookSummary("
+            + "b.isbn, b.title, b.author, b.publisher, e.rentalAt) "
+            + "from BookCheckoutHistory e join Book b on b.isbn = e.isbn "
+            + "where e.userId = :userId and e.returnAt is null order by e.rentalAt, b.isbn")
+    List<UnreturnedBookSummary> findUnreturnedBookSummariesByUserId(@Param("userId") String userId);
+
+    /**
+     * ISBNにより未返却の書籍が存在するかを確認
+     * @param isbn ISBN
+     * @return 未返却の書籍が存在する場合はtrue
      */
-    @Query("from BookCheckoutHistory e where e.isbn = :isbn and e.returnAt is null")
-    List<BookCheckoutHistory> findUnreturnedBooksByIsbn(String isbn);
+    boolean existsByIsbnAndReturnAtIsNull(String isbn);
 
     /**
      * ユーザIDとISBNにより返却日時を更新
@@ -0,0 +1,20 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCover;
+
+import java.util.List;
+
+/**
+ * 書影URLをまとめて保存するリポジトリ操作
+ */
+public interface BookCoverBatchOperations {
+
+    /**
+     * 書影URLをまとめて保存する
+     * 保存済みのISBNは書影URLと取得日時を更新し、未保存のISBNは登録する
+     * エンティティの永続化コンテキストを経由せず、件数によらず1回のバッチで送信する
+     * @param covers 保存する書影
+     * @return 書影と同じ順序の更新件数
+     */
+    int[] upsertAll(List<BookCover> covers);
+}
@@ -0,0 +1,52 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCover;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * 書影URLをまとめて保存するリポジトリ操作の実装
+ */
+public class BookCoverBatchOperationsImpl implements BookCoverBatchOperations {
+
+    /**
+     * 書影URLを更新し、未保存の場合は登録するSQL
+     */
+    private static final String UPSERT_COVER_SQL =
+            "MERGE INTO BOOK_COVERS T USING (SELECT CAST(? AS CHAR(13)) AS ISBN, CAST(? AS VARCHAR(2048)) AS COVER_URL, "
+                    + "CAST(? AS TIMESTAMP) AS FETCHED_AT) S ON T.ISBN = S.ISBN "
+                    + "WHEN MATCHED THEN UPDATE SET COVER_URL = S.COVER_URL, FETCHED_AT = S.FETCHED_AT "
+                    + "WHEN NOT MATCHED THEN INSERT (ISBN, COVER_URL, FETCHED_AT) VALUES (S.ISBN, S.COVER_URL, S.FETCHED_AT)";
+
+    /**
+     * JDBCテンプレート
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * コンストラクタ
+     * @param jdbcTemplate JDBCテンプレート
+     */
+    public BookCoverBatchOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 書影URLをまとめて保存する
+     * @param covers 保存する書影
+     * @return 書影と同じ順序の更新件数
+     */
+    @Override
+    public int[] upsertAll(List<BookCover> covers) {
+        if (covers.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(UPSERT_COVER_SQL, covers, covers.size(), (ps, cover) -> {
+            ps.setString(1, cover.getIsbn());
+            ps.setString(2, cover.getCoverUrl());
+            ps.setTimestamp(3, Timestamp.valueOf(cover.getFetchedAt()));
+        })[0];
+    }
+}
@@ -0,0 +1,12 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCover;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 書影リポジトリ
+ */
+@Repository
+public interface BookCoverRepository extends JpaRepository<BookCover, String>, BookCoverBatchOperations {
+}
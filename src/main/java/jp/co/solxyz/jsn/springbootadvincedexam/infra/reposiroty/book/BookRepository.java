@@ -1,6 +1,8 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,21 +10,76 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 書籍リポジトリ
  */
 @Repository
-public interface BookRepository extends JpaRepository<Book, String> {
+public interface BookRepository extends JpaRepository<Book, String>, BookStockOperations {
+
+    /**
+     * 指定したISBNより後ろの書籍をISBN順に取得
+     * @param isbn 基準となるISBN
+     * @param limit 取得件数
+     * @return 書籍リスト
+     */
+    List<Book> findByIsbnGreaterThanOrderByIsbnAsc(String isbn, Limit limit);
+
+    /**
+     * 指定したISBNより後ろの書籍のISBNをISBN順に取得
+     * @param isbn 基準となるISBN
+     * @param limit 取得件数
+     * @return ISBNリスト
+     */
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn > :isbn ORDER BY b.isbn")
+    List<String> findIsbnsByIsbnGreaterThan(String isbn, Limit limit);
+
+    /**
+     * ISBN順に先頭から書籍概要を取得
+     * @param limit 取得件数
+     * @return 書籍概要リスト
+     */
+    @Query("SELECT new jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary(b.isbn, b.title, b.author, b.publisher, b.availableStock) FROM Book b ORDER BY b.isbn")
+    List<BookSummary> findSummariesOrderByIsbn(Limit limit);
+
+    /**
+     * 指定したISBNより後ろの書籍概要をISBN順に取得
+     * @param isbn 基準となるISBN
+     * @param limit 取得件数
+     * @return 書籍概要リスト
+     */
+    @Query("SELECT new jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary(b.isbn, b.title, b.author, b.publisher, b.availableStock) FROM Book b WHERE b.isbn > :isbn ORDER BY b.isbn")
+    List<BookSummary> findSummariesAfterIsbn(String isbn, Limit limit);
+
+    /**
+     * ISBNリストに一致する書籍概要を取得
+     * @param isbnList ISBNリスト
+     * @return 書籍概要リスト
+     */
+    @Query("SELECT new jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary(b.isbn, b.title, b.author, b.publisher, b.availableStock) FROM Book b WHERE b.isbn IN :isbnList")
+    List<BookSummary> findSummariesByIsbnIn(Collection<String> isbnList);
+
+    /**
+     * 利用可能在庫数を1増やす
+     * @param isbn ISBN
+     * @return 更新件数
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Book b SET b.availableStock = b.availableStock + 1 WHERE b.isbn = :isbn")
+    int incrementAvailableStock(String isbn);
 
     /**
      * 書籍情報の更新
+     * 利用可能在庫数は、更新時点の値に在庫数の増減分を加算する(貸出・返却による変更を上書きしない)
+     * 貸出中の冊数が変更後の在庫数を超える場合は更新しない
      * @param isbn ISBN
      * @param title タイトル
      * @param author 著者
      * @param publisher 出版社
      * @param stock 在庫数
-     * @param availableStock 利用可能在庫数
      * @param description 説明
      * @param updatedAt 更新日時
      * @param optimisticLockUpdatedAt 楽観的ロック用更新日時
@@ -30,7 +87,7 @@ public interface BookRepository extends JpaRepository<Book, String> {
      */
     @Transactional
     @Modifying
-    @Query("UPDATE Book b SET b.title = :title, b.author = :author, b.publisher = :publisher, b.stock = :stock, b.availableStock = :availableStock, b.description = :description, b.updatedAt = :updatedAt WHERE b.isbn = :isbn AND b.updatedAt = :optimisticLockUpdatedAt")
-    int updateBook(String isbn, String title, String author, String publisher, int stock, int availableStock, String description,
+    @Query("UPDATE Book b SET b.title = :title, b.author = :author, b.publisher = :publisher, b.availableStock = b.availableStock + (:stock - b.stock), b.stock = :stock, b.description = :description, b.updatedAt = :updatedAt WHERE b.isbn = :isbn AND b.updatedAt = :optimisticLockUpdatedAt AND b.stock - b.availableStock <= :stock")
+    int updateBook(String isbn, String title, String author, String publisher, int stock, String description,
             LocalDateTime updatedAt, LocalDateTime optimisticLockUpdatedAt);
 }
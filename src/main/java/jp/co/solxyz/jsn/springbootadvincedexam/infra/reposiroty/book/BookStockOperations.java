@@ -0,0 +1,17 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import java.util.List;
+
+/**
+ * 書籍の在庫数を更新するリポジトリ操作
+ */
+public interface BookStockOperations {
+
+    /**
+     * 利用可能在庫数が残っている書籍のみ、利用可能在庫数を1減らす
+     * 在庫の確認と減算を1つのUPDATE文で行うため、同時に貸し出された場合も在庫数が負にならない
+     * @param isbnList ISBNリスト
+     * @return ISBNリストと同じ順序の更新件数(在庫がなく減らせなかった書籍は0)
+     */
+    int[] decrementAvailableStock(List<String> isbnList);
+}
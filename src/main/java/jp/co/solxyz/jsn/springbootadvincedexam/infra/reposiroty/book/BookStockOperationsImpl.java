@@ -0,0 +1,54 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * 書籍の在庫数を更新するリポジトリ操作の実装
+ */
+public class BookStockOperationsImpl implements BookStockOperations {
+
+    /**
+     * 利用可能在庫数を減らすSQL
+     */
+    private static final String DECREMENT_AVAILABLE_STOCK_SQL =
+            "UPDATE BOOKS SET AVAILABLE_STOCK = AVAILABLE_STOCK - 1 WHERE ISBN = ? AND AVAILABLE_STOCK > 0";
+
+    /**
+     * JDBCテンプレート
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * コンストラクタ
+     * @param jdbcTemplate JDBCテンプレート
+     */
+    public BookStockOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 利用可能在庫数が残っている書籍のみ、利用可能在庫数を1減らす
+     * 全ISBNの更新を1回のバッチで送信し、行ごとの更新件数で減算できたかを判定する
+     * JDBCドライバが行ごとの更新件数を返さない場合は減算できた書籍を判定できないため、例外とする
+     * @param isbnList ISBNリスト
+     * @return ISBNリストと同じ順序の更新件数(在庫がなく減らせなかった書籍は0)
+     * @throws IncorrectUpdateSemanticsDataAccessException 行ごとの更新件数が返されなかった場合
+     */
+    @Override
+    public int[] decrementAvailableStock(List<String> isbnList) {
+        if (isbnList.isEmpty()) {
+            return new int[0];
+        }
+        int[] updatedCounts = jdbcTemplate.batchUpdate(DECREMENT_AVAILABLE_STOCK_SQL, isbnList, isbnList.size(),
+                (ps, isbn) -> ps.setString(1, isbn))[0];
+        for (int updatedCount : updatedCounts) {
+            if (updatedCount < 0) {
+                throw new IncorrectUpdateSemanticsDataAccessException("在庫数の更新件数を取得できませんでした。");
+            }
+        }
+        return updatedCounts;
+    }
+}
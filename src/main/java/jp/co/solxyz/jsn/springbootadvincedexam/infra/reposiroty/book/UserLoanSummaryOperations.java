@@ -0,0 +1,16 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+/**
+ * ユーザごとの貸出状況の集計を更新するリポジトリ操作
+ */
+public interface UserLoanSummaryOperations {
+
+    /**
+     * 貸出状況の変更回数を1増やす
+     * 集計がまだない場合は、貸出中の冊数を0として作成する
+     * 集計の行をロックするため、同じユーザの貸出・返却はトランザクションの終了まで待たされる
+     * @param userId ユーザID
+     * @return 更新件数
+     */
+    int incrementLoanVersion(String userId);
+}
@@ -0,0 +1,40 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * ユーザごとの貸出状況の集計を更新するリポジトリ操作の実装
+ */
+public class UserLoanSummaryOperationsImpl implements UserLoanSummaryOperations {
+
+    /**
+     * 貸出状況の変更回数を増やし、集計がない場合は作成するSQL
+     */
+    private static final String INCREMENT_LOAN_VERSION_SQL =
+            "MERGE INTO USER_LOAN_SUMMARY T USING (SELECT CAST(? AS CHAR(36)) AS USER_ID) S ON T.USER_ID = S.USER_ID "
+                    + "WHEN MATCHED THEN UPDATE SET LOAN_VERSION = T.LOAN_VERSION + 1 "
+                    + "WHEN NOT MATCHED THEN INSERT (USER_ID, ACTIVE_LOAN_COUNT, LOAN_VERSION) VALUES (S.USER_ID, 0, 1)";
+
+    /**
+     * JDBCテンプレート
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * コンストラクタ
+     * @param jdbcTemplate JDBCテンプレート
+     */
+    public UserLoanSummaryOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 貸出状況の変更回数を1増やす
+     * @param userId ユーザID
+     * @return 更新件数
+     */
+    @Override
+    public int incrementLoanVersion(String userId) {
+        return jdbcTemplate.update(INCREMENT_LOAN_VERSION_SQL, userId);
+    }
+}
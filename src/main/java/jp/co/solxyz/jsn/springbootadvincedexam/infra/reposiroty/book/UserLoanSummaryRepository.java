@@ -0,0 +1,46 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.UserLoanSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * ユーザごとの貸出状況の集計リポジトリ
+ */
+@Repository
+public interface UserLoanSummaryRepository extends JpaRepository<UserLoanSummary, String>, UserLoanSummaryOperations {
+
+    /**
+     * ユーザIDにより貸出状況の変更回数を取得
+     * @param userId ユーザID
+     * @return 貸出状況の変更回数(集計がない場合は空)
+     */
+    @Query("select s.loanVersion from UserLoanSummary s where s.userId = :userId")
+    Optional<Long> findLoanVersionByUserId(@Param("userId") String userId);
+
+    /**
+     * ユーザIDにより貸出中の冊数が指定した数より多いかを確認
+     * @param userId ユーザID
+     * @param activeLoanCount 比較する冊数
+     * @return 貸出中の冊数が指定した数より多い場合はtrue
+     */
+    boolean existsByUserIdAndActiveLoanCountGreaterThan(String userId, int activeLoanCount);
+
+    /**
+     * 貸出中の冊数を加算する
+     * 貸出状況の変更回数は、先に{@link #incrementLoanVersion(String)}で増やしておくこと
+     * @param userId ユーザID
+     * @param count 加算する冊数(返却の場合は負の値)
+     * @return 更新件数
+     */
+    @Transactional
+    @Modifying
+    @Query("update UserLoanSummary s set s.activeLoanCount = s.activeLoanCount + :count where s.userId = :userId")
+    int addActiveLoanCount(@Param("userId") String userId, @Param("count") int count);
+}
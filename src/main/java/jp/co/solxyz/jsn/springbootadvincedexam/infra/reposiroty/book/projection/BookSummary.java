@@ -0,0 +1,30 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一覧表示用の書籍概要
+ * 書籍説明(CLOB)を読み込まないよう、一覧やカートで必要な項目のみを保持する
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSummary {
+
+    /** ISBN */
+    private String isbn;
+
+    /** タイトル */
+    private String title;
+
+    /** 著者 */
+    private String author;
+
+    /** 出版社 */
+    private String publisher;
+
+    /** 利用可能在庫数 */
+    private int availableStock;
+}
@@ -0,0 +1,32 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 未返却書籍の概要
+ * 貸出履歴と書籍を結合し、借りている書籍画面で必要な項目のみを保持する
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UnreturnedBookSummary {
+
+    /** ISBN */
+    private String isbn;
+
+    /** タイトル */
+    private String title;
+
+    /** 著者 */
+    private String author;
+
+    /** 出版社 */
+    private String publisher;
+
+    /** 貸出日時 */
+    private LocalDateTime rentalAt;
+}
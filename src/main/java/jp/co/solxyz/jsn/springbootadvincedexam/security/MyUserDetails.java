@@ -1,7 +1,7 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.security;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.user.UserAccount;
-import lombok.AllArgsConstructor;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,31 +11,83 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 
-@AllArgsConstructor
-public class MyUserDetails implements UserDetails, Serializable {
+/**
+ * ログインユーザ情報
+ * セッションに保存されるため、ユーザアカウントエンティティ全体ではなく認可に必要な項目のみを保持する
+ */
+public class MyUserDetails implements UserDetails, CredentialsContainer, Serializable {
     @Serial
-    private static final long serialVersionUID = 7985440768523436212L;
-    private final UserAccount userAccount;
+    private static final long serialVersionUID = 2L;
+
+    /**
+     * ユーザID
+     */
+    private final String userId;
+
+    /**
+     * ユーザ名
+     */
+    private final String username;
+
+    /**
+     * 管理者権限
+     */
+    private final boolean admin;
+
+    /**
+     * パスワードハッシュ(認証後に消去し、セッションには保存しない)
+     */
+    private transient String password;
+
+    /**
+     * コンストラクタ
+     * @param userAccount ユーザアカウント
+     */
+    public MyUserDetails(UserAccount userAccount) {
+        this(userAccount.getUserId(), userAccount.getUsername(), userAccount.getIsAdmin());
+        this.password = userAccount.getPassword();
+    }
+
+    /**
+     * コンストラクタ(セッションからの復元用)
+     * @param userId ユーザID
+     * @param username ユーザ名
+     * @param admin 管理者権限
+     */
+    public MyUserDetails(String userId, String username, boolean admin) {
+        this.userId = userId;
+        this.username = username;
+        this.admin = admin;
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return userAccount.getIsAdmin()
+        return admin
                 ? Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"))
                 : Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
     }
 
     public String getUserId() {
-        return this.userAccount.getUserId();
+        return this.userId;
+    }
+
+    public boolean isAdmin() {
+        return this.admin;
     }
 
     @Override
     public String getPassword() {
-        return this.userAccount.getPassword();
+        return this.password;
     }
 
     @Override
     public String getUsername() {
-        return this.userAccount.getUsername();
+        return this.username;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
     }
 
     @Override
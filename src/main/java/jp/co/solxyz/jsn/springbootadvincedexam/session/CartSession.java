@@ -1,40 +1,90 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.session;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.session.dto.Cart;
-import lombok.Getter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.annotation.SessionScope;
 
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
-@Getter
 @Component
 @SessionScope
-public class CartSession implements Serializable {
+public class CartSession implements Serializable, ChangeTrackingSessionAttribute {
     @Serial
-    private static final long serialVersionUID = 1L;
-    private final List<Cart> cartList = new ArrayList<>();
+    private static final long serialVersionUID = 2L;
+
+    /**
+     * カートに入っているISBN(追加した順)
+     */
+    private final Set<String> isbns = new LinkedHashSet<>();
+
+    /**
+     * セッションから読み込んだ後に内容が変更されたか(セッションには保存しない)
+     */
+    private transient boolean changed;
+
+    /**
+     * セッションから復元したカートを変更なしの状態で生成する
+     * @param isbns カートに入っているISBN
+     * @return カート
+     */
+    static CartSession restore(Collection<String> isbns) {
+        CartSession cartSession = new CartSession();
+        cartSession.isbns.addAll(isbns);
+        return cartSession;
+    }
+
+    /**
+     * カートに入っているISBNの一覧を取得する
+     * @return ISBNの一覧(追加した順、変更不可)
+     */
+    public List<String> getIsbnList() {
+        return List.copyOf(isbns);
+    }
+
+    /**
+     * カートに入っている冊数を取得する
+     * @return 冊数
+     */
+    public int size() {
+        return isbns.size();
+    }
+
+    /**
+     * カートに入っているかを判定する
+     * @param isbn ISBN
+     * @return カートに入っている場合はtrue
+     */
+    public boolean contains(String isbn) {
+        return isbns.contains(isbn);
+    }
 
     public void addCart(Cart cart) {
-        boolean isExist = cartList.stream()
-                .anyMatch(c -> c.getIsbn().equals(cart.getIsbn()));
-        if (!isExist) {
-            cartList.add(cart);
+        if (isbns.add(cart.getIsbn())) {
+            changed = true;
         }
     }
 
     public void removeCart(String isbn) {
-        cartList.stream()
-                .filter(cart -> cart.getIsbn().equals(isbn))
-                .findFirst()
-                .ifPresent(cartList::remove);
+        if (isbns.remove(isbn)) {
+            changed = true;
+        }
     }
 
     public void clearCart() {
-        cartList.clear();
+        if (!isbns.isEmpty()) {
+            isbns.clear();
+            changed = true;
+        }
+    }
+
+    @Override
+    public boolean isChanged() {
+        return changed;
     }
 
 }
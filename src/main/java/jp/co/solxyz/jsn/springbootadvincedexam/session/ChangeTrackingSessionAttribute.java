@@ -0,0 +1,16 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.session;
+
+/**
+ * 変更の有無を判定できるセッション属性
+ * セッションスコープのBeanはリクエストの終了時に毎回セッションへ設定し直されるため、
+ * 変更がない場合はその設定を省略し、セッションストアへの書き込みを発生させないようにする
+ * @see UnchangedSessionAttributeFilter
+ */
+public interface ChangeTrackingSessionAttribute {
+
+    /**
+     * セッションから読み込んだ後に内容が変更されたかを判定する
+     * @return 変更された場合はtrue
+     */
+    boolean isChanged();
+}
@@ -0,0 +1,239 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.session;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.security.MyUserDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * セッション属性のシリアライザ
+ * リクエストごとに書き込まれるカートとセキュリティコンテキストは、必要な項目のみを独自のバイナリ形式で書き込む
+ * それ以外の属性、および独自形式で表せない値は従来どおりJavaシリアライズで書き込む
+ * 読み込み時は先頭1バイトで形式を判別するため、Javaシリアライズで保存済みのセッションもそのまま読み込める
+ * クラスの変更前に保存されたなど読み込めない属性は、エラーにせずセッションにないものとして扱う
+ */
+@Slf4j
+public class CompactSessionAttributeSerializer implements Serializer<Object>, Deserializer<Object> {
+
+    /**
+     * 形式の識別子(カート)
+     * Javaシリアライズの先頭バイト(0xAC)と重ならない値とする
+     */
+    private static final int CART_FORMAT = 0x01;
+
+    /**
+     * 形式の識別子(セキュリティコンテキスト)
+     */
+    private static final int SECURITY_CONTEXT_FORMAT = 0x02;
+
+    /**
+     * 権限の種類(権限名のみ)
+     */
+    private static final int SIMPLE_AUTHORITY = 0;
+
+    /**
+     * 権限の種類(Javaシリアライズ)
+     */
+    private static final int SERIALIZED_AUTHORITY = 1;
+
+    /**
+     * 独自形式のISBN1件あたりのバイト数
+     */
+    private static final int PACKED_ISBN_BYTES = Long.BYTES;
+
+    /**
+     * 独自形式の権限1件あたりの最小バイト数(種類と、空の権限名の長さ)
+     */
+    private static final int MIN_AUTHORITY_BYTES = 1 + Short.BYTES;
+
+    /**
+     * 数値に詰めて書き込めるISBN
+    private static final Pattern PACKABLE_ISBN = Pattern.compile("\\d{13}");
+
+    /**
+     * Javaシリアライザ
+     */
+    private final DefaultSerializer javaSerializer = new DefaultSerializer();
+
+    /**
+     * Javaデシリアライザ
+     */
+    private final DefaultDeserializer javaDeserializer;
+
+    /**
+     * コンストラクタ
+     * @param classLoader Javaデシリアライズに使用するクラスローダ
+     */
+    public CompactSessionAttributeSerializer(ClassLoader classLoader) {
+        this.javaDeserializer = new DefaultDeserializer(classLoader);
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream outputStream) throws IOException {
+        if (isPackableCart(object)) {
+            DataOutputStream output = new DataOutputStream(outputStream);
+            writeCart((CartSession) object, output);
+            output.flush();
+        } else if (isCompactSecurityContext(object)) {
+            DataOutputStream output = new DataOutputStream(outputStream);
+            writeSecurityContext((SecurityContext) object, output);
+            output.flush();
+        } else {
+            javaSerializer.serialize(object, outputStream);
+        }
+    }
+
+    /**
+     * セッション属性を読み込む
+     * 読み込めない場合はnullを返し、ログインし直し・カートの作り直しとなるようにする
+     * (例外にすると、セキュリティコンテキストを読み込むログイン画面を含め全てのリクエストがエラーとなる)
+     * 壊れたバイト列で型や値が想定と異なる場合の実行時例外も同様に扱う
+     */
+    @Override
+    public Object deserialize(InputStream inputStream) {
+        try {
+            return read(inputStream);
+        } catch (IOException | RuntimeException e) {
+            log.warn("読み込めないセッション属性は、セッションにないものとして扱います。 {}", e.toString());
+            return null;
+        }
+    }
+
+    private Object read(InputStream inputStream) throws IOException {
+        PushbackInputStream input = new PushbackInputStream(inputStream);
+        int format = input.read();
+        if (format == CART_FORMAT) {
+            return readCart(new DataInputStream(input));
+        }
+        if (format == SECURITY_CONTEXT_FORMAT) {
+            return readSecurityContext(new DataInputStream(input));
+        }
+        if (format != -1) {
+            input.unread(format);
+        }
+        return javaDeserializer.deserialize(input);
+    }
+
+    /**
+     * 全てのISBNが13桁の数字のカートのみ独自形式で書き込む
+     */
+    private boolean isPackableCart(Object object) {
+        return object.getClass() == CartSession.class
+                && ((CartSession) object).getIsbnList().stream()
+                .allMatch(isbn -> isbn != null && PACKABLE_ISBN.matcher(isbn).matches());
+    }
+
+    /**
+     * フォームログインで認証済みのセキュリティコンテキストのみ独自形式で書き込む
+     * 認証情報(パスワード)と認証時のリクエスト情報(details)は書き込まない
+     */
+    private boolean isCompactSecurityContext(Object object) {
+        if (object.getClass() != SecurityContextImpl.class) {
+            return false;
+        }
+        Authentication authentication = ((SecurityContext) object).getAuthentication();
+        return authentication != null
+                && authentication.getClass() == UsernamePasswordAuthenticationToken.class
+                && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof MyUserDetails;
+    }
+
+    private void writeCart(CartSession cartSession, DataOutputStream output) throws IOException {
+        List<String> isbnList = cartSession.getIsbnList();
+        output.writeByte(CART_FORMAT);
+        output.writeInt(isbnList.size());
+        for (String isbn : isbnList) {
+            output.writeLong(Long.parseLong(isbn));
+        }
+    }
+
+    private CartSession readCart(DataInputStream input) throws IOException {
+        int size = readLength(input, PACKED_ISBN_BYTES);
+        List<String> isbnList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            isbnList.add(String.format("%013d", input.readLong()));
+        }
+        return CartSession.restore(isbnList);
+    }
+
+    private void writeSecurityContext(SecurityContext securityContext, DataOutputStream output) throws IOException {
+        Authentication authentication = securityContext.getAuthentication();
+        MyUserDetails principal = (MyUserDetails) authentication.getPrincipal();
+        output.writeByte(SECURITY_CONTEXT_FORMAT);
+        output.writeUTF(principal.getUserId());
+        output.writeUTF(principal.getUsername());
+        output.writeBoolean(principal.isAdmin());
+
+        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+        output.writeInt(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            if (authority.getClass() == SimpleGrantedAuthority.class) {
+                output.writeByte(SIMPLE_AUTHORITY);
+                output.writeUTF(authority.getAuthority());
+            } else {
+                // 権限名以外の情報を持つ権限は、その権限のみJavaシリアライズで書き込む
+                byte[] serialized = javaSerializer.serializeToByteArray(authority);
+                output.writeByte(SERIALIZED_AUTHORITY);
+                output.writeInt(serialized.length);
+                output.write(serialized);
+            }
+        }
+    }
+
+    private SecurityContext readSecurityContext(DataInputStream input) throws IOException {
+        String userId = input.readUTF();
+        String username = input.readUTF();
+        boolean admin = input.readBoolean();
+        MyUserDetails principal = new MyUserDetails(userId, username, admin);
+
+        int size = readLength(input, MIN_AUTHORITY_BYTES);
+        List<GrantedAuthority> authorities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (input.readByte() == SIMPLE_AUTHORITY) {
+                authorities.add(new SimpleGrantedAuthority(input.readUTF()));
+            } else {
+                byte[] serialized = new byte[readLength(input, 1)];
+                input.readFully(serialized);
+                authorities.add((GrantedAuthority) javaDeserializer.deserializeFromByteArray(serialized));
+            }
+        }
+        return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities));
+    }
+
+    /**
+     * 件数またはバイト数を読み込む
+     * 壊れたバイト列から巨大な配列を確保しないよう、負の値と残りのバイト数に収まらない値は読み込めないものとする
+     * (セッション属性はバイト配列から読み込むため、残りのバイト数は{@link InputStream#available()}で求められる)
+     * @param input 入力
+     * @param minBytesPerElement 1件あたりの最小バイト数
+     * @return 件数またはバイト数
+     * @throws IOException 読み込めない場合
+     */
+    private int readLength(DataInputStream input, int minBytesPerElement) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || (long) length * minBytesPerElement > input.available()) {
+            throw new StreamCorruptedException("invalid length: " + length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,120 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.session;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.core.annotation.Order;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Enumeration;
+
+/**
+ * 変更のないセッション属性の再設定を省略するフィルタ
+ * セッションスコープのBeanは、参照しただけのリクエストでも終了時にセッションへ設定し直され、
+ * Spring Sessionはそのたびに属性を更新対象としてセッションストアへ書き込む
+ * {@link ChangeTrackingSessionAttribute}を実装した属性は、同じインスタンスが変更なしで設定された場合に設定を省略する
+ * セッションストアの置き換え後、リクエストスコープの属性管理(RequestContextFilter)より前に適用する
+ */
+@Component
+@Order(SessionRepositoryFilter.DEFAULT_ORDER + 1)
+public class UnchangedSessionAttributeFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(new ChangeTrackingRequest(request), response);
+    }
+
+    private static final class ChangeTrackingRequest extends HttpServletRequestWrapper {
+
+        ChangeTrackingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            HttpSession session = super.getSession(create);
+            return session == null ? null : new ChangeTrackingSession(session);
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+    }
+
+    private record ChangeTrackingSession(HttpSession delegate) implements HttpSession {
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            if (value instanceof ChangeTrackingSessionAttribute attribute
+                    && !attribute.isChanged()
+                    && delegate.getAttribute(name) == value) {
+                return;
+            }
+            delegate.setAttribute(name, value);
+        }
+
+        @Override
+        public long getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public long getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return delegate.getServletContext();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(int interval) {
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public int getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return delegate.getAttribute(name);
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            delegate.removeAttribute(name);
+        }
+
+        @Override
+        public void invalidate() {
+            delegate.invalidate();
+        }
+
+        @Override
+        public boolean isNew() {
+            return delegate.isNew();
+        }
+    }
+}
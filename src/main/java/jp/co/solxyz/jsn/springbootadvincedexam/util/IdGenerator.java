@@ -0,0 +1,20 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.util;
+
+/**
+ * ID生成インターフェース
+ * 主キーに使用するIDを生成する
+ */
+public interface IdGenerator {
+
+    /**
+     * ユーザIDを生成する
+     * @return ユーザID
+     */
+    String generateUserId();
+
+    /**
+     * 貸出IDを生成する
+     * @return 貸出ID
+     */
+    String generateRentalId();
+}
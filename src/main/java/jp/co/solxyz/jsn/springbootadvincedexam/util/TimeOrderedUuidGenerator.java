@@ -0,0 +1,47 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * UUIDバージョン7によるID生成クラス
+ * 主キーに使用するIDを、生成時刻の順に並ぶUUIDバージョン7の形式で生成する
+ * 登録順にインデックスの末尾へ追加されるため、ランダムなUUIDに比べてインデックスが断片化しにくい
+ * 乱数部にはスレッドごとの乱数生成器を使用するため、スレッド間で競合せず、エントロピー不足で待たされることもない
+ * (推測されても問題のない識別子にのみ使用し、トークンなどの秘密情報には使用しないこと)
+ */
+@Component
+public class TimeOrderedUuidGenerator implements IdGenerator {
+
+    /**
+     * ユーザIDを生成する
+     * @return UUID
+     */
+    @Override
+    public String generateUserId() {
+        return timeOrderedUuid().toString();
+    }
+
+    /**
+     * 貸出IDを生成する
+     * @return UUID
+     */
+    @Override
+    public String generateRentalId() {
+        return timeOrderedUuid().toString();
+    }
+
+    /**
+     * UUIDバージョン7を生成する
+     * 上位48ビットにUNIXエポックからのミリ秒、続けてバージョン(7)、12ビットの乱数、バリアント(10)、62ビットの乱数を格納する
+     * @return UUID
+     */
+    static UUID timeOrderedUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (System.currentTimeMillis() << 16) | 0x7000L | random.nextLong(0x1000L);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
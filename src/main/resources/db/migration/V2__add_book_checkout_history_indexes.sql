@@ -0,0 +1,5 @@
+-- 未返却の貸出履歴をユーザID・ISBNで検索、更新する際に使用するインデックス
+-- H2は部分インデックスをサポートしないため、RETURN_ATを後ろに含めて「RETURN_AT IS NULL」もインデックスで絞り込む
+-- 移行前にsql.sqlで作成したDBにはすでに存在する場合があるため、IF NOT EXISTSを指定する
+CREATE INDEX IF NOT EXISTS BOOK_CHECKOUT_HISTORY_IX1 ON BOOK_CHECKOUT_HISTORY (USER_ID, RETURN_AT);
+CREATE INDEX IF NOT EXISTS BOOK_CHECKOUT_HISTORY_IX2 ON BOOK_CHECKOUT_HISTORY (ISBN, RETURN_AT);
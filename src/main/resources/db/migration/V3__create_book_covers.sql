@@ -0,0 +1,8 @@
+-- 取得済みの書影URL
+-- Flyway導入前に作成したDB(V1をベースラインとして扱う)にも作成されるよう、V1とは別のバージョンで作成する
+CREATE TABLE IF NOT EXISTS BOOK_COVERS (
+                          ISBN CHAR(13) NOT NULL,
+                          COVER_URL VARCHAR(2048) NOT NULL,
+                          FETCHED_AT TIMESTAMP NOT NULL,
+                          PRIMARY KEY (ISBN)
+);
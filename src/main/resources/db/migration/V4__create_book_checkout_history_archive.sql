@@ -0,0 +1,14 @@
+-- 返却から一定期間が経過した貸出履歴の移動先
+-- 書籍やユーザの削除を妨げないよう、外部キーは設定しない
+CREATE TABLE BOOK_CHECKOUT_HISTORY_ARCHIVE (
+                                 RENTAL_ID CHAR(36) NOT NULL,
+                                 ISBN CHAR(13) NOT NULL,
+                                 USER_ID CHAR(36) NOT NULL,
+                                 RENTAL_AT TIMESTAMP NOT NULL,
+                                 RETURN_AT TIMESTAMP NOT NULL,
+                                 ARCHIVED_AT TIMESTAMP NOT NULL,
+                                 PRIMARY KEY (RENTAL_ID)
+);
+
+-- 移動対象(返却日時が基準日時より前)の貸出履歴を返却日時の古い順に取得する際に使用するインデックス
+CREATE INDEX BOOK_CHECKOUT_HISTORY_IX3 ON BOOK_CHECKOUT_HISTORY (RETURN_AT);
@@ -0,0 +1,14 @@
+-- ユーザごとの貸出状況の集計
+-- 貸出・返却と同じトランザクションで更新し、貸出中の冊数と貸出状況の変更回数を保持する
+-- 変更回数は、アプリケーションが保持する貸出中の書籍の一覧が最新かの判定に使用する
+CREATE TABLE USER_LOAN_SUMMARY (
+                                 USER_ID CHAR(36) NOT NULL,
+                                 ACTIVE_LOAN_COUNT INTEGER NOT NULL DEFAULT 0,
+                                 LOAN_VERSION BIGINT NOT NULL DEFAULT 0,
+                                 PRIMARY KEY (USER_ID),
+                                 FOREIGN KEY (USER_ID) REFERENCES ACCOUNTS(USER_ID) ON DELETE CASCADE
+);
+
+-- 既存の未返却の貸出履歴から集計する
+INSERT INTO USER_LOAN_SUMMARY (USER_ID, ACTIVE_LOAN_COUNT, LOAN_VERSION)
+SELECT USER_ID, COUNT(*), 0 FROM BOOK_CHECKOUT_HISTORY WHERE RETURN_AT IS NULL GROUP BY USER_ID;
@@ -0,0 +1,23 @@
+-- 開発用の初期データ
+-- スキーマ(db/migration)の適用後に毎回確認し、存在しない行のみ追加する(既存の行は更新しない)
+-- 本番環境ではspring.flyway.locationsからclasspath:db/seedを外して適用しない
+MERGE INTO ACCOUNTS t
+USING (VALUES
+    ('f3d6bcdc-6c32-45b6-9aea-1aa6d36b6b17', 0, 'test@solxyz.co.jp', 'テスト 太郎', '$2a$08$uHZP6K8gdWlbog/Nl3.vCu6HJ0Aq6nj5h45wMYfUZLWhW82XDAaYK', CURRENT_TIMESTAMP),
+    ('f3d6bcdc-6c32-45b6-9aea-1aa6d36b6b13', 1, 'admin@solxyz.co.jp', '管理 次郎', '$2a$08$uHZP6K8gdWlbog/Nl3.vCu6HJ0Aq6nj5h45wMYfUZLWhW82XDAaYK', CURRENT_TIMESTAMP)
+) s (USER_ID, IS_ADMIN, EMAIL, USERNAME, PASSWORD, UPDATED_AT)
+ON t.USER_ID = s.USER_ID
+WHEN NOT MATCHED THEN
+    INSERT (USER_ID, IS_ADMIN, EMAIL, USERNAME, PASSWORD, UPDATED_AT)
+    VALUES (s.USER_ID, s.IS_ADMIN, s.EMAIL, s.USERNAME, s.PASSWORD, s.UPDATED_AT);
+
+MERGE INTO BOOKS t
+USING (VALUES
+    ('9784814400072', '詳解 システム・パフォーマンス 第2版', 'Brendan Gregg', 'オライリージャパン', 3, 2, '本書は、エンタープライズとクラウド環境を対象としたオペレーティングシステムとアプリケーションのパフォーマンス分析と向上について解説します。', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+    ('9784814400515', '詳解 Rustアトミック操作とロック', 'Mara Bos', 'オライリージャパン', 1, 0, 'Rustでは並行性を持つプログラムを安全に記述することができます。本書はその並行プログラムの基盤となる、アトミック操作とロックの仕組みについての理解を深め、より安全で効率の良いコードを書くための指南書です。難解だと思われがちなアトミック処理、ロック、メモリオーダリングのような低レイヤを詳細に理解し、アーキテクチャやOSによる相違を知ることで、安全で高性能な並行処理プログラムを実装できるようになります。Rustユーザはもちろん非ユーザにとっても低レイヤプログラミングの優れたリソースとなる一冊です。', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+    ('9784814400690', '入門 継続的デリバリー', 'Christie Wilson', 'オライリージャパン', 1, 1, '継続的デリバリーとは、コード変更を必要に応じて迅速かつ安全に、継続的にリリースできるようにするための開発手法です。本書は、初めて継続的デリバリーに取り組む読者向けに、必要な知識とベストプラクティスをていねいに紹介する入門書です。基本的な概念や技術、アプローチの解説はもとより、章ごとに事例を使用しながら、継続的デリバリーを実践する際に直面するさまざまなシナリオを取り上げ、その全体像・世界観を包括的に理解することができます。', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+) s (ISBN, TITLE, AUTHOR, PUBLISHER, STOCK, AVAILABLE_STOCK, DESCRIPTION, CREATED_AT, UPDATED_AT)
+ON t.ISBN = s.ISBN
+WHEN NOT MATCHED THEN
+    INSERT (ISBN, TITLE, AUTHOR, PUBLISHER, STOCK, AVAILABLE_STOCK, DESCRIPTION, CREATED_AT, UPDATED_AT)
+    VALUES (s.ISBN, s.TITLE, s.AUTHOR, s.PUBLISHER, s.STOCK, s.AVAILABLE_STOCK, s.DESCRIPTION, s.CREATED_AT, s.UPDATED_AT);
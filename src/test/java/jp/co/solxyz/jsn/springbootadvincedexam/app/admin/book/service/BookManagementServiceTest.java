@@ -166,7 +166,6 @@ public class BookManagementServiceTest {
         expected.setPublisher("Test Publisher");
         expected.setDescription("Test Description");
         expected.setStock(10);
-        expected.setAvailableStock(10);
         expected.setUpdatedAt(TEST_TIME);
 
         BookDetail form = new BookDetail();
@@ -187,7 +186,7 @@ public class BookManagementServiceTest {
         currentBook.setAvailableStock(10);
         currentBook.setUpdatedAt(TEST_TIME);
 
-        when(bookInventoryManager.getBookByIsbn(form.getIsbn())).thenReturn(currentBook);
+        when(bookInventoryManager.getLatestBookByIsbn(form.getIsbn())).thenReturn(currentBook);
         doNothing().when(bookInventoryManager).compareInputStockLowerThanCurrent(form.getStock(), currentBook.getAvailableStock());
 
         try (MockedStatic<LocalDateTime> mocked = Mockito.mockStatic(LocalDateTime.class)) {
@@ -210,7 +209,6 @@ public class BookManagementServiceTest {
         expected.setPublisher("Test Publisher");
         expected.setDescription("Test Description");
         expected.setStock(15);
-        expected.setAvailableStock(15);
         expected.setUpdatedAt(TEST_TIME);
 
         BookDetail form = new BookDetail();
@@ -232,7 +230,7 @@ public class BookManagementServiceTest {
         currentBook.setCreatedAt(TEST_TIME);
         currentBook.setUpdatedAt(TEST_TIME);
 
-        when(bookInventoryManager.getBookByIsbn(form.getIsbn())).thenReturn(currentBook);
+        when(bookInventoryManager.getLatestBookByIsbn(form.getIsbn())).thenReturn(currentBook);
         doNothing().when(bookInventoryManager).compareInputStockLowerThanCurrent(form.getStock(), currentBook.getAvailableStock());
 
         try (MockedStatic<LocalDateTime> mocked = Mockito.mockStatic(LocalDateTime.class)) {
@@ -267,7 +265,7 @@ public class BookManagementServiceTest {
         currentBook.setCreatedAt(TEST_TIME);
         currentBook.setUpdatedAt(TEST_TIME);
 
-        when(bookInventoryManager.getBookByIsbn(form.getIsbn())).thenReturn(currentBook);
+        when(bookInventoryManager.getLatestBookByIsbn(form.getIsbn())).thenReturn(currentBook);
         doThrow(IllegalArgumentException.class).when(bookInventoryManager)
                 .compareInputStockLowerThanCurrent(form.getStock(), currentBook.getAvailableStock());
 
@@ -4,7 +4,7 @@ import jp.co.solxyz.jsn.springbootadvincedexam.app.admin.user.json.AccountProfil
 import jp.co.solxyz.jsn.springbootadvincedexam.app.admin.user.model.UserManagementModel;
 import jp.co.solxyz.jsn.springbootadvincedexam.component.user.UserAccountManager;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.user.UserAccount;
-import jp.co.solxyz.jsn.springbootadvincedexam.util.UUIDGenerator;
+import jp.co.solxyz.jsn.springbootadvincedexam.util.IdGenerator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -42,6 +42,9 @@ class UserManagementServiceTest {
     @Mock
     UserAccountManager userAccountManager;
 
+    @Mock
+    IdGenerator idGenerator;
+
     private final Instant TEST_TIME = Instant.parse("2020-01-01T00:00:00Z");
 
     private final String TEST_UUID = "123e4567-e89b-12d3-a456-426614174000";
@@ -50,21 +53,17 @@ class UserManagementServiceTest {
 
     private MockedStatic<Instant> instantMockedStatic;
 
-    private MockedStatic<UUIDGenerator> uuidGeneratorMockedStatic;
-
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         instantMockedStatic = Mockito.mockStatic(Instant.class);
         instantMockedStatic.when(Instant::now).thenReturn(TEST_TIME);
-        uuidGeneratorMockedStatic = Mockito.mockStatic(UUIDGenerator.class);
-        uuidGeneratorMockedStatic.when(UUIDGenerator::generateUserId).thenReturn(TEST_UUID);
+        when(idGenerator.generateUserId()).thenReturn(TEST_UUID);
     }
 
     @AfterEach
     void tearDown() {
         instantMockedStatic.close();
-        uuidGeneratorMockedStatic.close();
     }
 
     @Test
@@ -6,15 +6,13 @@ import jp.co.solxyz.jsn.springbootadvincedexam.session.dto.Cart;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
-import java.util.List;
-
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -23,7 +21,8 @@ import static org.mockito.Mockito.when;
 
 class BookCartApiControllerTest {
 
-    @InjectMocks
+    private static final int MAX_CART_SIZE = 3;
+
     private BookCartApiController bookCartApiController;
 
     @Mock
@@ -32,6 +31,7 @@ class BookCartApiControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        bookCartApiController = new BookCartApiController(cartSession, MAX_CART_SIZE);
     }
 
     @Test
@@ -43,7 +43,7 @@ class BookCartApiControllerTest {
         Cart cart = new Cart();
         cart.setIsbn(cartIsbn.getIsbn());
 
-        when(cartSession.getCartList()).thenReturn(List.of(cart));
+        when(cartSession.size()).thenReturn(1);
 
         ResponseEntity<Integer> response = bookCartApiController.add(cartIsbn);
 
@@ -67,6 +67,36 @@ class BookCartApiControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    @Test
+    @DisplayName("カートが最大冊数に達している場合、追加せずにConflictが返される")
+    void shouldReturnConflictWhenCartIsFull() {
+        CartIsbn cartIsbn = new CartIsbn();
+        cartIsbn.setIsbn("1234567890123");
+
+        when(cartSession.contains(cartIsbn.getIsbn())).thenReturn(false);
+        when(cartSession.size()).thenReturn(MAX_CART_SIZE);
+
+        ResponseEntity<Integer> response = bookCartApiController.add(cartIsbn);
+
+        verify(cartSession, never()).addCart(any(Cart.class));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    @DisplayName("カートが最大冊数に達していても、既にカートにある書籍の追加は成功する")
+    void shouldAcceptAddOfBookAlreadyInCartWhenCartIsFull() {
+        CartIsbn cartIsbn = new CartIsbn();
+        cartIsbn.setIsbn("1234567890123");
+
+        when(cartSession.contains(cartIsbn.getIsbn())).thenReturn(true);
+        when(cartSession.size()).thenReturn(MAX_CART_SIZE);
+
+        ResponseEntity<Integer> response = bookCartApiController.add(cartIsbn);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(MAX_CART_SIZE);
+    }
+
     @Test
     @DisplayName("削除時にISBNがnullでない場合、カートから書籍を削除する")
     void shouldRemoveBookFromCartWhenIsbnIsNotNull() {
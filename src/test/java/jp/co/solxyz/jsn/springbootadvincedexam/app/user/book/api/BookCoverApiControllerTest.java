@@ -1,17 +1,31 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.api;
 
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookCoverImageService;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookCoverService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -29,6 +43,12 @@ class BookCoverApiControllerTest {
     @Mock
     private BookCoverService bookCoverService;
 
+    @Mock
+    private BookCoverImageService bookCoverImageService;
+
+    @TempDir
+    private Path imageDirectory;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -41,20 +61,20 @@ class BookCoverApiControllerTest {
         Map<String, String> coverUrls = Map.of(
                 "9784873117904", "https://cover.openbd.jp/9784873117904.jpg",
                 "9784873119380", "https://cover.openbd.jp/9784873119380.jpg");
-        when(bookCoverService.getCoverUrls(expectedIsbnList)).thenReturn(coverUrls);
+        when(bookCoverService.getCoverUrlsAsync(expectedIsbnList)).thenReturn(CompletableFuture.completedFuture(coverUrls));
 
         ResponseEntity<Map<String, String>> response =
-                bookCoverApiController.getCoverUrls("9784873117904, 9784873119380,9784873117904");
+                bookCoverApiController.getCoverUrls("9784873117904, 9784873119380,9784873117904").join();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(coverUrls);
-        verify(bookCoverService, times(1)).getCoverUrls(expectedIsbnList);
+        verify(bookCoverService, times(1)).getCoverUrlsAsync(expectedIsbnList);
     }
 
     @Test
     @DisplayName("ISBNが空の場合、BadRequestが返される")
     void shouldReturnBadRequestWhenIsbnIsEmpty() {
-        ResponseEntity<Map<String, String>> response = bookCoverApiController.getCoverUrls(" , ");
+        ResponseEntity<Map<String, String>> response = bookCoverApiController.getCoverUrls(" , ").join();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         verifyNoInteractions(bookCoverService);
@@ -63,7 +83,7 @@ class BookCoverApiControllerTest {
     @Test
     @DisplayName("ISBNの形式が不正な場合、BadRequestが返される")
     void shouldReturnBadRequestWhenIsbnFormatIsInvalid() {
-        ResponseEntity<Map<String, String>> response = bookCoverApiController.getCoverUrls("9784873117904, invalid");
+        ResponseEntity<Map<String, String>> response = bookCoverApiController.getCoverUrls("9784873117904, invalid").join();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         verifyNoInteractions(bookCoverService);
@@ -76,7 +96,7 @@ class BookCoverApiControllerTest {
                 .mapToObj(index -> String.format("978487311%04d", index))
                 .collect(Collectors.joining(","));
 
-        ResponseEntity<Map<String, String>> response = bookCoverApiController.getCoverUrls(isbns);
+        ResponseEntity<Map<String, String>> response = bookCoverApiController.getCoverUrls(isbns).join();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         verifyNoInteractions(bookCoverService);
@@ -89,9 +109,113 @@ class BookCoverApiControllerTest {
                 .mapToObj(index -> "9784873117904")
                 .collect(Collectors.joining(","));
 
-        ResponseEntity<Map<String, String>> response = bookCoverApiController.getCoverUrls(isbns);
+        ResponseEntity<Map<String, String>> response = bookCoverApiController.getCoverUrls(isbns).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookCoverService);
+    }
+
+    @Test
+    @DisplayName("POSTでISBNリストが指定された場合、書影URLのマップが返される")
+    void shouldReturnCoverUrlsWhenIsbnListIsPosted() {
+        List<String> expectedIsbnList = List.of("9784873117904", "9784873119380");
+        Map<String, String> coverUrls = Map.of("9784873117904", "https://cover.openbd.jp/9784873117904.jpg");
+        when(bookCoverService.getCoverUrlsAsync(expectedIsbnList)).thenReturn(CompletableFuture.completedFuture(coverUrls));
+
+        ResponseEntity<Map<String, String>> response =
+                bookCoverApiController.postCoverUrls(List.of("9784873117904", " 9784873119380 ", "9784873117904")).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(coverUrls);
+        verify(bookCoverService, times(1)).getCoverUrlsAsync(expectedIsbnList);
+    }
+
+    @Test
+    @DisplayName("POSTではGETの上限件数を超えるISBNもまとめて取得できる")
+    void shouldAcceptLargeBatchWhenIsbnListIsPosted() {
+        List<String> isbnList = IntStream.range(0, 1000)
+                .mapToObj(index -> String.format("978487311%04d", index))
+                .toList();
+        when(bookCoverService.getCoverUrlsAsync(isbnList)).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        ResponseEntity<Map<String, String>> response = bookCoverApiController.postCoverUrls(isbnList).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(bookCoverService, times(1)).getCoverUrlsAsync(isbnList);
+    }
+
+    @Test
+    @DisplayName("POSTでISBNが上限件数を超える場合、BadRequestが返される")
+    void shouldReturnBadRequestWhenPostedIsbnCountExceedsLimit() {
+        List<String> isbnList = IntStream.range(0, 1001)
+                .mapToObj(index -> String.format("97848731%05d", index))
+                .toList();
+
+        ResponseEntity<Map<String, String>> response = bookCoverApiController.postCoverUrls(isbnList).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookCoverService);
+    }
+
+    @Test
+    @DisplayName("POSTでISBNの形式が不正な場合、BadRequestが返される")
+    void shouldReturnBadRequestWhenPostedIsbnFormatIsInvalid() {
+        ResponseEntity<Map<String, String>> response = bookCoverApiController.postCoverUrls(List.of("9784873117904", "invalid")).join();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         verifyNoInteractions(bookCoverService);
     }
+
+    @Test
+    @DisplayName("書影画像がある場合、キャッシュ用のヘッダ付きで画像が返される")
+    void shouldReturnCoverImageWithCacheHeaders() throws Exception {
+        Path imagePath = Files.write(imageDirectory.resolve("9784873117904.jpg"), new byte[] {1, 2, 3});
+        when(bookCoverImageService.getCoverImage("9784873117904")).thenReturn(CompletableFuture.completedFuture(Optional.of(imagePath)));
+
+        ResponseEntity<Resource> response = bookCoverApiController.getCoverImage("9784873117904").join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=604800, private");
+        assertThat(response.getHeaders().getETag()).isNotBlank();
+        assertThat(response.getBody().getContentAsByteArray()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    @DisplayName("書影画像がない場合、NotFoundが返される")
+    void shouldReturnNotFoundWhenCoverImageDoesNotExist() {
+        when(bookCoverImageService.getCoverImage("9784873117904")).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        ResponseEntity<Resource> response = bookCoverApiController.getCoverImage("9784873117904").join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("書影画像のISBNの形式が不正な場合、BadRequestが返される")
+    void shouldReturnBadRequestWhenCoverImageIsbnIsInvalid() {
+        ResponseEntity<Resource> response = bookCoverApiController.getCoverImage("invalid").join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookCoverImageService);
+    }
+
+    @Test
+    @DisplayName("ETagが一致する場合、書影画像の本文を返さずNotModifiedが返される")
+    void shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        Path imagePath = Files.write(imageDirectory.resolve("9784873117904.jpg"), new byte[] {1, 2, 3});
+        when(bookCoverImageService.getCoverImage("9784873117904")).thenReturn(CompletableFuture.completedFuture(Optional.of(imagePath)));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(bookCoverApiController).build();
+
+        MvcResult first = mockMvc.perform(MockMvcRequestBuilders.get("/api/book/covers/9784873117904/image")).andReturn();
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(first))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult second = mockMvc.perform(MockMvcRequestBuilders.get("/api/book/covers/9784873117904/image")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(second))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().bytes(new byte[0]));
+    }
 }
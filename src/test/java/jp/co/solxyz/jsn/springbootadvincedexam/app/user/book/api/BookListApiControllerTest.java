@@ -0,0 +1,116 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.api;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.json.BookInfo;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookListService;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookListApiControllerTest {
+
+    private BookListApiController bookListApiController;
+
+    @Mock
+    private BookListService bookListService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bookListApiController = new BookListApiController(bookListService, JsonMapper.builder().build());
+    }
+
+    @Test
+    @DisplayName("書籍が存在する場合、説明を含んだ書籍詳細が返される")
+    void shouldReturnBookDetailWhenBookExists() {
+        Book book = new Book();
+        book.setIsbn("9784873117904");
+        book.setTitle("Test Book");
+        book.setAuthor("Test Author");
+        book.setPublisher("Test Publisher");
+        book.setDescription("Test Description");
+        book.setStock(5);
+        book.setAvailableStock(3);
+        when(bookListService.getBookDetail("9784873117904")).thenReturn(book);
+
+        ResponseEntity<BookInfo> response = bookListApiController.getBookDetail("9784873117904");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(new BookInfo("9784873117904", "Test Book", "Test Description",
+                "Test Author", "Test Publisher", 3));
+        verify(bookListService, times(1)).getBookDetail("9784873117904");
+    }
+
+    @Test
+    @DisplayName("書籍が存在しない場合、NotFoundが返される")
+    void shouldReturnNotFoundWhenBookDoesNotExist() {
+        when(bookListService.getBookDetail("9784873117904")).thenThrow(new NoSuchElementException());
+
+        ResponseEntity<BookInfo> response = bookListApiController.getBookDetail("9784873117904");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    @DisplayName("書籍一覧を取得した場合、全書籍をISBN順のJSON配列として出力する")
+    void shouldStreamAllBooksAsJsonArray() throws IOException {
+        List<BookSummary> firstBatch = IntStream.range(0, 500)
+                .mapToObj(i -> new BookSummary(String.valueOf(9784000000000L + i), "Test Title", "Test Author", "Test Publisher", 1))
+                .toList();
+        BookSummary lastBook = new BookSummary("9784000000500", "Last Title", "Test Author", "Test Publisher", 0);
+        when(bookListService.getBookSummariesAfter(null, 500)).thenReturn(firstBatch);
+        when(bookListService.getBookSummariesAfter("9784000000499", 500)).thenReturn(List.of(lastBook));
+
+        ResponseEntity<StreamingResponseBody> response = bookListApiController.getBookList();
+        String json = writeBody(response);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        List<?> books = JsonMapper.builder().build().readValue(json, List.class);
+        assertThat(books).hasSize(501);
+        assertThat(json).startsWith("[{").endsWith("}]");
+        assertThat(json).contains("\"isbn\":\"9784000000500\"", "\"title\":\"Last Title\"", "\"availableStock\":0");
+        verify(bookListService, times(2)).getBookSummariesAfter(any(), eq(500));
+    }
+
+    @Test
+    @DisplayName("書籍が存在しない場合、空のJSON配列を出力する")
+    void shouldStreamEmptyArrayWhenNoBooks() throws IOException {
+        when(bookListService.getBookSummariesAfter(null, 500)).thenReturn(Collections.emptyList());
+
+        String json = writeBody(bookListApiController.getBookList());
+
+        assertThat(json).isEqualTo("[]");
+        verify(bookListService, times(1)).getBookSummariesAfter(null, 500);
+    }
+
+    private String writeBody(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.api;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.BookModel;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookSearchService;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BookSearchApiControllerTest {
+
+    @InjectMocks
+    private BookSearchApiController bookSearchApiController;
+
+    @Mock
+    private BookSearchService bookSearchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("検索語が指定された場合、検索結果の書籍リストが返される")
+    void shouldReturnSearchResultsWhenQueryIsSpecified() {
+        BookSummary book = new BookSummary("9784873117904", "リーダブルコード", "Dustin Boswell", "オライリー・ジャパン", 3);
+        when(bookSearchService.search("コード", 50)).thenReturn(List.of(book));
+
+        ResponseEntity<List<BookModel>> response = bookSearchApiController.search("コード", 50);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(
+                new BookModel("9784873117904", "リーダブルコード", "Dustin Boswell", "オライリー・ジャパン", 3));
+        verify(bookSearchService, times(1)).search("コード", 50);
+    }
+
+    @Test
+    @DisplayName("検索語が空白のみの場合、BadRequestが返される")
+    void shouldReturnBadRequestWhenQueryIsBlank() {
+        ResponseEntity<List<BookModel>> response = bookSearchApiController.search("  ", 50);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookSearchService);
+    }
+
+    @Test
+    @DisplayName("検索語が上限文字数を超える場合、BadRequestが返される")
+    void shouldReturnBadRequestWhenQueryIsTooLong() {
+        ResponseEntity<List<BookModel>> response = bookSearchApiController.search("あ".repeat(101), 50);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookSearchService);
+    }
+
+    @Test
+    @DisplayName("取得件数が範囲外の場合、BadRequestが返される")
+    void shouldReturnBadRequestWhenLimitIsOutOfRange() {
+        assertThat(bookSearchApiController.search("コード", 0).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(bookSearchApiController.search("コード", 101).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookSearchService);
+    }
+}
@@ -3,10 +3,9 @@ package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.controller;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.BookModel;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.CartBookModel;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookCartService;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import jp.co.solxyz.jsn.springbootadvincedexam.security.MyUserDetails;
 import jp.co.solxyz.jsn.springbootadvincedexam.session.CartSession;
-import jp.co.solxyz.jsn.springbootadvincedexam.session.dto.Cart;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -74,19 +73,16 @@ class BookCartControllerTest {
     @Test
     @DisplayName("カートに書籍が1冊ある状態でindexが呼び出された場合、cartListに1件書籍が返される")
     void shouldDisplayCartWhenIndexIsCalled() throws Exception {
-        Cart cart = new Cart();
-        cart.setIsbn("1234567890");
-
-        List<Cart> carts = List.of(cart);
-        List<Cart> expectedCarts = List.of(cart);
+        List<String> isbnList = List.of("1234567890");
+        List<String> expectedIsbnList = List.of("1234567890");
 
         CartBookModel cartBook = new CartBookModel("1234567890", "Test Book", "Test Author", "Test Publisher");
 
         List<CartBookModel> cartBooks = List.of(cartBook);
         List<CartBookModel> expectedCartBooks = List.of(cartBook);
 
-        when(cartSession.getCartList()).thenReturn(carts);
-        when(bookCartService.getCartList(carts)).thenReturn(cartBooks);
+        when(cartSession.getIsbnList()).thenReturn(isbnList);
+        when(bookCartService.getCartList(isbnList)).thenReturn(cartBooks);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/book/cart"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -96,18 +92,13 @@ class BookCartControllerTest {
                 .andExpect(MockMvcResultMatchers.model().attribute("returnDueDays", 14))
                 .andExpect(MockMvcResultMatchers.model().attributeExists("returnDueDateText"))
                 .andExpect(MockMvcResultMatchers.model().attribute("cartList", expectedCartBooks));
-        verify(bookCartService, times(1)).getCartList(expectedCarts);
+        verify(bookCartService, times(1)).getCartList(expectedIsbnList);
     }
 
     @Test
     @DisplayName("カートに書籍が複数ある状態でindexが呼び出された場合、cartListに複数件書籍が返される")
     void shouldDisplayCartWhenIndexIsCalledWithMultipleBooks() throws Exception {
-        Cart cart1 = new Cart();
-        cart1.setIsbn("1234567890");
-        Cart cart2 = new Cart();
-        cart2.setIsbn("0987654321");
-
-        List<Cart> carts = List.of(cart1, cart2);
+        List<String> isbnList = List.of("1234567890", "0987654321");
 
         CartBookModel cartBook1 = new CartBookModel("1234567890", "Test Book1", "Test Author1", "Test Publisher1");
         CartBookModel cartBook2 = new CartBookModel("0987654321", "Test Book2", "Test Author2", "Test Publisher2");
@@ -115,8 +106,8 @@ class BookCartControllerTest {
         List<CartBookModel> cartBooks = List.of(cartBook1, cartBook2);
         List<CartBookModel> expectedCartBooks = List.of(cartBook1, cartBook2);
 
-        when(cartSession.getCartList()).thenReturn(carts);
-        when(bookCartService.getCartList(carts)).thenReturn(cartBooks);
+        when(cartSession.getIsbnList()).thenReturn(isbnList);
+        when(bookCartService.getCartList(isbnList)).thenReturn(cartBooks);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/book/cart"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -131,7 +122,7 @@ class BookCartControllerTest {
     @Test
     @DisplayName("カートに何もない状態でindexが呼び出された場合、空のカートが返される")
     void shouldEmptyDisplayCartWhenIndexIsCalled() throws Exception {
-        when(cartSession.getCartList()).thenReturn(Collections.emptyList());
+        when(cartSession.getIsbnList()).thenReturn(Collections.emptyList());
         when(bookCartService.getCartList(anyList())).thenReturn(Collections.emptyList());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/book/cart"))
@@ -151,14 +142,11 @@ class BookCartControllerTest {
     void shouldCheckedOutBookToCartWhenValidUserDetails() throws Exception {
         String expectedUserId = "user1";
 
-        Cart cart = new Cart();
-        cart.setIsbn("1234567890123");
-
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
 
-        when(cartSession.getCartList()).thenReturn(List.of(cart));
-        when(bookCartService.checkout(USER_ID, List.of(cart))).thenReturn(List.of());
+        when(cartSession.getIsbnList()).thenReturn(List.of("1234567890123"));
+        when(bookCartService.checkout(USER_ID, List.of("1234567890123"))).thenReturn(List.of());
 
         mockMvc.perform(MockMvcRequestBuilders.post("/book/cart"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -169,7 +157,7 @@ class BookCartControllerTest {
                 .andExpect(MockMvcResultMatchers.model().attributeExists("returnDueDateText"))
                 .andExpect(MockMvcResultMatchers.model().attributeDoesNotExist("cartList"));
 
-        verify(bookCartService, times(1)).checkout(expectedUserId, List.of(cart));
+        verify(bookCartService, times(1)).checkout(expectedUserId, List.of("1234567890123"));
     }
 
     @Test
@@ -177,14 +165,11 @@ class BookCartControllerTest {
     void shouldReturnErrorWhenExceptionIsThrownOnCheckedOut() throws Exception {
         String expectedUserId = "user1";
 
-        Cart cart = new Cart();
-        cart.setIsbn("1234567890123");
-
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
 
-        when(cartSession.getCartList()).thenReturn(List.of(cart));
-        doThrow(DataAccessResourceFailureException.class).when(bookCartService).checkout(USER_ID, List.of(cart));
+        when(cartSession.getIsbnList()).thenReturn(List.of("1234567890123"));
+        doThrow(DataAccessResourceFailureException.class).when(bookCartService).checkout(USER_ID, List.of("1234567890123"));
 
         mockMvc.perform(MockMvcRequestBuilders.post("/book/cart"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -195,7 +180,7 @@ class BookCartControllerTest {
                 .andExpect(MockMvcResultMatchers.model().attributeExists("returnDueDateText"))
                 .andExpect(MockMvcResultMatchers.model().attribute("errorMessage", "処理中にエラーが発生しました。"));
 
-        verify(bookCartService, times(1)).checkout(expectedUserId, List.of(cart));
+        verify(bookCartService, times(1)).checkout(expectedUserId, List.of("1234567890123"));
     }
 
     @Test
@@ -203,9 +188,6 @@ class BookCartControllerTest {
     void shouldReturnErrorWhenSomeBooksAreNotCheckedOut() throws Exception {
         String expectedUserId = "user1";
 
-        Cart cart = new Cart();
-        cart.setIsbn("1234567890123");
-
         BookModel expectedBook = new BookModel();
         expectedBook.setIsbn("1234567890123");
         expectedBook.setTitle("Test Book");
@@ -213,14 +195,14 @@ class BookCartControllerTest {
         expectedBook.setPublisher("Test Publisher");
         List<BookModel> expectedCartBooks = List.of(expectedBook);
 
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
         book.setTitle("Test Book");
         book.setAuthor("Test Author");
         book.setPublisher("Test Publisher");
 
-        when(cartSession.getCartList()).thenReturn(List.of(cart));
-        when(bookCartService.checkout(USER_ID, List.of(cart))).thenReturn(List.of(book));
+        when(cartSession.getIsbnList()).thenReturn(List.of("1234567890123"));
+        when(bookCartService.checkout(USER_ID, List.of("1234567890123"))).thenReturn(List.of(book));
 
         mockMvc.perform(MockMvcRequestBuilders.post("/book/cart"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -232,7 +214,7 @@ class BookCartControllerTest {
                 .andExpect(MockMvcResultMatchers.model().attribute("cartList", expectedCartBooks))
                 .andExpect(MockMvcResultMatchers.model().attribute("errorMessage", "以下の書籍は既に借りている 又は 在庫が不足しているため借りることができません。"));
 
-        verify(bookCartService, times(1)).checkout(expectedUserId, List.of(cart));
+        verify(bookCartService, times(1)).checkout(expectedUserId, List.of("1234567890123"));
     }
 
     @Test
@@ -240,11 +222,6 @@ class BookCartControllerTest {
     void shouldReturnErrorWhenMultipleBooksAreNotCheckedOut() throws Exception {
         String expectedUserId = "user1";
 
-        Cart cart1 = new Cart();
-        cart1.setIsbn("1234567890123");
-        Cart cart2 = new Cart();
-        cart2.setIsbn("0987654321098");
-
         BookModel expectedBook1 = new BookModel();
         expectedBook1.setIsbn("1234567890123");
         expectedBook1.setTitle("Test Book1");
@@ -257,19 +234,19 @@ class BookCartControllerTest {
         expectedBook2.setPublisher("Test Publisher2");
         List<BookModel> expectedCartBooks = List.of(expectedBook1, expectedBook2);
 
-        Book book1 = new Book();
+        BookSummary book1 = new BookSummary();
         book1.setIsbn("1234567890123");
         book1.setTitle("Test Book1");
         book1.setAuthor("Test Author1");
         book1.setPublisher("Test Publisher1");
-        Book book2 = new Book();
+        BookSummary book2 = new BookSummary();
         book2.setIsbn("0987654321098");
         book2.setTitle("Test Book2");
         book2.setAuthor("Test Author2");
         book2.setPublisher("Test Publisher2");
 
-        when(cartSession.getCartList()).thenReturn(List.of(cart1, cart2));
-        when(bookCartService.checkout(USER_ID, List.of(cart1, cart2))).thenReturn(List.of(book1, book2));
+        when(cartSession.getIsbnList()).thenReturn(List.of("1234567890123", "0987654321098"));
+        when(bookCartService.checkout(USER_ID, List.of("1234567890123", "0987654321098"))).thenReturn(List.of(book1, book2));
 
         mockMvc.perform(MockMvcRequestBuilders.post("/book/cart"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -281,6 +258,6 @@ class BookCartControllerTest {
                 .andExpect(MockMvcResultMatchers.model().attribute("cartList", expectedCartBooks))
                 .andExpect(MockMvcResultMatchers.model().attribute("errorMessage", "以下の書籍は既に借りている 又は 在庫が不足しているため借りることができません。"));
 
-        verify(bookCartService, times(1)).checkout(expectedUserId, List.of(cart1, cart2));
+        verify(bookCartService, times(1)).checkout(expectedUserId, List.of("1234567890123", "0987654321098"));
     }
 }
@@ -1,30 +1,37 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.BookModel;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookCoverService;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookListService;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service.BookSearchService;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,10 +46,19 @@ class BookListControllerTest {
     @MockitoBean
     private BookListService bookListService;
 
+    @MockitoBean
+    private BookSearchService bookSearchService;
+
+    @MockitoBean
+    private BookCoverService bookCoverService;
+
     private final WebApplicationContext context;
 
-    BookListControllerTest(WebApplicationContext context) {
+    private final JsonMapper jsonMapper;
+
+    BookListControllerTest(WebApplicationContext context, JsonMapper jsonMapper) {
         this.context = context;
+        this.jsonMapper = jsonMapper;
     }
 
     @BeforeEach
@@ -64,38 +80,28 @@ class BookListControllerTest {
         expected.setTitle("Test Book");
         expected.setAuthor("Test Author");
         expected.setPublisher("Test Publisher");
-        expected.setDescription("Test Description");
         expected.setAvailableStock(10);
         List<BookModel> expectedList = List.of(expected);
 
-        Book book = new Book();
-        book.setIsbn("1234567890123");
-        book.setTitle("Test Book");
-        book.setAuthor("Test Author");
-        book.setPublisher("Test Publisher");
-        book.setDescription("Test Description");
-        book.setAvailableStock(10);
-        book.setStock(5);
+        BookSummary book = new BookSummary("1234567890123", "Test Book", "Test Author", "Test Publisher", 10);
 
         // JSON文字列をBookModelのリストに変換
-        ObjectMapper mapper = new ObjectMapper();
-        JavaTimeModule module = new JavaTimeModule();
-        module.addSerializer(LocalDate.class, new LocalDateSerializer(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        module.addDeserializer(LocalDate.class, new LocalDateDeserializer(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        mapper.registerModule(module);
-        String bookJson = mapper.writeValueAsString(expectedList);
+        String bookJson = jsonMapper.writeValueAsString(expectedList);
 
-        when(bookListService.getAllBooks()).thenReturn(List.of(book));
+        when(bookListService.getBookSummariesAfter(null, 51)).thenReturn(List.of(book));
+        when(bookListService.countBooks()).thenReturn(1L);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/book/list"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.view().name("user/book-list"))
                 .andExpect(MockMvcResultMatchers.model().attribute("books", expectedList))
                 .andExpect(MockMvcResultMatchers.model().attribute("booksJson", bookJson))
-                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 1))
+                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 1L))
+                .andExpect(MockMvcResultMatchers.model().attribute("nextCursor", nullValue()))
+                .andExpect(MockMvcResultMatchers.model().attribute("firstPage", true))
                 .andExpect(MockMvcResultMatchers.model().attribute("activeMenu", "bookList"));
 
-        verify(bookListService, times(1)).getAllBooks();
+        verify(bookListService, times(1)).getBookSummariesAfter(null, 51);
     }
 
     @Test
@@ -106,75 +112,186 @@ class BookListControllerTest {
         expected1.setTitle("Test Book");
         expected1.setAuthor("Test Author");
         expected1.setPublisher("Test Publisher");
-        expected1.setDescription("Test Description");
         expected1.setAvailableStock(10);
         BookModel expected2 = new BookModel();
         expected2.setIsbn("0987654321098");
         expected2.setTitle("Test Book");
         expected2.setAuthor("Test Author");
         expected2.setPublisher("Test Publisher");
-        expected2.setDescription("Test Description");
         expected2.setAvailableStock(5);
         List<BookModel> expectedList = List.of(expected1, expected2);
 
-        Book book1 = new Book();
-        book1.setIsbn("1234567890123");
-        book1.setTitle("Test Book");
-        book1.setAuthor("Test Author");
-        book1.setPublisher("Test Publisher");
-        book1.setDescription("Test Description");
-        book1.setAvailableStock(10);
-        book1.setStock(5);
-        Book book2 = new Book();
-        book2.setIsbn("0987654321098");
-        book2.setTitle("Test Book");
-        book2.setAuthor("Test Author");
-        book2.setPublisher("Test Publisher");
-        book2.setDescription("Test Description");
-        book2.setAvailableStock(5);
-        book2.setStock(5);
-        List<Book> books = List.of(book1, book2);
-
-        ObjectMapper mapper = new ObjectMapper();
-        JavaTimeModule module = new JavaTimeModule();
-        module.addSerializer(LocalDate.class, new LocalDateSerializer(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        module.addDeserializer(LocalDate.class, new LocalDateDeserializer(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        mapper.registerModule(module);
-        String bookJson = mapper.writeValueAsString(expectedList);
-
-        when(bookListService.getAllBooks()).thenReturn(books);
+        BookSummary book1 = new BookSummary("1234567890123", "Test Book", "Test Author", "Test Publisher", 10);
+        BookSummary book2 = new BookSummary("0987654321098", "Test Book", "Test Author", "Test Publisher", 5);
+        List<BookSummary> books = List.of(book1, book2);
+
+        String bookJson = jsonMapper.writeValueAsString(expectedList);
+
+        when(bookListService.getBookSummariesAfter(null, 51)).thenReturn(books);
+        when(bookListService.countBooks()).thenReturn(2L);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/book/list"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.view().name("user/book-list"))
                 .andExpect(MockMvcResultMatchers.model().attribute("books", expectedList))
                 .andExpect(MockMvcResultMatchers.model().attribute("booksJson", bookJson))
-                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 2))
+                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 2L))
+                .andExpect(MockMvcResultMatchers.model().attribute("nextCursor", nullValue()))
+                .andExpect(MockMvcResultMatchers.model().attribute("firstPage", true))
                 .andExpect(MockMvcResultMatchers.model().attribute("activeMenu", "bookList"));
 
-        verify(bookListService, times(1)).getAllBooks();
+        verify(bookListService, times(1)).getBookSummariesAfter(null, 51);
     }
 
     @Test
     @DisplayName("書籍がない場合、空の書籍リストと書籍一覧画面が返される")
     void shouldDisplayEmptyBookListWhenNoBooksAreAvailable() throws Exception {
-        when(bookListService.getAllBooks()).thenReturn(Collections.emptyList());
+        when(bookListService.getBookSummariesAfter(null, 51)).thenReturn(Collections.emptyList());
+        when(bookListService.countBooks()).thenReturn(0L);
 
-        ObjectMapper mapper = new ObjectMapper();
-        JavaTimeModule module = new JavaTimeModule();
-        module.addSerializer(LocalDate.class, new LocalDateSerializer(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        module.addDeserializer(LocalDate.class, new LocalDateDeserializer(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        mapper.registerModule(module);
-        String bookJson = mapper.writeValueAsString(Collections.emptyList());
+        String bookJson = jsonMapper.writeValueAsString(Collections.emptyList());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/book/list"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.view().name("user/book-list"))
                 .andExpect(MockMvcResultMatchers.model().attribute("books", equalTo(Collections.emptyList())))
                 .andExpect(MockMvcResultMatchers.model().attribute("booksJson", equalTo(bookJson)))
-                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 0))
+                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 0L))
+                .andExpect(MockMvcResultMatchers.model().attribute("nextCursor", nullValue()))
+                .andExpect(MockMvcResultMatchers.model().attribute("firstPage", true))
                 .andExpect(MockMvcResultMatchers.model().attribute("activeMenu", "bookList"));
 
-        verify(bookListService, times(1)).getAllBooks();
+        verify(bookListService, times(1)).getBookSummariesAfter(null, 51);
+    }
+
+    @Test
+    @DisplayName("次ページの書籍が存在する場合、1ページ分の書籍と末尾のISBNが次ページのカーソルとして返される")
+    void shouldReturnNextCursorWhenNextPageExists() throws Exception {
+        List<BookSummary> books = IntStream.range(0, 51)
+                .mapToObj(index -> new BookSummary(String.format("9784873110%03d", index), "Test Book" + index,
+                        "Test Author", "Test Publisher", 1))
+                .toList();
+
+        when(bookListService.getBookSummariesAfter(null, 51)).thenReturn(books);
+        when(bookListService.countBooks()).thenReturn(120L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/list"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("user/book-list"))
+                .andExpect(MockMvcResultMatchers.model().attribute("books", hasSize(50)))
+                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 120L))
+                .andExpect(MockMvcResultMatchers.model().attribute("nextCursor", "9784873110049"))
+                .andExpect(MockMvcResultMatchers.model().attribute("firstPage", true));
+    }
+
+    @Test
+    @DisplayName("カーソルが指定された場合、カーソルより後ろの書籍が返される")
+    void shouldDisplayBooksAfterCursorWhenCursorIsSpecified() throws Exception {
+        BookSummary book = new BookSummary("9784873119380", "Test Book", "Test Author", "Test Publisher", 1);
+
+        when(bookListService.getBookSummariesAfter("9784873117904", 51)).thenReturn(List.of(book));
+        when(bookListService.countBooks()).thenReturn(51L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/list").param("after", "9784873117904"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("user/book-list"))
+                .andExpect(MockMvcResultMatchers.model().attribute("books", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.model().attribute("nextCursor", nullValue()))
+                .andExpect(MockMvcResultMatchers.model().attribute("firstPage", false));
+
+        verify(bookListService, times(1)).getBookSummariesAfter("9784873117904", 51);
+    }
+
+    @Test
+    @DisplayName("カーソルがISBN形式でない場合、BadRequestが返される")
+    void shouldReturnBadRequestWhenCursorIsInvalid() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/list").param("after", "invalid"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verify(bookListService, never()).getBookSummariesAfter(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("検索語が指定された場合、検索結果の1ページ目と一致した全件数、次ページ番号が返される")
+    void shouldDisplaySearchResultsWhenQueryIsSpecified() throws Exception {
+        BookSummary book = new BookSummary("9784873117904", "リーダブルコード", "Dustin Boswell", "オライリー・ジャパン", 3);
+        BookModel expected = new BookModel("9784873117904", "リーダブルコード", "Dustin Boswell", "オライリー・ジャパン", 3);
+
+        when(bookSearchService.search("コード", PageRequest.of(0, 50)))
+                .thenReturn(new PageImpl<>(List.of(book), PageRequest.of(0, 50), 120));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/list").param("q", " コード "))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("user/book-list"))
+                .andExpect(MockMvcResultMatchers.model().attribute("books", List.of(expected)))
+                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 120L))
+                .andExpect(MockMvcResultMatchers.model().attribute("nextCursor", nullValue()))
+                .andExpect(MockMvcResultMatchers.model().attribute("nextPage", 1))
+                .andExpect(MockMvcResultMatchers.model().attribute("firstPage", true))
+                .andExpect(MockMvcResultMatchers.model().attribute("query", "コード"));
+
+        verify(bookSearchService, times(1)).search("コード", PageRequest.of(0, 50));
+        verify(bookListService, never()).getBookSummariesAfter(any(), anyInt());
+        verify(bookListService, never()).countBooks();
+    }
+
+    @Test
+    @DisplayName("検索結果の最終ページを指定した場合、そのページの書籍が返され次ページ番号は返されない")
+    void shouldDisplayLastSearchResultPage() throws Exception {
+        BookSummary book = new BookSummary("9784873117904", "リーダブルコード", "Dustin Boswell", "オライリー・ジャパン", 3);
+
+        when(bookSearchService.search("コード", PageRequest.of(2, 50)))
+                .thenReturn(new PageImpl<>(List.of(book), PageRequest.of(2, 50), 101));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/list").param("q", "コード").param("page", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.model().attribute("books", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 101L))
+                .andExpect(MockMvcResultMatchers.model().attribute("nextPage", nullValue()))
+                .andExpect(MockMvcResultMatchers.model().attribute("firstPage", false));
+    }
+
+    @Test
+    @DisplayName("ページ番号が負の場合、BadRequestが返される")
+    void shouldReturnBadRequestWhenSearchPageIsNegative() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/list").param("q", "コード").param("page", "-1"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("検索語が空白のみの場合、検索せずに書籍一覧が返され検索語は未指定となる")
+    void shouldDisplayBookListWhenQueryIsBlank() throws Exception {
+        when(bookListService.getBookSummariesAfter(null, 51)).thenReturn(Collections.emptyList());
+        when(bookListService.countBooks()).thenReturn(0L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/list").param("q", "   "))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.model().attribute("query", nullValue()))
+                .andExpect(MockMvcResultMatchers.model().attribute("firstPage", true));
+
+        verify(bookSearchService, never()).search(anyString(), any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("キャッシュ済みの書影URLがある場合、書籍情報に埋め込まれ、キャッシュにない書籍は書影URLを持たない")
+    void shouldEmbedCachedCoverUrls() throws Exception {
+        BookSummary cachedBook = new BookSummary("9784873117904", "リーダブルコード", "Dustin Boswell", "オライリー・ジャパン", 3);
+        BookSummary missingCoverBook = new BookSummary("9784873119380", "Test Book", "Test Author", "Test Publisher", 1);
+        BookSummary uncachedBook = new BookSummary("9784873115658", "Test Book", "Test Author", "Test Publisher", 2);
+        String coverUrl = "https://cover.openbd.jp/9784873117904.jpg";
+        List<BookModel> expectedList = List.of(
+                new BookModel("9784873117904", "リーダブルコード", "Dustin Boswell", "オライリー・ジャパン", 3, coverUrl),
+                new BookModel("9784873119380", "Test Book", "Test Author", "Test Publisher", 1, ""),
+                new BookModel("9784873115658", "Test Book", "Test Author", "Test Publisher", 2));
+
+        when(bookListService.getBookSummariesAfter(null, 51)).thenReturn(List.of(cachedBook, missingCoverBook, uncachedBook));
+        when(bookListService.countBooks()).thenReturn(3L);
+        when(bookCoverService.getCachedCoverUrls(List.of("9784873117904", "9784873119380", "9784873115658")))
+                .thenReturn(Map.of("9784873117904", coverUrl, "9784873119380", ""));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/book/list"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.model().attribute("books", expectedList))
+                .andExpect(MockMvcResultMatchers.model().attribute("booksJson", jsonMapper.writeValueAsString(expectedList)));
     }
 }
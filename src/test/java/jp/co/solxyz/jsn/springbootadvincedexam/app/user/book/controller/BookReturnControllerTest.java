@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -111,14 +112,6 @@ class BookReturnControllerTest {
         unreturnedBook.setRentalAt(rentalAt);
         List<UnreturnedBookModel> unreturnedBooks = List.of(unreturnedBook);
 
-        UnreturnedBookModel expectedUnreturnedBook = new UnreturnedBookModel();
-        expectedUnreturnedBook.setIsbn("isbn1");
-        expectedUnreturnedBook.setTitle("title1");
-        expectedUnreturnedBook.setAuthor("author1");
-        expectedUnreturnedBook.setPublisher("publisher1");
-        expectedUnreturnedBook.setRentalAt(rentalAt);
-        List<UnreturnedBookModel> expectedUnreturnedBooks = List.of(expectedUnreturnedBook);
-
         when(bookLendingService.getCurrentUserBooks(any())).thenReturn(unreturnedBooks);
 
         MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/book/return")
@@ -131,7 +124,6 @@ class BookReturnControllerTest {
                 .andExpect(MockMvcResultMatchers.model().attribute("returnDueDays", 14))
                 .andExpect(MockMvcResultMatchers.model().attributeExists("displayBooks"))
                 .andExpect(MockMvcResultMatchers.content().string(containsString("data-due-soon=\"false\"")))
-                .andExpect(MockMvcResultMatchers.model().attribute("books", expectedUnreturnedBooks))
                 .andReturn();
 
         @SuppressWarnings("unchecked")
@@ -140,6 +132,11 @@ class BookReturnControllerTest {
                 .get("displayBooks");
         assertThat(displayBooks).hasSize(1);
         UnreturnedBookModel displayBook = displayBooks.get(0);
+        assertThat(displayBook.getIsbn()).isEqualTo("isbn1");
+        assertThat(displayBook.getTitle()).isEqualTo("title1");
+        assertThat(displayBook.getAuthor()).isEqualTo("author1");
+        assertThat(displayBook.getPublisher()).isEqualTo("publisher1");
+        assertThat(displayBook.getRentalAt()).isEqualTo(rentalAt);
         assertThat(displayBook.getDueAt()).isEqualTo(rentalAt.plusDays(14));
         assertThat(displayBook.getRemainingDays()).isEqualTo(14);
         assertThat(displayBook.isDueSoon()).isFalse();
@@ -241,22 +238,10 @@ class BookReturnControllerTest {
         unreturnedBook2.setPublisher("publisher2");
         List<UnreturnedBookModel> unreturnedBooks = List.of(unreturnedBook1, unreturnedBook2);
 
-        UnreturnedBookModel expectedUnreturnedBook1 = new UnreturnedBookModel();
-        expectedUnreturnedBook1.setIsbn("isbn1");
-        expectedUnreturnedBook1.setTitle("title1");
-        expectedUnreturnedBook1.setAuthor("author1");
-        expectedUnreturnedBook1.setPublisher("publisher1");
-        UnreturnedBookModel expectedUnreturnedBook2 = new UnreturnedBookModel();
-        expectedUnreturnedBook2.setIsbn("isbn2");
-        expectedUnreturnedBook2.setTitle("title2");
-        expectedUnreturnedBook2.setAuthor("author2");
-        expectedUnreturnedBook2.setPublisher("publisher2");
-        List<UnreturnedBookModel> expectedUnreturnedBooks = List.of(expectedUnreturnedBook1, expectedUnreturnedBook2);
-
         when(userDetails.getUserId()).thenReturn(userId);
         when(bookLendingService.getCurrentUserBooks(userId)).thenReturn(unreturnedBooks);
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/book/return")
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/book/return")
                         .with(user(userDetails)))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.view().name("user/book-lending"))
@@ -264,8 +249,17 @@ class BookReturnControllerTest {
                 .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 2))
                 .andExpect(MockMvcResultMatchers.model().attribute("dueSoonCount", 0L))
                 .andExpect(MockMvcResultMatchers.model().attribute("returnDueDays", 14))
-                .andExpect(MockMvcResultMatchers.model().attributeExists("displayBooks"))
-                .andExpect(MockMvcResultMatchers.model().attribute("books", expectedUnreturnedBooks));
+                .andReturn();
+
+        @SuppressWarnings("unchecked")
+        List<UnreturnedBookModel> displayBooks = (List<UnreturnedBookModel>) result.getModelAndView()
+                .getModel()
+                .get("displayBooks");
+        assertThat(displayBooks)
+                .extracting(UnreturnedBookModel::getIsbn, UnreturnedBookModel::getTitle, UnreturnedBookModel::getStatusLabel)
+                .containsExactly(
+                        tuple("isbn1", "title1", "貸出中"),
+                        tuple("isbn2", "title2", "貸出中"));
 
         verify(bookLendingService, times(1)).getCurrentUserBooks(expectedUserId);
     }
@@ -287,8 +281,7 @@ class BookReturnControllerTest {
                 .andExpect(MockMvcResultMatchers.model().attribute("bookCount", 0))
                 .andExpect(MockMvcResultMatchers.model().attribute("dueSoonCount", 0L))
                 .andExpect(MockMvcResultMatchers.model().attribute("returnDueDays", 14))
-                .andExpect(MockMvcResultMatchers.model().attribute("displayBooks", Collections.emptyList()))
-                .andExpect(MockMvcResultMatchers.model().attribute("books", Collections.emptyList()));
+                .andExpect(MockMvcResultMatchers.model().attribute("displayBooks", Collections.emptyList()));
 
         verify(bookLendingService, times(1)).getCurrentUserBooks(expectedUserId);
     }
@@ -3,8 +3,7 @@ package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.CartBookModel;
 import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookInventoryManager;
 import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookLendingManager;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
-import jp.co.solxyz.jsn.springbootadvincedexam.session.dto.Cart;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -50,32 +49,19 @@ class BookCartServiceTest {
         expected2.setAuthor("Test Author2");
         expected2.setPublisher("Test Publisher2");
 
-        Cart cart1 = new Cart();
-        cart1.setIsbn("1234567890123");
-        Cart cart2 = new Cart();
-        cart2.setIsbn("0987654321123");
+        List<String> cartIsbnList = List.of("1234567890123", "0987654321123");
 
-        List<Cart> carts = List.of(cart1, cart2);
+        BookSummary book1 = new BookSummary("1234567890123", "Test Book1", "Test Author1", "Test Publisher1", 0);
 
-        Book book1 = new Book();
-        book1.setIsbn("1234567890123");
-        book1.setTitle("Test Book1");
-        book1.setAuthor("Test Author1");
-        book1.setPublisher("Test Publisher1");
-
-        Book book2 = new Book();
-        book2.setIsbn("0987654321123");
-        book2.setTitle("Test Book2");
-        book2.setAuthor("Test Author2");
-        book2.setPublisher("Test Publisher2");
+        BookSummary book2 = new BookSummary("0987654321123", "Test Book2", "Test Author2", "Test Publisher2", 0);
 
         List<String> isbnList = List.of(book1.getIsbn(), book2.getIsbn());
 
-        when(bookInventoryManager.getBooksByIsbn(isbnList)).thenReturn(List.of(book1, book2));
+        when(bookInventoryManager.getBookSummariesByIsbn(isbnList)).thenReturn(List.of(book1, book2));
 
-        List<CartBookModel> cartBooks = bookCartService.getCartList(carts);
+        List<CartBookModel> cartBooks = bookCartService.getCartList(cartIsbnList);
 
-        verify(bookInventoryManager, times(1)).getBooksByIsbn(isbnList);
+        verify(bookInventoryManager, times(1)).getBookSummariesByIsbn(isbnList);
         assertThat(cartBooks.size()).isEqualTo(2);
         assertThat(cartBooks.get(0)).isEqualTo(expected1);
         assertThat(cartBooks.get(1)).isEqualTo(expected2);
@@ -90,23 +76,17 @@ class BookCartServiceTest {
         expected.setAuthor("Test Author");
         expected.setPublisher("Test Publisher");
 
-        Cart cart = new Cart();
-        cart.setIsbn("1234567890");
-        List<Cart> carts = List.of(cart);
+        List<String> cartIsbnList = List.of("1234567890");
 
-        Book book = new Book();
-        book.setIsbn("1234567890");
-        book.setTitle("Test Book");
-        book.setAuthor("Test Author");
-        book.setPublisher("Test Publisher");
+        BookSummary book = new BookSummary("1234567890", "Test Book", "Test Author", "Test Publisher", 0);
 
         List<String> isbnList = List.of(book.getIsbn());
 
-        when(bookInventoryManager.getBooksByIsbn(isbnList)).thenReturn(List.of(book));
+        when(bookInventoryManager.getBookSummariesByIsbn(isbnList)).thenReturn(List.of(book));
 
-        List<CartBookModel> cartBooks = bookCartService.getCartList(carts);
+        List<CartBookModel> cartBooks = bookCartService.getCartList(cartIsbnList);
 
-        verify(bookInventoryManager, times(1)).getBooksByIsbn(isbnList);
+        verify(bookInventoryManager, times(1)).getBookSummariesByIsbn(isbnList);
         assertThat(cartBooks.size()).isEqualTo(1);
         assertThat(cartBooks.get(0)).isEqualTo(expected);
     }
@@ -114,32 +94,29 @@ class BookCartServiceTest {
     @Test
     @DisplayName("カートが空の場合、空のリストが返される")
     void shouldReturnEmptyListWhenCartIsEmpty() {
-        List<Cart> carts = List.of();
-        when(bookInventoryManager.getBooksByIsbn(List.of())).thenReturn(List.of());
+        List<String> isbnList = List.of();
+        when(bookInventoryManager.getBookSummariesByIsbn(List.of())).thenReturn(List.of());
 
-        List<CartBookModel> cartBooks = bookCartService.getCartList(carts);
+        List<CartBookModel> cartBooks = bookCartService.getCartList(isbnList);
 
-        verify(bookInventoryManager, times(1)).getBooksByIsbn(List.of());
+        verify(bookInventoryManager, times(1)).getBookSummariesByIsbn(List.of());
         assertThat(cartBooks).isEmpty();
     }
 
     @Test
     @DisplayName("ユーザーがカートに1件書籍を持っており、借りている書籍が含まれていない場合、空のリストが返る")
     void shouldCheckoutBooksWhenUserHasBooksInCart() {
-        Book expected = new Book();
+        BookSummary expected = new BookSummary();
         expected.setIsbn("1234567890");
 
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890");
 
-        Cart cart = new Cart();
-        cart.setIsbn(book.getIsbn());
-
-        List<Cart> carts = List.of(cart);
+        List<String> isbnList = List.of(book.getIsbn());
 
-        when(bookLendingManager.checkout("user1", List.of(cart.getIsbn()))).thenReturn(List.of());
+        when(bookLendingManager.checkout("user1", List.of(book.getIsbn()))).thenReturn(List.of());
 
-        List<Book> unCheckoutBooks = bookCartService.checkout("user1", carts);
+        List<BookSummary> unCheckoutBooks = bookCartService.checkout("user1", isbnList);
 
         verify(bookLendingManager, times(1)).checkout("user1", List.of(expected.getIsbn()));
         assertThat(unCheckoutBooks).isEmpty();
@@ -148,29 +125,23 @@ class BookCartServiceTest {
     @Test
     @DisplayName("ユーザーがカートに複数の書籍を持っており、借りている書籍が含まれていない場合、空のリストが返る")
     void shouldCheckoutBooksWhenUserHasMultipleBooksInCart() {
-        Book expected1 = new Book();
+        BookSummary expected1 = new BookSummary();
         expected1.setIsbn("1234567890123");
 
-        Book expected2 = new Book();
+        BookSummary expected2 = new BookSummary();
         expected2.setIsbn("0987654321123");
 
-        Book book1 = new Book();
+        BookSummary book1 = new BookSummary();
         book1.setIsbn("1234567890123");
 
-        Book book2 = new Book();
+        BookSummary book2 = new BookSummary();
         book2.setIsbn("0987654321123");
 
-        Cart cart1 = new Cart();
-        cart1.setIsbn(book1.getIsbn());
-
-        Cart cart2 = new Cart();
-        cart2.setIsbn(book2.getIsbn());
-
-        List<Cart> carts = List.of(cart1, cart2);
+        List<String> isbnList = List.of(book1.getIsbn(), book2.getIsbn());
 
-        when(bookLendingManager.checkout("user1", List.of(cart1.getIsbn(), cart2.getIsbn()))).thenReturn(List.of());
+        when(bookLendingManager.checkout("user1", List.of(book1.getIsbn(), book2.getIsbn()))).thenReturn(List.of());
 
-        List<Book> unCheckoutBooks = bookCartService.checkout("user1", carts);
+        List<BookSummary> unCheckoutBooks = bookCartService.checkout("user1", isbnList);
 
         verify(bookLendingManager, times(1)).checkout("user1", List.of(expected1.getIsbn(), expected2.getIsbn()));
         assertThat(unCheckoutBooks).isEmpty();
@@ -179,20 +150,17 @@ class BookCartServiceTest {
     @Test
     @DisplayName("ユーザーがカートに書籍を持っているおり、既に借りている書籍が含まれている場合、借りている書籍は借りれなかった書籍として返される")
     void shouldReturnUnCheckoutBooksWhenUserHasBooksInCartButAlreadyCheckedOut() {
-        Book expected = new Book();
+        BookSummary expected = new BookSummary();
         expected.setIsbn("1234567890");
 
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890");
 
-        Cart cart = new Cart();
-        cart.setIsbn(book.getIsbn());
-
-        List<Cart> carts = List.of(cart);
+        List<String> isbnList = List.of(book.getIsbn());
 
-        when(bookLendingManager.checkout("user1", List.of(cart.getIsbn()))).thenReturn(List.of(book));
+        when(bookLendingManager.checkout("user1", List.of(book.getIsbn()))).thenReturn(List.of(book));
 
-        List<Book> unCheckoutBooks = bookCartService.checkout("user1", carts);
+        List<BookSummary> unCheckoutBooks = bookCartService.checkout("user1", isbnList);
 
         verify(bookLendingManager, times(1)).checkout("user1", List.of(expected.getIsbn()));
         assertThat(unCheckoutBooks.size()).isEqualTo(1);
@@ -202,29 +170,23 @@ class BookCartServiceTest {
     @Test
     @DisplayName("ユーザーがカートに複数書籍を持っているが、全て借りている書籍であった場合、全て借りれなかった書籍として返される")
     void shouldReturnUnCheckoutBooksWhenUserHasMultipleBooksInCartButAlreadyCheckedOut() {
-        Book expected1 = new Book();
+        BookSummary expected1 = new BookSummary();
         expected1.setIsbn("1234567890");
 
-        Book expected2 = new Book();
+        BookSummary expected2 = new BookSummary();
         expected2.setIsbn("0987654321");
 
-        Book book1 = new Book();
+        BookSummary book1 = new BookSummary();
         book1.setIsbn("1234567890");
 
-        Book book2 = new Book();
+        BookSummary book2 = new BookSummary();
         book2.setIsbn("0987654321");
 
-        Cart cart1 = new Cart();
-        cart1.setIsbn(book1.getIsbn());
-
-        Cart cart2 = new Cart();
-        cart2.setIsbn(book2.getIsbn());
-
-        List<Cart> carts = List.of(cart1, cart2);
+        List<String> isbnList = List.of(book1.getIsbn(), book2.getIsbn());
 
-        when(bookLendingManager.checkout("user1", List.of(cart1.getIsbn(), cart2.getIsbn()))).thenReturn(List.of(book1, book2));
+        when(bookLendingManager.checkout("user1", List.of(book1.getIsbn(), book2.getIsbn()))).thenReturn(List.of(book1, book2));
 
-        List<Book> unCheckoutBooks = bookCartService.checkout("user1", carts);
+        List<BookSummary> unCheckoutBooks = bookCartService.checkout("user1", isbnList);
 
         verify(bookLendingManager, times(1)).checkout("user1", List.of(expected1.getIsbn(), expected2.getIsbn()));
         assertThat(unCheckoutBooks.size()).isEqualTo(2);
@@ -235,10 +197,10 @@ class BookCartServiceTest {
     @Test
     @DisplayName("ユーザーがカートに書籍を持っていない場合、空のリストが返される")
     void shouldReturnEmptyListWhenUserHasNoBooksInCart() {
-        List<Cart> carts = List.of();
+        List<String> isbnList = List.of();
         when(bookLendingManager.checkout("user1", List.of())).thenReturn(List.of());
 
-        List<Book> checkedOutBooks = bookCartService.checkout("user1", carts);
+        List<BookSummary> checkedOutBooks = bookCartService.checkout("user1", isbnList);
 
         verify(bookLendingManager, times(1)).checkout("user1", List.of());
         assertThat(checkedOutBooks).isEmpty();
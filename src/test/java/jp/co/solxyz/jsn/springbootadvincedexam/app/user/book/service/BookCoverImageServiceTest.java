@@ -0,0 +1,359 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookInventoryManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class BookCoverImageServiceTest {
+
+    private static final String ISBN = "9784873117904";
+
+    private static final String COVER_URL = "https://cover.openbd.jp/9784873117904.jpg";
+
+    private static final int MAX_IMAGE_BYTES = 5 * 1024 * 1024;
+
+    private static final long MAX_DIRECTORY_BYTES = 256L * 1024 * 1024;
+
+    private static final String NEW_COVER_URL = "https://cover.openbd.jp/9784873117904-new.jpg";
+
+    @Mock
+    private BookCoverService bookCoverService;
+
+    @Mock
+    private BookInventoryManager bookInventoryManager;
+
+    @Mock
+    private HttpClient httpClient;
+
+    @TempDir
+    private Path imageDirectory;
+
+    private final AtomicLong currentNanos = new AtomicLong();
+
+    private final AtomicInteger imageTasks = new AtomicInteger();
+
+    private final Executor imageExecutor = task -> {
+        imageTasks.incrementAndGet();
+        task.run();
+    };
+
+    private BookCoverImageService bookCoverImageService;
+
+    private Path storedPath;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(bookInventoryManager.existsBook(ISBN)).thenReturn(true);
+        bookCoverImageService = new BookCoverImageService(bookCoverService, bookInventoryManager, httpClient, imageDirectory,
+                MAX_IMAGE_BYTES, MAX_DIRECTORY_BYTES, imageExecutor, currentNanos::get);
+        storedPath = imageDirectory.resolve(BookCoverImageService.imageFileName(ISBN, COVER_URL));
+    }
+
+    @Test
+    @DisplayName("書影画像が未保存の場合、書影URLから取得し縮小して保存する")
+    void shouldFetchAndStoreResizedCoverImage() throws Exception {
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+        HttpResponse<byte[]> imageResponse = response(200, image(300, 800));
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(imageResponse));
+
+        Optional<Path> actual = bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(actual).contains(storedPath);
+        BufferedImage stored = ImageIO.read(actual.orElseThrow().toFile());
+        assertThat(stored.getHeight()).isEqualTo(400);
+        assertThat(stored.getWidth()).isEqualTo(150);
+        try (var files = Files.list(imageDirectory)) {
+            assertThat(files).containsExactly(storedPath);
+        }
+    }
+
+    @Test
+    @DisplayName("画像の展開・縮小・保存は画像処理用のExecutorで実行する")
+    void shouldProcessImageOnImageExecutor() throws Exception {
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+        HttpResponse<byte[]> imageResponse = response(200, image(300, 400));
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(imageResponse));
+
+        bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(imageTasks).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("書影画像が小さい場合、拡大せずに保存する")
+    void shouldNotEnlargeSmallCoverImage() throws Exception {
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+        HttpResponse<byte[]> imageResponse = response(200, image(100, 150));
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(imageResponse));
+
+        Optional<Path> actual = bookCoverImageService.getCoverImage(ISBN).join();
+
+        BufferedImage stored = ImageIO.read(actual.orElseThrow().toFile());
+        assertThat(stored.getHeight()).isEqualTo(150);
+        assertThat(stored.getWidth()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("現在の書影URLの画像が保存済みの場合、画像を取得せずに保存済みの画像を返す")
+    void shouldReturnStoredCoverImageWithoutFetching() throws Exception {
+        Files.write(storedPath, new byte[] {1});
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+
+        Optional<Path> actual = bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(actual).contains(storedPath);
+        verify(httpClient, never()).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("書影URLが変わった場合、新しい書影URLから取得し直し、古い画像を削除する")
+    void shouldRefetchAndReplaceStoredImageWhenCoverUrlChanges() throws Exception {
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(
+                CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)),
+                CompletableFuture.completedFuture(Map.of(ISBN, NEW_COVER_URL)));
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(
+                completed(response(200, image(300, 400))), completed(response(200, image(100, 150))));
+
+        Optional<Path> first = bookCoverImageService.getCoverImage(ISBN).join();
+        Optional<Path> refreshed = bookCoverImageService.getCoverImage(ISBN).join();
+
+        Path newStoredPath = imageDirectory.resolve(BookCoverImageService.imageFileName(ISBN, NEW_COVER_URL));
+        assertThat(first).contains(storedPath);
+        assertThat(refreshed).contains(newStoredPath);
+        assertThat(ImageIO.read(newStoredPath.toFile()).getWidth()).isEqualTo(100);
+        try (var files = Files.list(imageDirectory)) {
+            assertThat(files).containsExactly(newStoredPath);
+        }
+    }
+
+    @Test
+    @DisplayName("書影がない場合、画像を取得せずに空を返す")
+    void shouldReturnEmptyWhenCoverDoesNotExist() {
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        Optional<Path> actual = bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(actual).isEmpty();
+        verify(httpClient, never()).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("書影画像を取得できなかった場合、一定期間は再取得せずに空を返し、期間経過後に再取得する")
+    void shouldNotRefetchFailedCoverImageUntilTtlExpires() throws Exception {
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+        HttpResponse<byte[]> notFoundResponse = response(404, new byte[0]);
+        HttpResponse<byte[]> imageResponse = response(200, image(300, 400));
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(notFoundResponse), completed(imageResponse));
+
+        Optional<Path> failed = bookCoverImageService.getCoverImage(ISBN).join();
+        Optional<Path> skipped = bookCoverImageService.getCoverImage(ISBN).join();
+        currentNanos.addAndGet(TimeUnit.HOURS.toNanos(1) + 1);
+        Optional<Path> recovered = bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(failed).isEmpty();
+        assertThat(skipped).isEmpty();
+        assertThat(recovered).contains(storedPath);
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("画像として読み込めない場合、保存せずに空を返し、一定期間は再取得しない")
+    void shouldReturnEmptyWhenImageIsNotReadable() throws Exception {
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+        HttpResponse<byte[]> brokenResponse = response(200, new byte[] {1, 2, 3});
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(brokenResponse));
+
+        Optional<Path> actual = bookCoverImageService.getCoverImage(ISBN).join();
+        Optional<Path> skipped = bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(actual).isEmpty();
+        assertThat(skipped).isEmpty();
+        assertThat(imageDirectory).isEmptyDirectory();
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("画素数が最大を超える画像の場合、展開せずに空を返す")
+    void shouldReturnEmptyWhenImageHasTooManyPixels() throws Exception {
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4097, 4097, BufferedImage.TYPE_BYTE_BINARY), "png", output);
+        HttpResponse<byte[]> largeResponse = response(200, output.toByteArray());
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(largeResponse));
+
+        Optional<Path> actual = bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(actual).isEmpty();
+        assertThat(imageDirectory).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("同じISBNの書影画像が同時に要求された場合、取得は1回にまとめられる")
+    void shouldShareInFlightFetchWhenSameIsbnIsRequestedConcurrently() throws Exception {
+        CompletableFuture<HttpResponse<byte[]>> pendingResponse = new CompletableFuture<>();
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(pendingResponse);
+
+        CompletableFuture<Optional<Path>> first = bookCoverImageService.getCoverImage(ISBN);
+        CompletableFuture<Optional<Path>> second = bookCoverImageService.getCoverImage(ISBN);
+        pendingResponse.complete(response(200, image(300, 400)));
+
+        assertThat(first.join()).contains(storedPath);
+        assertThat(second.join()).contains(storedPath);
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("蔵書にないISBNの場合、保存済みの画像があっても取得・配信せずに空を返す")
+    void shouldReturnEmptyWhenIsbnIsNotInCatalog() throws Exception {
+        Files.write(storedPath, new byte[] {1});
+        when(bookInventoryManager.existsBook(ISBN)).thenReturn(false);
+
+        Optional<Path> actual = bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(actual).isEmpty();
+        verify(bookCoverService, never()).getCoverUrlsAsync(any());
+        verify(httpClient, never()).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("Content-Lengthが最大サイズを超える場合、本文を受信せずに空を返す")
+    void shouldReturnEmptyWhenContentLengthExceedsLimit() throws Exception {
+        Optional<Path> actual = getCoverImageFromServer(1024, exchange -> {
+            exchange.sendResponseHeaders(200, 4096);
+            exchange.getResponseBody().write(new byte[4096]);
+        });
+
+        assertThat(actual).isEmpty();
+        assertThat(imageDirectory).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Content-Lengthのない本文が最大サイズを超えた場合、受信を中止して空を返す")
+    void shouldReturnEmptyWhenStreamedBodyExceedsLimit() throws Exception {
+        Optional<Path> actual = getCoverImageFromServer(1024, exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            for (int i = 0; i < 64; i++) {
+                exchange.getResponseBody().write(new byte[1024]);
+                exchange.getResponseBody().flush();
+            }
+        });
+
+        assertThat(actual).isEmpty();
+        assertThat(imageDirectory).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("最大サイズ以下の本文は、Content-Lengthがなくても受信して保存する")
+    void shouldStoreStreamedBodyWithinLimit() throws Exception {
+        byte[] image = image(300, 400);
+
+        Optional<Path> actual = getCoverImageFromServer(MAX_IMAGE_BYTES, exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            exchange.getResponseBody().write(image);
+        });
+
+        assertThat(actual).hasValueSatisfying(path -> assertThat(path).exists().hasParent(imageDirectory));
+    }
+
+    @Test
+    @DisplayName("保存先ディレクトリが最大サイズを超えた場合、保存日時の古い画像から削除する")
+    void shouldEvictOldestImagesWhenDirectoryExceedsLimit() throws Exception {
+        Path oldImage = Files.write(imageDirectory.resolve("9784873119380.jpg"), new byte[10_000]);
+        Files.setLastModifiedTime(oldImage, FileTime.fromMillis(0));
+        bookCoverImageService = new BookCoverImageService(bookCoverService, bookInventoryManager, httpClient, imageDirectory,
+                MAX_IMAGE_BYTES, 10_000, imageExecutor, currentNanos::get);
+        when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, COVER_URL)));
+        HttpResponse<byte[]> imageResponse = response(200, image(300, 400));
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(imageResponse));
+
+        Optional<Path> actual = bookCoverImageService.getCoverImage(ISBN).join();
+
+        assertThat(actual).contains(storedPath);
+        assertThat(oldImage).doesNotExist();
+        assertThat(storedPath).exists();
+    }
+
+    private Optional<Path> getCoverImageFromServer(int maxImageBytes, HttpHandler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/cover", exchange -> {
+            try {
+                handler.handle(exchange);
+            } catch (IOException e) {
+                // 受信を中止された場合は書き込みに失敗する
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            String coverUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/cover";
+            when(bookCoverService.getCoverUrlsAsync(List.of(ISBN))).thenReturn(CompletableFuture.completedFuture(Map.of(ISBN, coverUrl)));
+            bookCoverImageService = new BookCoverImageService(bookCoverService, bookInventoryManager, HttpClient.newHttpClient(),
+                    imageDirectory, maxImageBytes, MAX_DIRECTORY_BYTES, imageExecutor, currentNanos::get);
+
+            return bookCoverImageService.getCoverImage(ISBN).join();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private byte[] image(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> completed(HttpResponse<byte[]> response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private HttpResponse<byte[]> response(int statusCode, byte[] body) {
+        HttpResponse<byte[]> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(body);
+        return response;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private HttpResponse.BodyHandler<byte[]> anyBodyHandler() {
+        return any(HttpResponse.BodyHandler.class);
+    }
+}
@@ -0,0 +1,119 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookCoverPrefetchServiceTest {
+
+    private static final String ISBN = "9784873117904";
+
+    @Mock
+    private BookCoverService bookCoverService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookCoverPrefetchService bookCoverPrefetchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bookCoverPrefetchService = new BookCoverPrefetchService(bookCoverService, bookRepository, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("書籍が登録された場合、その書籍の書影を取得する")
+    void shouldRefreshCoverWhenBookIsRegistered() {
+        bookCoverPrefetchService.onCatalogChanged(new BookCatalogChangedEvent(ISBN, ChangeType.REGISTERED));
+
+        verify(bookCoverService, times(1)).refreshCover(ISBN);
+    }
+
+    @Test
+    @DisplayName("書籍が更新された場合、その書籍の書影を再取得する")
+    void shouldRefreshCoverWhenBookIsUpdated() {
+        bookCoverPrefetchService.onCatalogChanged(new BookCatalogChangedEvent(ISBN, ChangeType.UPDATED));
+
+        verify(bookCoverService, times(1)).refreshCover(ISBN);
+    }
+
+    @Test
+    @DisplayName("書籍の削除や在庫数の変更では書影を取得しない")
+    void shouldIgnoreDeletedAndStockChangedEvents() {
+        bookCoverPrefetchService.onCatalogChanged(new BookCatalogChangedEvent(ISBN, ChangeType.DELETED));
+        bookCoverPrefetchService.onCatalogChanged(new BookCatalogChangedEvent(ISBN, ChangeType.STOCK_CHANGED));
+
+        verify(bookCoverService, never()).refreshCover(anyString());
+    }
+
+    @Test
+    @DisplayName("全書籍の書影取得では、ISBN順に分割して問い合わせる")
+    void shouldSweepCatalogInBatches() {
+        List<String> firstBatch = isbns(0, 100);
+        List<String> secondBatch = isbns(100, 30);
+        when(bookRepository.findIsbnsByIsbnGreaterThan("", Limit.of(100))).thenReturn(firstBatch);
+        when(bookRepository.findIsbnsByIsbnGreaterThan(firstBatch.get(99), Limit.of(100))).thenReturn(secondBatch);
+        when(bookCoverService.prefetchCovers(anyList())).thenReturn(CompletableFuture.completedFuture(100), CompletableFuture.completedFuture(30));
+
+        bookCoverPrefetchService.sweep();
+
+        verify(bookCoverService).prefetchCovers(firstBatch);
+        verify(bookCoverService).prefetchCovers(secondBatch);
+        verify(bookRepository, times(2)).findIsbnsByIsbnGreaterThan(any(), eq(Limit.of(100)));
+    }
+
+    @Test
+    @DisplayName("書籍が1冊もない場合、書影を取得しない")
+    void shouldNotPrefetchWhenCatalogIsEmpty() {
+        when(bookRepository.findIsbnsByIsbnGreaterThan("", Limit.of(100))).thenReturn(List.of());
+
+        bookCoverPrefetchService.sweep();
+
+        verify(bookCoverService, never()).prefetchCovers(anyList());
+    }
+
+    @Test
+    @DisplayName("事前取得中にスレッドが割り込まれた場合、残りの書籍の取得を中断する")
+    void shouldStopSweepWhenInterrupted() {
+        bookCoverPrefetchService = new BookCoverPrefetchService(bookCoverService, bookRepository, Duration.ofSeconds(10));
+        when(bookRepository.findIsbnsByIsbnGreaterThan("", Limit.of(100))).thenReturn(isbns(0, 100));
+        when(bookCoverService.prefetchCovers(anyList())).thenReturn(CompletableFuture.completedFuture(100));
+
+        Thread.currentThread().interrupt();
+        try {
+            bookCoverPrefetchService.sweep();
+        } finally {
+            Thread.interrupted();
+        }
+
+        verify(bookCoverService, times(1)).prefetchCovers(anyList());
+        verify(bookRepository, times(1)).findIsbnsByIsbnGreaterThan(any(), eq(Limit.of(100)));
+    }
+
+    private List<String> isbns(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> String.valueOf(9784000000000L + i))
+                .toList();
+    }
+}
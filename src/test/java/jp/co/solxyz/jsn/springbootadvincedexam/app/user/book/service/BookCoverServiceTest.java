@@ -1,22 +1,40 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
 
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookCoverStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import tools.jackson.databind.json.JsonMapper;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -24,6 +42,8 @@ import static org.mockito.Mockito.when;
 @SuppressWarnings("unchecked")
 class BookCoverServiceTest {
 
+    private static final String OPENBD_API_URL = "https://api.openbd.jp/v1/get?isbn=";
+
     private static final String ISBN = "9784873117904";
 
     private static final String COVER_URL = "https://cover.openbd.jp/9784873117904.jpg";
@@ -35,55 +55,56 @@ class BookCoverServiceTest {
     @Mock
     private HttpClient httpClient;
 
+    @Mock
+    private BookCoverStore bookCoverStore;
+
     private BookCoverService bookCoverService;
 
+    private final AtomicLong currentNanos = new AtomicLong();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        bookCoverService = new BookCoverService(httpClient, JsonMapper.builder().build());
+        bookCoverService = createService(500);
     }
 
     @Test
     @DisplayName("書影URLを取得できた場合、ISBNごとにキャッシュされる")
     void shouldCacheCoverUrlWhenOpenBdReturnsCover() throws Exception {
         HttpResponse<String> response = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
-        when(httpClient.send(any(HttpRequest.class), anyBodyHandler())).thenReturn(response);
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(response));
 
         Map<String, String> actual = bookCoverService.getCoverUrls(List.of(" " + ISBN + " ", ISBN));
         Map<String, String> cached = bookCoverService.getCoverUrls(List.of(ISBN));
 
         assertThat(actual).containsExactly(Map.entry(ISBN, COVER_URL));
         assertThat(cached).containsExactly(Map.entry(ISBN, COVER_URL));
-        verify(httpClient, times(1)).send(any(HttpRequest.class), anyBodyHandler());
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), anyBodyHandler());
     }
 
     @Test
-    @DisplayName("キャッシュ上限を超える場合、古いISBNが削除される")
-    void shouldEvictOldestCoverWhenCacheLimitIsExceeded() throws Exception {
-        bookCoverService = new BookCoverService(httpClient, JsonMapper.builder().build(), 1);
-        HttpResponse<String> firstResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
-        HttpResponse<String> secondResponse = response(200, "[{\"summary\":{\"cover\":\"" + OTHER_COVER_URL + "\"}}]");
-        HttpResponse<String> reloadedFirstResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
-        when(httpClient.send(any(HttpRequest.class), anyBodyHandler()))
-                .thenReturn(firstResponse, secondResponse, reloadedFirstResponse);
+    @DisplayName("キャッシュ上限を超える場合、いずれかのISBNが追い出され、再度openBDから取得される")
+    void shouldEvictCoverWhenCacheLimitIsExceeded() {
+        bookCoverService = createService(1);
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenAnswer(invocation -> completed(coverResponse(invocation.getArgument(0))));
 
-        Map<String, String> first = bookCoverService.getCoverUrls(List.of(ISBN));
-        Map<String, String> second = bookCoverService.getCoverUrls(List.of(OTHER_ISBN));
-        Map<String, String> reloadedFirst = bookCoverService.getCoverUrls(List.of(ISBN));
+        bookCoverService.getCoverUrls(List.of(ISBN));
+        bookCoverService.getCoverUrls(List.of(OTHER_ISBN));
+        Map<String, String> reloaded = bookCoverService.getCoverUrls(List.of(ISBN, OTHER_ISBN));
 
-        assertThat(first).containsExactly(Map.entry(ISBN, COVER_URL));
-        assertThat(second).containsExactly(Map.entry(OTHER_ISBN, OTHER_COVER_URL));
-        assertThat(reloadedFirst).containsExactly(Map.entry(ISBN, COVER_URL));
-        verify(httpClient, times(3)).send(any(HttpRequest.class), anyBodyHandler());
+        assertThat(reloaded).containsExactly(
+                Map.entry(ISBN, COVER_URL),
+                Map.entry(OTHER_ISBN, OTHER_COVER_URL));
+        verify(httpClient, times(3)).sendAsync(any(HttpRequest.class), anyBodyHandler());
     }
 
     @Test
     @DisplayName("キャッシュ済みISBNと未取得ISBNを同時に指定しても、キャッシュ済みの書影を返す")
     void shouldReturnCachedCoverWhenRequestMixesCachedAndMissingIsbn() throws Exception {
-        bookCoverService = new BookCoverService(httpClient, JsonMapper.builder().build(), 1);
+        bookCoverService = createService(1);
         HttpResponse<String> firstResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
         HttpResponse<String> secondResponse = response(200, "[{\"summary\":{\"cover\":\"" + OTHER_COVER_URL + "\"}}]");
-        when(httpClient.send(any(HttpRequest.class), anyBodyHandler())).thenReturn(firstResponse, secondResponse);
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(firstResponse), completed(secondResponse));
 
         bookCoverService.getCoverUrls(List.of(ISBN));
         Map<String, String> mixed = bookCoverService.getCoverUrls(List.of(ISBN, OTHER_ISBN));
@@ -91,7 +112,7 @@ class BookCoverServiceTest {
         assertThat(mixed).containsExactly(
                 Map.entry(ISBN, COVER_URL),
                 Map.entry(OTHER_ISBN, OTHER_COVER_URL));
-        verify(httpClient, times(2)).send(any(HttpRequest.class), anyBodyHandler());
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), anyBodyHandler());
     }
 
     @Test
@@ -99,44 +120,394 @@ class BookCoverServiceTest {
     void shouldNotCacheMissingCoverWhenOpenBdTemporarilyFails() throws Exception {
         HttpResponse<String> failedResponse = response(500, "");
         HttpResponse<String> successResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
-        when(httpClient.send(any(HttpRequest.class), anyBodyHandler())).thenReturn(failedResponse, successResponse);
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(failedResponse), completed(successResponse));
 
         Map<String, String> failed = bookCoverService.getCoverUrls(List.of(ISBN));
         Map<String, String> recovered = bookCoverService.getCoverUrls(List.of(ISBN));
 
         assertThat(failed).isEmpty();
         assertThat(recovered).containsExactly(Map.entry(ISBN, COVER_URL));
-        verify(httpClient, times(2)).send(any(HttpRequest.class), anyBodyHandler());
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), anyBodyHandler());
     }
 
     @Test
     @DisplayName("openBDが書影なしを返した場合、再取得しない")
     void shouldCacheMissingCoverWhenOpenBdReturnsNoCover() throws Exception {
         HttpResponse<String> response = response(200, "[null]");
-        when(httpClient.send(any(HttpRequest.class), anyBodyHandler())).thenReturn(response);
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(response));
 
         Map<String, String> first = bookCoverService.getCoverUrls(List.of(ISBN));
         Map<String, String> second = bookCoverService.getCoverUrls(List.of(ISBN));
 
         assertThat(first).isEmpty();
         assertThat(second).isEmpty();
-        verify(httpClient, times(1)).send(any(HttpRequest.class), anyBodyHandler());
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), anyBodyHandler());
     }
 
     @Test
     @DisplayName("openBDへのリクエストが例外になった場合、書影なしとしてキャッシュしない")
     void shouldNotCacheMissingCoverWhenOpenBdRequestThrowsException() throws Exception {
         HttpResponse<String> successResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
-        when(httpClient.send(any(HttpRequest.class), anyBodyHandler()))
-                .thenThrow(new IOException())
-                .thenReturn(successResponse);
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException()), completed(successResponse));
 
         Map<String, String> failed = bookCoverService.getCoverUrls(List.of(ISBN));
         Map<String, String> recovered = bookCoverService.getCoverUrls(List.of(ISBN));
 
         assertThat(failed).isEmpty();
         assertThat(recovered).containsExactly(Map.entry(ISBN, COVER_URL));
-        verify(httpClient, times(2)).send(any(HttpRequest.class), anyBodyHandler());
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("同じISBNの書影が同時に要求された場合、openBDへの問い合わせは1回にまとめられる")
+    void shouldShareInFlightFetchWhenSameIsbnIsRequestedConcurrently() {
+        CompletableFuture<HttpResponse<String>> pendingResponse = new CompletableFuture<>();
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(pendingResponse);
+
+        CompletableFuture<Map<String, String>> first = bookCoverService.getCoverUrlsAsync(List.of(ISBN));
+        CompletableFuture<Map<String, String>> second = bookCoverService.getCoverUrlsAsync(List.of(ISBN));
+
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+        pendingResponse.complete(response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]"));
+
+        assertThat(first.join()).containsExactly(Map.entry(ISBN, COVER_URL));
+        assertThat(second.join()).containsExactly(Map.entry(ISBN, COVER_URL));
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("取得中のISBNと未取得のISBNを同時に指定した場合、未取得のISBNのみ問い合わせる")
+    void shouldFetchOnlyIsbnsNotInFlight() {
+        CompletableFuture<HttpResponse<String>> pendingResponse = new CompletableFuture<>();
+        HttpResponse<String> otherResponse = response(200, "[{\"summary\":{\"cover\":\"" + OTHER_COVER_URL + "\"}}]");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(pendingResponse, completed(otherResponse));
+
+        CompletableFuture<Map<String, String>> first = bookCoverService.getCoverUrlsAsync(List.of(ISBN));
+        CompletableFuture<Map<String, String>> mixed = bookCoverService.getCoverUrlsAsync(List.of(ISBN, OTHER_ISBN));
+        pendingResponse.complete(response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]"));
+
+        assertThat(first.join()).containsExactly(Map.entry(ISBN, COVER_URL));
+        assertThat(mixed.join()).containsExactly(
+                Map.entry(ISBN, COVER_URL),
+                Map.entry(OTHER_ISBN, OTHER_COVER_URL));
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).sendAsync(requestCaptor.capture(), anyBodyHandler());
+        assertThat(requestCaptor.getAllValues().get(1).uri().toString()).endsWith("isbn=" + OTHER_ISBN);
+    }
+
+    @Test
+    @DisplayName("ISBN数が一度に問い合わせる上限を超える場合、分割して問い合わせる")
+    void shouldSplitOpenBdRequestsWhenIsbnCountExceedsLimit() {
+        List<String> isbnList = isbns(250);
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenAnswer(invocation -> completed(coverResponse(invocation.getArgument(0))));
+
+        Map<String, String> actual = bookCoverService.getCoverUrls(isbnList);
+
+        assertThat(actual).hasSize(250);
+        assertThat(actual.get(isbnList.get(249))).isEqualTo("https://cover.openbd.jp/" + isbnList.get(249) + ".jpg");
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(3)).sendAsync(requestCaptor.capture(), anyBodyHandler());
+        assertThat(requestCaptor.getAllValues())
+                .extracting(request -> request.uri().getQuery().split(",").length)
+                .containsExactly(100, 100, 50);
+    }
+
+    @Test
+    @DisplayName("分割した問い合わせの一部が失敗した場合、取得できた書影URLのみを返す")
+    void shouldReturnFetchedCoversWhenSomeBatchesFail() {
+        List<String> isbnList = isbns(150);
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler()))
+                .thenReturn(completed(response(500, "")))
+                .thenAnswer(invocation -> completed(coverResponse(invocation.getArgument(0))));
+
+        Map<String, String> actual = bookCoverService.getCoverUrls(isbnList);
+
+        assertThat(actual.keySet()).containsExactlyElementsOf(isbnList.subList(100, 150));
+    }
+
+    @Test
+    @DisplayName("書影なしのキャッシュは1時間で期限切れになり、openBDから再取得する")
+    void shouldRefetchMissingCoverAfterNegativeTtl() {
+        HttpResponse<String> missingResponse = response(200, "[null]");
+        HttpResponse<String> coverResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(missingResponse), completed(coverResponse));
+
+        Map<String, String> missing = bookCoverService.getCoverUrls(List.of(ISBN));
+        currentNanos.addAndGet(Duration.ofMinutes(59).toNanos());
+        Map<String, String> stillMissing = bookCoverService.getCoverUrls(List.of(ISBN));
+        currentNanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        Map<String, String> registered = bookCoverService.getCoverUrls(List.of(ISBN));
+
+        assertThat(missing).isEmpty();
+        assertThat(stillMissing).isEmpty();
+        assertThat(registered).containsExactly(Map.entry(ISBN, COVER_URL));
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("書影URLは期限切れ前に参照された場合、キャッシュ済みの値を返しつつバックグラウンドで再取得する")
+    void shouldRefreshCoverAheadOfExpiry() {
+        String newCoverUrl = "https://cover.openbd.jp/9784873117904_new.jpg";
+        HttpResponse<String> firstResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
+        HttpResponse<String> refreshedResponse = response(200, "[{\"summary\":{\"cover\":\"" + newCoverUrl + "\"}}]");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(firstResponse), completed(refreshedResponse));
+
+        bookCoverService.getCoverUrls(List.of(ISBN));
+        currentNanos.addAndGet(Duration.ofHours(13).toNanos());
+        Map<String, String> refreshing = bookCoverService.getCoverUrls(List.of(ISBN));
+        Map<String, String> refreshed = bookCoverService.getCoverUrls(List.of(ISBN));
+
+        assertThat(refreshing).containsExactly(Map.entry(ISBN, COVER_URL));
+        assertThat(refreshed).containsExactly(Map.entry(ISBN, newCoverUrl));
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("書影URLキャッシュのヒット・ミスがメトリクスに記録される")
+    void shouldRecordCacheMetrics() {
+        HttpResponse<String> response = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(response));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bookCoverService.bindTo(registry);
+
+        bookCoverService.getCoverUrls(List.of(ISBN));
+        bookCoverService.getCoverUrls(List.of(ISBN));
+
+        assertThat(registry.get("cache.gets").tag("cache", "bookCovers").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "bookCovers").tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("openBDから取得した書影URLと書影なしは、永続化の書き込み待ちに追加される")
+    void shouldEnqueueFetchedCoversToStore() {
+        HttpResponse<String> response = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}},null]");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(response));
+
+        bookCoverService.getCoverUrls(List.of(ISBN, OTHER_ISBN));
+
+        verify(bookCoverStore).enqueue(Map.of(ISBN, COVER_URL, OTHER_ISBN, ""));
+    }
+
+    @Test
+    @DisplayName("openBDから取得できなかった場合、永続化の書き込み待ちに追加しない")
+    void shouldNotEnqueueCoversWhenOpenBdFails() {
+        HttpResponse<String> failedResponse = response(500, "");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(failedResponse));
+
+        bookCoverService.getCoverUrls(List.of(ISBN));
+
+        verify(bookCoverStore, never()).enqueue(anyMap());
+    }
+
+    @Test
+    @DisplayName("起動時に保存済みの書影URLを読み込んだ場合、openBDへ問い合わせずに書影を返す")
+    void shouldServeStoredCoversWithoutFetching() {
+        when(bookCoverStore.loadCoverUrls(Duration.ofHours(1))).thenReturn(Map.of(ISBN, COVER_URL, OTHER_ISBN, ""));
+
+        bookCoverService.loadStoredCovers();
+        Map<String, String> actual = bookCoverService.getCoverUrls(List.of(ISBN, OTHER_ISBN));
+
+        assertThat(actual).containsExactly(Map.entry(ISBN, COVER_URL));
+        verify(httpClient, never()).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("キャッシュ済みの書影URLのみを取得する場合、openBDへ問い合わせない")
+    void shouldReturnOnlyCachedCoverUrlsWithoutFetching() {
+        when(bookCoverStore.loadCoverUrls(Duration.ofHours(1))).thenReturn(Map.of(ISBN, COVER_URL, OTHER_ISBN, ""));
+        bookCoverService.loadStoredCovers();
+
+        Map<String, String> actual = bookCoverService.getCachedCoverUrls(List.of(ISBN, OTHER_ISBN, "9784873115658"));
+
+        assertThat(actual).containsOnly(
+                Map.entry(ISBN, COVER_URL),
+                Map.entry(OTHER_ISBN, ""));
+        verify(httpClient, never()).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("事前取得では、キャッシュにないISBNのみopenBDへ問い合わせる")
+    void shouldPrefetchOnlyMissingCovers() {
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenAnswer(invocation -> completed(coverResponse(invocation.getArgument(0))));
+        bookCoverService.getCoverUrls(List.of(ISBN));
+
+        int requestedCount = bookCoverService.prefetchCovers(List.of(ISBN, OTHER_ISBN)).join();
+        Map<String, String> actual = bookCoverService.getCoverUrls(List.of(ISBN, OTHER_ISBN));
+
+        assertThat(requestedCount).isEqualTo(1);
+        assertThat(actual).containsExactly(
+                Map.entry(ISBN, COVER_URL),
+                Map.entry(OTHER_ISBN, OTHER_COVER_URL));
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).sendAsync(requestCaptor.capture(), anyBodyHandler());
+        assertThat(requestCaptor.getAllValues().get(1).uri().toString()).endsWith("isbn=" + OTHER_ISBN);
+    }
+
+    @Test
+    @DisplayName("事前取得では、取得中のISBNは完了を待たずに問い合わせ済みとして扱う")
+    void shouldNotWaitForInFlightCoversWhenPrefetching() {
+        CompletableFuture<HttpResponse<String>> pendingResponse = new CompletableFuture<>();
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(pendingResponse)
+                .thenAnswer(invocation -> completed(coverResponse(invocation.getArgument(0))));
+
+        CompletableFuture<Map<String, String>> inFlight = bookCoverService.getCoverUrlsAsync(List.of(ISBN));
+        int requestedCount = bookCoverService.prefetchCovers(List.of(ISBN, OTHER_ISBN)).join();
+
+        assertThat(requestedCount).isEqualTo(1);
+        assertThat(inFlight).isNotDone();
+        pendingResponse.complete(response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]"));
+        assertThat(inFlight.join()).containsExactly(Map.entry(ISBN, COVER_URL));
+    }
+
+    @Test
+    @DisplayName("事前取得でopenBDから取得できなかった場合も、正常に完了する")
+    void shouldCompletePrefetchWhenOpenBdFails() {
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(CompletableFuture.failedFuture(new IOException()));
+
+        int requestedCount = bookCoverService.prefetchCovers(List.of(ISBN)).join();
+
+        assertThat(requestedCount).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("書影を再取得した場合、キャッシュ済みの書影なしが新しい書影URLに置き換わる")
+    void shouldReplaceMissingCoverWhenRefreshed() throws Exception {
+        HttpResponse<String> missingResponse = response(200, "[null]");
+        HttpResponse<String> coverResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(missingResponse), completed(coverResponse));
+
+        Map<String, String> missing = bookCoverService.getCoverUrls(List.of(ISBN));
+        bookCoverService.refreshCover(ISBN);
+        Map<String, String> refreshed = bookCoverService.getCoverUrls(List.of(ISBN));
+
+        assertThat(missing).isEmpty();
+        assertThat(refreshed).containsExactly(Map.entry(ISBN, COVER_URL));
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("openBDへの問い合わせが連続で失敗した場合、遮断中は問い合わせずに空の結果を返す")
+    void shouldStopCallingOpenBdWhileCircuitIsOpen() {
+        HttpResponse<String> failedResponse = response(503, "");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(failedResponse));
+
+        for (int i = 0; i < 5; i++) {
+            bookCoverService.getCoverUrls(List.of(ISBN));
+        }
+        Map<String, String> rejected = bookCoverService.getCoverUrls(List.of(ISBN));
+
+        assertThat(rejected).isEmpty();
+        verify(httpClient, times(5)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+        verify(bookCoverStore, never()).enqueue(anyMap());
+    }
+
+    @Test
+    @DisplayName("遮断中でも、キャッシュ済みの書影URLは返される")
+    void shouldServeCachedCoversWhileCircuitIsOpen() throws Exception {
+        HttpResponse<String> coverResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
+        HttpResponse<String> failedResponse = response(503, "");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler())).thenReturn(completed(coverResponse), completed(failedResponse));
+
+        bookCoverService.getCoverUrls(List.of(ISBN));
+        for (int i = 0; i < 5; i++) {
+            bookCoverService.getCoverUrls(List.of(OTHER_ISBN));
+        }
+        Map<String, String> actual = bookCoverService.getCoverUrls(List.of(ISBN, OTHER_ISBN));
+
+        assertThat(actual).containsExactly(Map.entry(ISBN, COVER_URL));
+        verify(httpClient, times(6)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("遮断期間が過ぎた場合、openBDへ再度問い合わせ、成功すれば遮断を解除する")
+    void shouldRetryOpenBdAfterOpenDuration() throws Exception {
+        HttpResponse<String> failedResponse = response(503, "");
+        HttpResponse<String> coverResponse = response(200, "[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]");
+        when(httpClient.sendAsync(any(HttpRequest.class), anyBodyHandler()))
+                .thenReturn(completed(failedResponse), completed(failedResponse), completed(failedResponse), completed(failedResponse),
+                        completed(failedResponse), completed(coverResponse));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bookCoverService.bindTo(registry);
+
+        for (int i = 0; i < 5; i++) {
+            bookCoverService.getCoverUrls(List.of(ISBN));
+        }
+        double openState = registry.get("circuitbreaker.state").tag("name", "openBD").tag("state", "open").gauge().value();
+        currentNanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        Map<String, String> recovered = bookCoverService.getCoverUrls(List.of(ISBN));
+
+        assertThat(openState).isEqualTo(1.0);
+        assertThat(recovered).containsExactly(Map.entry(ISBN, COVER_URL));
+        assertThat(registry.get("circuitbreaker.state").tag("name", "openBD").tag("state", "closed").gauge().value()).isEqualTo(1.0);
+        verify(httpClient, times(6)).sendAsync(any(HttpRequest.class), anyBodyHandler());
+    }
+
+    @Test
+    @DisplayName("openBDが停止している場合、遮断後はスタブサーバへ問い合わせず、復旧後は再び書影を取得できる")
+    void shouldFailFastDuringOpenBdOutageAndRecover() throws Exception {
+        AtomicBoolean outage = new AtomicBoolean(true);
+        AtomicInteger requestCount = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/get", exchange -> {
+            requestCount.incrementAndGet();
+            if (outage.get()) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("[{\"summary\":{\"cover\":\"" + COVER_URL + "\"}}]").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.start();
+        try {
+            String stubApiUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1/get?isbn=";
+            bookCoverService = new BookCoverService(HttpClient.newHttpClient(), JsonMapper.builder().build(), bookCoverStore, stubApiUrl, 500,
+                    currentNanos::get, Runnable::run);
+
+            for (int i = 0; i < 5; i++) {
+                assertThat(bookCoverService.getCoverUrls(List.of(ISBN))).isEmpty();
+            }
+            Map<String, String> failFast = bookCoverService.getCoverUrls(List.of(ISBN));
+            int requestCountWhileOpen = requestCount.get();
+            outage.set(false);
+            currentNanos.addAndGet(Duration.ofSeconds(30).toNanos());
+            Map<String, String> recovered = bookCoverService.getCoverUrls(List.of(ISBN));
+
+            assertThat(failFast).isEmpty();
+            assertThat(requestCountWhileOpen).isEqualTo(5);
+            assertThat(recovered).containsExactly(Map.entry(ISBN, COVER_URL));
+            assertThat(requestCount.get()).isEqualTo(6);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private BookCoverService createService(int maxCacheSize) {
+        return new BookCoverService(httpClient, JsonMapper.builder().build(), bookCoverStore, OPENBD_API_URL, maxCacheSize,
+                currentNanos::get, Runnable::run);
+    }
+
+    private List<String> isbns(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> String.format("978%010d", index))
+                .toList();
+    }
+
+    private HttpResponse<String> coverResponse(HttpRequest request) {
+        String query = request.uri().getQuery();
+        String body = Arrays.stream(query.substring(query.indexOf('=') + 1).split(","))
+                .map(isbn -> "{\"summary\":{\"cover\":\"https://cover.openbd.jp/" + isbn + ".jpg\"}}")
+                .collect(Collectors.joining(",", "[", "]"));
+        return response(200, body);
+    }
+
+    private CompletableFuture<HttpResponse<String>> completed(HttpResponse<String> response) {
+        return CompletableFuture.completedFuture(response);
     }
 
     private HttpResponse<String> response(int statusCode, String body) {
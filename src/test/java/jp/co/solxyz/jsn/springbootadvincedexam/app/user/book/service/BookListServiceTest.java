@@ -2,6 +2,7 @@ package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookInventoryManager;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,8 +11,10 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 class BookListServiceTest {
@@ -30,9 +33,9 @@ class BookListServiceTest {
     @Test
     @DisplayName("書籍が存在しない場合、空のリストが返される")
     void shouldReturnEmptyBookListWhenNoBookIsAvailable() {
-        when(bookInventoryManager.getAllBooks()).thenReturn(List.of());
+        when(bookInventoryManager.getBookSummariesAfter(null, 51)).thenReturn(List.of());
 
-        List<Book> actual = bookListService.getAllBooks();
+        List<BookSummary> actual = bookListService.getBookSummariesAfter(null, 51);
 
         assertThat(actual).isEmpty();
     }
@@ -40,25 +43,13 @@ class BookListServiceTest {
     @Test
     @DisplayName("書籍が1件ある場合、1件の書籍を含んだリストが返される")
     void shouldReturnBookListWhenBookIsAvailable() {
-        Book expected = new Book();
-        expected.setIsbn("1234567890123");
-        expected.setTitle("Test Book");
-        expected.setAuthor("Test Author");
-        expected.setPublisher("Test Publisher");
-        expected.setDescription("Test Description");
-        expected.setStock(10);
+        BookSummary expected = new BookSummary("1234567890123", "Test Book", "Test Author", "Test Publisher", 0);
 
-        Book book = new Book();
-        book.setIsbn("1234567890123");
-        book.setTitle("Test Book");
-        book.setAuthor("Test Author");
-        book.setPublisher("Test Publisher");
-        book.setDescription("Test Description");
-        book.setStock(10);
+        BookSummary book = new BookSummary("1234567890123", "Test Book", "Test Author", "Test Publisher", 0);
 
-        when(bookInventoryManager.getAllBooks()).thenReturn(List.of(book));
+        when(bookInventoryManager.getBookSummariesAfter(null, 51)).thenReturn(List.of(book));
 
-        List<Book> actual = bookListService.getAllBooks();
+        List<BookSummary> actual = bookListService.getBookSummariesAfter(null, 51);
 
         assertThat(actual).hasSize(1);
         assertThat(actual).isEqualTo(List.of(expected));
@@ -68,41 +59,63 @@ class BookListServiceTest {
     @Test
     @DisplayName("書籍が複数件ある場合、複数件の書籍を含んだリストが返される")
     void shouldReturnBookListWhenMultipleBooksAreAvailable() {
-        Book expected1 = new Book();
-        expected1.setIsbn("1234567890123");
-        expected1.setTitle("Test Book1");
-        expected1.setAuthor("Test Author1");
-        expected1.setPublisher("Test Publisher1");
-        expected1.setDescription("Test Description1");
-        expected1.setStock(10);
-        Book expected2 = new Book();
-        expected2.setIsbn("1234567890124");
-        expected2.setTitle("Test Book2");
-        expected2.setAuthor("Test Author2");
-        expected2.setPublisher("Test Publisher2");
-        expected2.setDescription("Test Description2");
-        expected2.setStock(20);
-
-        Book book1 = new Book();
-        book1.setIsbn("1234567890123");
-        book1.setTitle("Test Book1");
-        book1.setAuthor("Test Author1");
-        book1.setPublisher("Test Publisher1");
-        book1.setDescription("Test Description1");
-        book1.setStock(10);
-        Book book2 = new Book();
-        book2.setIsbn("1234567890124");
-        book2.setTitle("Test Book2");
-        book2.setAuthor("Test Author2");
-        book2.setPublisher("Test Publisher2");
-        book2.setDescription("Test Description2");
-        book2.setStock(20);
-
-        when(bookInventoryManager.getAllBooks()).thenReturn(List.of(book1, book2));
-
-        List<Book> actual = bookListService.getAllBooks();
+        BookSummary expected1 = new BookSummary("1234567890123", "Test Book1", "Test Author1", "Test Publisher1", 0);
+        BookSummary expected2 = new BookSummary("1234567890124", "Test Book2", "Test Author2", "Test Publisher2", 0);
+
+        BookSummary book1 = new BookSummary("1234567890123", "Test Book1", "Test Author1", "Test Publisher1", 0);
+        BookSummary book2 = new BookSummary("1234567890124", "Test Book2", "Test Author2", "Test Publisher2", 0);
+
+        when(bookInventoryManager.getBookSummariesAfter(null, 51)).thenReturn(List.of(book1, book2));
+
+        List<BookSummary> actual = bookListService.getBookSummariesAfter(null, 51);
 
         assertThat(actual).hasSize(2);
         assertThat(actual).isEqualTo(List.of(expected1, expected2));
     }
+
+    @Test
+    @DisplayName("カーソルが指定された場合、カーソルより後ろの書籍のリストが返される")
+    void shouldReturnBooksAfterCursorWhenCursorIsSpecified() {
+        BookSummary book = new BookSummary("1234567890124", "Test Book2", "Test Author2", "Test Publisher2", 0);
+
+        when(bookInventoryManager.getBookSummariesAfter("1234567890123", 51)).thenReturn(List.of(book));
+
+        List<BookSummary> actual = bookListService.getBookSummariesAfter("1234567890123", 51);
+
+        assertThat(actual).containsExactly(book);
+    }
+
+    @Test
+    @DisplayName("書籍の総数が返される")
+    void shouldReturnBookCount() {
+        when(bookInventoryManager.countBooks()).thenReturn(120L);
+
+        long actual = bookListService.countBooks();
+
+        assertThat(actual).isEqualTo(120L);
+    }
+
+    @Test
+    @DisplayName("ISBNが指定された場合、説明を含んだ書籍が返される")
+    void shouldReturnBookDetailWhenIsbnIsSpecified() {
+        Book book = new Book();
+        book.setIsbn("1234567890123");
+        book.setTitle("Test Book");
+        book.setDescription("Test Description");
+
+        when(bookInventoryManager.getBookByIsbn("1234567890123")).thenReturn(book);
+
+        Book actual = bookListService.getBookDetail("1234567890123");
+
+        assertThat(actual).isEqualTo(book);
+    }
+
+    @Test
+    @DisplayName("指定されたISBNの書籍が存在しない場合、NoSuchElementExceptionがスローされる")
+    void shouldThrowExceptionWhenBookDetailDoesNotExist() {
+        when(bookInventoryManager.getBookByIsbn("1234567890123")).thenThrow(new NoSuchElementException());
+
+        assertThatThrownBy(() -> bookListService.getBookDetail("1234567890123"))
+                .isInstanceOf(NoSuchElementException.class);
+    }
 }
@@ -0,0 +1,90 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.service;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookInventoryManager;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.BookSearchIndex;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookSearchServiceTest {
+
+    @InjectMocks
+    private BookSearchService bookSearchService;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookInventoryManager bookInventoryManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("検索結果の順序で書籍概要が返される")
+    void shouldReturnBookSummariesInSearchOrder() {
+        BookSummary book1 = new BookSummary("9784873117904", "Test Book1", "Test Author1", "Test Publisher1", 1);
+        BookSummary book2 = new BookSummary("9784873119380", "Test Book2", "Test Author2", "Test Publisher2", 2);
+        List<String> isbnList = List.of("9784873119380", "9784873117904");
+        when(bookSearchIndex.search("test", 50)).thenReturn(isbnList);
+        when(bookInventoryManager.getBookSummariesByIsbn(isbnList)).thenReturn(List.of(book1, book2));
+
+        List<BookSummary> actual = bookSearchService.search("test", 50);
+
+        assertThat(actual).containsExactly(book2, book1);
+    }
+
+    @Test
+    @DisplayName("索引とDBの反映に差がありDBに存在しない書籍は結果から除外される")
+    void shouldSkipBooksMissingFromDatabase() {
+        BookSummary book = new BookSummary("9784873117904", "Test Book", "Test Author", "Test Publisher", 1);
+        List<String> isbnList = List.of("9784873119380", "9784873117904");
+        when(bookSearchIndex.search("test", 50)).thenReturn(isbnList);
+        when(bookInventoryManager.getBookSummariesByIsbn(isbnList)).thenReturn(List.of(book));
+
+        List<BookSummary> actual = bookSearchService.search("test", 50);
+
+        assertThat(actual).containsExactly(book);
+    }
+
+    @Test
+    @DisplayName("一致する書籍がない場合、DBを参照せずに空のリストが返される")
+    void shouldReturnEmptyListWhenNothingMatches() {
+        when(bookSearchIndex.search("test", 50)).thenReturn(List.of());
+
+        List<BookSummary> actual = bookSearchService.search("test", 50);
+
+        assertThat(actual).isEmpty();
+        verify(bookInventoryManager, never()).getBookSummariesByIsbn(any());
+    }
+
+    @Test
+    @DisplayName("ページを指定した場合、そのページの書籍概要と一致した全件数が返される")
+    void shouldReturnRequestedPageWithTotalCount() {
+        BookSummary book = new BookSummary("9784873119380", "Test Book", "Test Author", "Test Publisher", 1);
+        when(bookSearchIndex.search("test", 50, 50)).thenReturn(new BookSearchIndex.SearchHits(List.of("9784873119380"), 51));
+        when(bookInventoryManager.getBookSummariesByIsbn(List.of("9784873119380"))).thenReturn(List.of(book));
+
+        Page<BookSummary> actual = bookSearchService.search("test", PageRequest.of(1, 50));
+
+        assertThat(actual.getContent()).containsExactly(book);
+        assertThat(actual.getTotalElements()).isEqualTo(51);
+        assertThat(actual.hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,153 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.common.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong currentNanos = new AtomicLong();
+
+    private final AtomicInteger callCount = new AtomicInteger();
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker("test", 3, Duration.ofSeconds(30), 2, currentNanos::get);
+    }
+
+    @Test
+    @DisplayName("呼び出しが成功した場合、結果が返され状態はCLOSEDのままとなる")
+    void shouldReturnResultWhenCallSucceeds() {
+        String actual = circuitBreaker.execute(this::succeed).join();
+
+        assertThat(actual).isEqualTo("ok");
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("連続失敗回数が閾値に達した場合、OPENとなり呼び出さずに失敗する")
+    void shouldOpenWhenConsecutiveFailuresReachThreshold() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.execute(this::fail);
+        }
+
+        CompletableFuture<String> rejected = circuitBreaker.execute(this::succeed);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(rejected::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(CallNotPermittedException.class);
+        assertThat(callCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("途中で成功した場合、連続失敗回数はリセットされる")
+    void shouldResetFailureCountWhenCallSucceeds() {
+        circuitBreaker.execute(this::fail);
+        circuitBreaker.execute(this::fail);
+        circuitBreaker.execute(this::succeed);
+        circuitBreaker.execute(this::fail);
+        circuitBreaker.execute(this::fail);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("遮断期間が過ぎた場合、HALF_OPENとなり1件のみ試行し、成功すればCLOSEDに戻る")
+    void shouldCloseWhenTrialCallSucceeds() {
+        openCircuit();
+        currentNanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        CompletableFuture<String> trial = new CompletableFuture<>();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        CompletableFuture<String> trialResult = circuitBreaker.execute(() -> trial);
+        CompletableFuture<String> rejected = circuitBreaker.execute(this::succeed);
+        trial.complete("ok");
+
+        assertThat(trialResult.join()).isEqualTo("ok");
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("HALF_OPENでの試行が失敗した場合、再びOPENとなる")
+    void shouldReopenWhenTrialCallFails() {
+        openCircuit();
+        currentNanos.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        circuitBreaker.execute(this::fail);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("同時実行数の上限に達している場合、呼び出さずに失敗し、完了後は再び呼び出せる")
+    void shouldRejectCallsBeyondConcurrencyLimit() {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        circuitBreaker.execute(() -> first);
+        circuitBreaker.execute(() -> second);
+
+        CompletableFuture<String> rejected = circuitBreaker.execute(this::succeed);
+        first.complete("ok");
+        CompletableFuture<String> accepted = circuitBreaker.execute(this::succeed);
+
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(CallNotPermittedException.class);
+        assertThat(accepted.join()).isEqualTo("ok");
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("呼び出し自体が例外を投げた場合も失敗として記録される")
+    void shouldRecordFailureWhenCallThrows() {
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<String> result = circuitBreaker.execute(() -> {
+                throw new IllegalStateException();
+            });
+            assertThat(result).isCompletedExceptionally();
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("状態と拒否した呼び出し数がメトリクスに記録される")
+    void shouldRecordStateAndRejectedCallMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        circuitBreaker.bindTo(registry);
+
+        openCircuit();
+        circuitBreaker.execute(this::succeed);
+
+        assertThat(registry.get("circuitbreaker.state").tag("name", "test").tag("state", "open").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("circuitbreaker.state").tag("name", "test").tag("state", "closed").gauge().value()).isEqualTo(0.0);
+        assertThat(registry.get("circuitbreaker.calls.rejected").tag("name", "test").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.execute(this::fail);
+        }
+    }
+
+    private CompletableFuture<String> succeed() {
+        callCount.incrementAndGet();
+        return CompletableFuture.completedFuture("ok");
+    }
+
+    private CompletableFuture<String> fail() {
+        callCount.incrementAndGet();
+        return CompletableFuture.failedFuture(new IOException());
+    }
+}
@@ -0,0 +1,87 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookCheckoutHistoryArchiverTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 5, 17, 3, 30);
+
+    @Mock
+    private BookCheckoutHistoryRepository bookCheckoutHistoryRepository;
+
+    private BookCheckoutHistoryArchiver bookCheckoutHistoryArchiver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Clock clock = Clock.fixed(NOW.atZone(ZONE).toInstant(), ZONE);
+        bookCheckoutHistoryArchiver = new BookCheckoutHistoryArchiver(bookCheckoutHistoryRepository, clock, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("返却から90日が経過した貸出履歴を、移動件数が最大件数を下回るまで繰り返し移動する")
+    void shouldArchiveUntilBatchIsNotFull() {
+        when(bookCheckoutHistoryRepository.archiveReturnedBefore(any(), anyInt())).thenReturn(500, 500, 120);
+
+        int archivedCount = bookCheckoutHistoryArchiver.archive();
+
+        assertThat(archivedCount).isEqualTo(1120);
+        verify(bookCheckoutHistoryRepository, times(3)).archiveReturnedBefore(NOW.minusDays(90), 500);
+    }
+
+    @Test
+    @DisplayName("移動対象がない場合、1回だけ確認して終了する")
+    void shouldStopWhenNothingToArchive() {
+        when(bookCheckoutHistoryRepository.archiveReturnedBefore(any(), anyInt())).thenReturn(0);
+
+        int archivedCount = bookCheckoutHistoryArchiver.archive();
+
+        assertThat(archivedCount).isZero();
+        verify(bookCheckoutHistoryRepository, times(1)).archiveReturnedBefore(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("1回の実行で移動するバッチ数の上限に達した場合、残りは次回に移動する")
+    void shouldStopAtMaxBatchesPerRun() {
+        when(bookCheckoutHistoryRepository.archiveReturnedBefore(any(), anyInt())).thenReturn(500);
+
+        int archivedCount = bookCheckoutHistoryArchiver.archive();
+
+        assertThat(archivedCount).isEqualTo(500 * 200);
+        verify(bookCheckoutHistoryRepository, times(200)).archiveReturnedBefore(any(), eq(500));
+    }
+
+    @Test
+    @DisplayName("移動中にDBエラーが発生した場合、例外をスローせずにそれまでの移動件数を返す")
+    void shouldReturnArchivedCountWhenDataAccessFails() {
+        when(bookCheckoutHistoryRepository.archiveReturnedBefore(any(), anyInt()))
+                .thenReturn(500)
+                .thenThrow(new DataAccessResourceFailureException("DB error"));
+
+        int archivedCount = bookCheckoutHistoryArchiver.archive();
+
+        assertThat(archivedCount).isEqualTo(500);
+        verify(bookCheckoutHistoryRepository, times(2)).archiveReturnedBefore(any(), anyInt());
+    }
+}
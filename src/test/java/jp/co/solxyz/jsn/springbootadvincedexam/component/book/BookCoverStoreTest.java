@@ -0,0 +1,127 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCover;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCoverRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class BookCoverStoreTest {
+
+    private static final String ISBN = "9784873117904";
+
+    private static final String COVER_URL = "https://cover.openbd.jp/9784873117904.jpg";
+
+    private static final String OTHER_ISBN = "9784873119380";
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 4, 1, 10, 0);
+
+    @Mock
+    private BookCoverRepository bookCoverRepository;
+
+    private BookCoverStore bookCoverStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+        bookCoverStore = new BookCoverStore(bookCoverRepository, clock);
+    }
+
+    @Test
+    @DisplayName("保存済みの書影URLを読み込む場合、期限切れの書影なしは除外される")
+    void shouldLoadCoverUrlsExceptExpiredMissingCovers() {
+        when(bookCoverRepository.findAll()).thenReturn(List.of(
+                new BookCover(ISBN, COVER_URL, NOW.minusDays(30)),
+                new BookCover(OTHER_ISBN, "", NOW.minusMinutes(30)),
+                new BookCover("9784873115658", "", NOW.minusHours(2))));
+
+        Map<String, String> actual = bookCoverStore.loadCoverUrls(Duration.ofHours(1));
+
+        assertThat(actual).containsOnly(
+                Map.entry(ISBN, COVER_URL),
+                Map.entry(OTHER_ISBN, ""));
+    }
+
+    @Test
+    @DisplayName("保存済みの書影URLを読み込めない場合、空のマップを返す")
+    void shouldReturnEmptyMapWhenLoadFails() {
+        when(bookCoverRepository.findAll()).thenThrow(new DataAccessResourceFailureException("DB error"));
+
+        Map<String, String> actual = bookCoverStore.loadCoverUrls(Duration.ofHours(1));
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("書き込み待ちの書影URLは、反映時にまとめて保存される")
+    void shouldSaveEnqueuedCoversOnFlush() {
+        bookCoverStore.enqueue(Map.of(ISBN, COVER_URL));
+        bookCoverStore.enqueue(Map.of(OTHER_ISBN, ""));
+
+        bookCoverStore.flush();
+
+        ArgumentCaptor<List<BookCover>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookCoverRepository, times(1)).upsertAll(captor.capture());
+        assertThat(captor.getValue()).containsExactlyInAnyOrder(
+                new BookCover(ISBN, COVER_URL, NOW),
+                new BookCover(OTHER_ISBN, "", NOW));
+        assertThat(bookCoverStore.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("書き込み待ちがない場合、DBへ書き込まない")
+    void shouldNotSaveWhenNothingIsPending() {
+        bookCoverStore.flush();
+
+        verify(bookCoverRepository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("保存に失敗した場合、書き込み待ちに残し次回の反映で再度保存する")
+    void shouldKeepPendingCoversWhenSaveFails() {
+        when(bookCoverRepository.upsertAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("DB error"))
+                .thenReturn(new int[]{1});
+        bookCoverStore.enqueue(Map.of(ISBN, COVER_URL));
+
+        bookCoverStore.flush();
+        int pendingAfterFailure = bookCoverStore.pendingCount();
+        bookCoverStore.flush();
+
+        assertThat(pendingAfterFailure).isEqualTo(1);
+        assertThat(bookCoverStore.pendingCount()).isZero();
+        verify(bookCoverRepository, times(2)).upsertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("終了時に書き込み待ちの書影URLが保存される")
+    void shouldFlushOnShutdown() {
+        bookCoverStore.enqueue(Map.of(ISBN, COVER_URL));
+
+        bookCoverStore.flushOnShutdown();
+
+        verify(bookCoverRepository, times(1)).upsertAll(anyList());
+        assertThat(bookCoverStore.pendingCount()).isZero();
+    }
+}
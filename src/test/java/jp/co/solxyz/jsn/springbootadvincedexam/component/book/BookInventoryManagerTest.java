@@ -1,14 +1,19 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +22,8 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -128,6 +135,210 @@ public class BookInventoryManagerTest {
         assertThat(books.get(1)).isEqualTo(expectedBook2);
     }
 
+    @Test
+    @DisplayName("カーソルが未指定の場合、ISBN昇順の先頭から指定件数の書籍概要を返す")
+    void shouldGetFirstPageOfBooksWhenCursorIsNull() {
+        BookSummary book1 = new BookSummary("1234567890123", "Test Title 1", "Test Author", "Test Publisher", 10);
+        BookSummary book2 = new BookSummary("1234567890124", "Test Title 2", "Test Author", "Test Publisher", 10);
+
+        when(bookRepository.findSummariesOrderByIsbn(Limit.of(2))).thenReturn(List.of(book1, book2));
+
+        List<BookSummary> books = bookInventoryManager.getBookSummariesAfter(null, 2);
+
+        verify(bookRepository, never()).findSummariesAfterIsbn(any(), any());
+        assertThat(books).containsExactly(book1, book2);
+    }
+
+    @Test
+    @DisplayName("カーソルが指定された場合、カーソルより大きいISBNの書籍概要を指定件数返す")
+    void shouldGetBooksAfterCursorWhenCursorIsSpecified() {
+        BookSummary book = new BookSummary("1234567890125", "Test Title", "Test Author", "Test Publisher", 10);
+
+        when(bookRepository.findSummariesAfterIsbn("1234567890124", Limit.of(51))).thenReturn(List.of(book));
+
+        List<BookSummary> books = bookInventoryManager.getBookSummariesAfter("1234567890124", 51);
+
+        verify(bookRepository, never()).findSummariesOrderByIsbn(any());
+        assertThat(books).containsExactly(book);
+    }
+
+    @Test
+    @DisplayName("ISBNリストから一致する書籍概要を取得する")
+    void shouldGetBookSummariesByIsbnSuccessfully() {
+        BookSummary book = new BookSummary("1234567890123", "Test Title", "Test Author", "Test Publisher", 10);
+
+        when(bookRepository.findSummariesByIsbnIn(List.of("1234567890123"))).thenReturn(List.of(book));
+
+        List<BookSummary> books = bookInventoryManager.getBookSummariesByIsbn(List.of("1234567890123"));
+
+        verify(bookRepository, times(1)).findSummariesByIsbnIn(List.of("1234567890123"));
+        assertThat(books).containsExactly(book);
+    }
+
+    @Test
+    @DisplayName("書籍概要がキャッシュにない場合、DBへ問い合わせて書籍の存在を判定する")
+    void shouldCheckWhetherBookExistsInRepository() {
+        when(bookRepository.existsById("1234567890123")).thenReturn(true);
+        when(bookRepository.existsById("1234567890124")).thenReturn(false);
+
+        assertThat(bookInventoryManager.existsBook("1234567890123")).isTrue();
+        assertThat(bookInventoryManager.existsBook("1234567890124")).isFalse();
+    }
+
+    @Test
+    @DisplayName("書籍概要がキャッシュ済みの場合、DBへ問い合わせずに書籍が存在すると判定する")
+    void shouldCheckCachedBookExistsWithoutRepository() {
+        BookSummary book = new BookSummary("1234567890123", "Test Title", "Test Author", "Test Publisher", 10);
+
+        when(bookRepository.findSummariesByIsbnIn(List.of("1234567890123"))).thenReturn(List.of(book));
+
+        bookInventoryManager.getBookSummariesByIsbn(List.of("1234567890123"));
+
+        assertThat(bookInventoryManager.existsBook("1234567890123")).isTrue();
+        verify(bookRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("書籍の総数を返す")
+    void shouldCountBooksSuccessfully() {
+        when(bookRepository.count()).thenReturn(2L);
+
+        long count = bookInventoryManager.countBooks();
+
+        assertThat(count).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("同じISBNの書籍を2回取得した場合、2回目はキャッシュから返す")
+    void shouldReturnCachedBookOnSecondCall() {
+        Book book = new Book();
+        book.setIsbn("1234567890123");
+        book.setTitle("Test Title");
+
+        when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
+
+        bookInventoryManager.getBookByIsbn(book.getIsbn());
+        Book result = bookInventoryManager.getBookByIsbn(book.getIsbn());
+
+        verify(bookRepository, times(1)).findById(book.getIsbn());
+        assertThat(result).isEqualTo(book);
+    }
+
+    @Test
+    @DisplayName("一部の書籍概要がキャッシュ済みの場合、キャッシュにない書籍概要のみDBから取得する")
+    void shouldLoadOnlyMissingBookSummaries() {
+        BookSummary book1 = new BookSummary("1234567890123", "Test Title 1", "Test Author", "Test Publisher", 10);
+        BookSummary book2 = new BookSummary("1234567890124", "Test Title 2", "Test Author", "Test Publisher", 10);
+
+        when(bookRepository.findSummariesByIsbnIn(List.of("1234567890123"))).thenReturn(List.of(book1));
+        when(bookRepository.findSummariesByIsbnIn(List.of("1234567890124"))).thenReturn(List.of(book2));
+
+        bookInventoryManager.getBookSummariesByIsbn(List.of("1234567890123"));
+        List<BookSummary> books = bookInventoryManager.getBookSummariesByIsbn(List.of("1234567890123", "1234567890124"));
+
+        verify(bookRepository, times(1)).findSummariesByIsbnIn(List.of("1234567890123"));
+        verify(bookRepository, times(1)).findSummariesByIsbnIn(List.of("1234567890124"));
+        assertThat(books).containsExactly(book1, book2);
+    }
+
+    @Test
+    @DisplayName("書籍概要の読み込み中に書籍が変更された場合、読み込んだ書籍概要をキャッシュしない")
+    void shouldNotCacheBookSummariesChangedDuringLoad() {
+        BookSummary book = new BookSummary("1234567890123", "Test Title", "Test Author", "Test Publisher", 10);
+
+        when(bookRepository.findSummariesByIsbnIn(List.of("1234567890123"))).thenAnswer(invocation -> {
+            bookInventoryManager.onCatalogChanged(new BookCatalogChangedEvent("1234567890123", ChangeType.STOCK_CHANGED));
+            return List.of(book);
+        });
+
+        bookInventoryManager.getBookSummariesByIsbn(List.of("1234567890123"));
+        bookInventoryManager.getBookSummariesByIsbn(List.of("1234567890123"));
+
+        verify(bookRepository, times(2)).findSummariesByIsbnIn(List.of("1234567890123"));
+    }
+
+    @Test
+    @DisplayName("取得した書籍を変更しても、キャッシュ済みの書籍には反映されない")
+    void shouldNotShareCachedBookWithCaller() {
+        Book book = new Book();
+        book.setIsbn("1234567890123");
+        book.setAvailableStock(10);
+
+        when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
+
+        bookInventoryManager.getBookByIsbn(book.getIsbn()).setAvailableStock(0);
+        book.setAvailableStock(0);
+        Book result = bookInventoryManager.getBookByIsbn(book.getIsbn());
+
+        verify(bookRepository, times(1)).findById(book.getIsbn());
+        assertThat(result.getAvailableStock()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("最新の書籍を取得する場合、キャッシュを使わずに毎回DBから取得する")
+    void shouldGetLatestBookFromRepositoryEveryTime() {
+        Book book = new Book();
+        book.setIsbn("1234567890123");
+        book.setAvailableStock(10);
+        Book updatedBook = new Book();
+        updatedBook.setIsbn("1234567890123");
+        updatedBook.setAvailableStock(9);
+
+        when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book), Optional.of(updatedBook));
+
+        bookInventoryManager.getBookByIsbn(book.getIsbn());
+        Book result = bookInventoryManager.getLatestBookByIsbn(book.getIsbn());
+
+        verify(bookRepository, times(2)).findById(book.getIsbn());
+        assertThat(result.getAvailableStock()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("在庫変更のイベントを受け取った場合、対象書籍のキャッシュを破棄しDBから再取得する")
+    void shouldReloadBookAfterStockChanged() {
+        Book book = new Book();
+        book.setIsbn("1234567890123");
+        book.setAvailableStock(10);
+        Book updatedBook = new Book();
+        updatedBook.setIsbn("1234567890123");
+        updatedBook.setAvailableStock(9);
+
+        when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book), Optional.of(updatedBook));
+
+        bookInventoryManager.getBookByIsbn(book.getIsbn());
+        bookInventoryManager.onCatalogChanged(new BookCatalogChangedEvent(book.getIsbn(), ChangeType.STOCK_CHANGED));
+        Book result = bookInventoryManager.getBookByIsbn(book.getIsbn());
+
+        verify(bookRepository, times(2)).findById(book.getIsbn());
+        assertThat(result.getAvailableStock()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("書籍削除のイベントを受け取った場合、キャッシュ済みの書籍概要を破棄しDBで存在を判定する")
+    void shouldCheckExistenceInRepositoryAfterBookDeleted() {
+        BookSummary book = new BookSummary("1234567890123", "Test Title", "Test Author", "Test Publisher", 10);
+
+        when(bookRepository.findSummariesByIsbnIn(List.of("1234567890123"))).thenReturn(List.of(book));
+        when(bookRepository.existsById("1234567890123")).thenReturn(false);
+
+        bookInventoryManager.getBookSummariesByIsbn(List.of("1234567890123"));
+        bookInventoryManager.onCatalogChanged(new BookCatalogChangedEvent("1234567890123", ChangeType.DELETED));
+
+        assertThat(bookInventoryManager.existsBook("1234567890123")).isFalse();
+    }
+
+    @Test
+    @DisplayName("キャッシュのヒット・ミス・追い出しのメトリクスが登録される")
+    void shouldBindCacheMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        bookInventoryManager.bindTo(registry);
+
+        assertThat(registry.find("cache.gets").tag("cache", "books").tag("result", "hit").functionCounter()).isNotNull();
+        assertThat(registry.find("cache.gets").tag("cache", "books").tag("result", "miss").functionCounter()).isNotNull();
+        assertThat(registry.find("cache.evictions").tag("cache", "bookSummaries").functionCounter()).isNotNull();
+    }
+
     @Test
     @DisplayName("ISBNリストから一致する1件の書籍を取得する")
     void shouldGetBooksByIsbnSuccessfully() {
@@ -1,10 +1,16 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
 
 import jp.co.solxyz.jsn.springbootadvincedexam.app.user.book.model.UnreturnedBookModel;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.UserLoansChangedEvent;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCheckoutHistory;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.UserLoanSummaryRepository;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.UnreturnedBookSummary;
+import jp.co.solxyz.jsn.springbootadvincedexam.util.IdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataAccessResourceFailureException;
 
@@ -23,12 +30,12 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
@@ -47,18 +54,27 @@ public class BookLendingManagerTest {
     @Mock
     private BookCheckoutHistoryRepository bookCheckoutHistoryRepository;
 
+    @Mock
+    private UserLoanSummaryRepository userLoanSummaryRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IdGenerator idGenerator;
+
     private final LocalDateTime TEST_TIME = LocalDateTime.of(2021, 1, 1, 0, 0, 0);
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        when(userLoanSummaryRepository.findLoanVersionByUserId(any())).thenReturn(Optional.of(1L));
     }
 
     @Test
     @DisplayName("チェックアウトが正常に終了する")
     void shouldCheckoutSuccessfully() {
         String stringUUID = "00000000-0000-0000-0000-000000000000";
-        UUID uuid = UUID.fromString(stringUUID);
         String userId = "userId";
 
         BookCheckoutHistory expectedBookCheckoutHistory = new BookCheckoutHistory();
@@ -75,42 +91,26 @@ public class BookLendingManagerTest {
         bookCheckoutHistory.setRentalAt(TEST_TIME);
         List<BookCheckoutHistory> rentalTargetCheckoutHistoryList = List.of(bookCheckoutHistory);
 
-        Book expectedBook = new Book();
-        expectedBook.setIsbn("1234567890123");
-        expectedBook.setTitle("Test Title");
-        expectedBook.setAuthor("Test Author");
-        expectedBook.setPublisher("Test Publisher");
-        expectedBook.setStock(10);
-        expectedBook.setAvailableStock(0);
-        expectedBook.setDescription("Test Description");
-        expectedBook.setCreatedAt(TEST_TIME);
-        expectedBook.setUpdatedAt(TEST_TIME);
-        List<Book> expectedBookList = List.of(expectedBook);
-
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
         book.setTitle("Test Title");
         book.setAuthor("Test Author");
         book.setPublisher("Test Publisher");
-        book.setStock(10);
         book.setAvailableStock(1);
-        book.setDescription("Test Description");
-        book.setCreatedAt(TEST_TIME);
-        book.setUpdatedAt(TEST_TIME);
 
-        List<Book> bookList = List.of(book);
+        List<BookSummary> bookList = List.of(book);
+
+        when(bookRepository.findSummariesByIsbnIn(List.of(book.getIsbn()))).thenReturn(bookList);
+        when(bookRepository.decrementAvailableStock(List.of(book.getIsbn()))).thenReturn(new int[]{1});
+        when(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)).thenReturn(Collections.emptySet());
+        when(bookCheckoutHistoryRepository.insertAll(rentalTargetCheckoutHistoryList)).thenReturn(new int[]{1});
 
-        when(bookRepository.findAllById(List.of(book.getIsbn()))).thenReturn(bookList);
-        when(bookRepository.saveAll(bookList)).thenReturn(bookList);
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(Collections.emptyList());
-        when(bookCheckoutHistoryRepository.saveAll(rentalTargetCheckoutHistoryList)).thenReturn(rentalTargetCheckoutHistoryList);
+        when(idGenerator.generateRentalId()).thenReturn(stringUUID);
 
-        try (MockedStatic<UUID> mockUUID = Mockito.mockStatic(UUID.class);
-                MockedStatic<LocalDateTime> mockLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
-            mockUUID.when(UUID::randomUUID).thenReturn(uuid);
+        try (MockedStatic<LocalDateTime> mockLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockLocalDateTime.when(LocalDateTime::now).thenReturn(TEST_TIME);
 
-            List<Book> notCheckoutBooks = bookLendingManager.checkout(userId, List.of(book.getIsbn()));
+            List<BookSummary> notCheckoutBooks = bookLendingManager.checkout(userId, List.of(book.getIsbn()));
 
             assertThat(notCheckoutBooks).isEmpty();
         } catch (Exception e) {
@@ -118,15 +118,19 @@ public class BookLendingManagerTest {
             fail();
         }
 
-        verify(bookRepository, times(1)).saveAll(expectedBookList);
-        verify(bookCheckoutHistoryRepository, times(1)).saveAll(expectedBookCheckoutHistoryList);
+        verify(bookRepository, times(1)).decrementAvailableStock(List.of(book.getIsbn()));
+        verify(bookRepository, never()).saveAll(any());
+        verify(bookCheckoutHistoryRepository, times(1)).insertAll(expectedBookCheckoutHistoryList);
+        verify(eventPublisher, times(1)).publishEvent(new BookCatalogChangedEvent("1234567890123", ChangeType.STOCK_CHANGED));
+        verify(userLoanSummaryRepository, times(1)).incrementLoanVersion(userId);
+        verify(userLoanSummaryRepository, times(1)).addActiveLoanCount(userId, 1);
+        verify(eventPublisher, times(1)).publishEvent(new UserLoansChangedEvent(userId, 1L, Set.of("1234567890123"), Set.of()));
     }
 
     @Test
     @DisplayName("複数の書籍を借りようとしたとき、一部がすでに借りている書籍と在庫のない書籍だった場合、それらは借りれなかった本として返される")
     void shouldReturnBooksWhenSomeBooksAreAlreadyCheckedOutOrStockIsNotEnough() {
         String stringUUID = "00000000-0000-0000-0000-000000000000";
-        UUID uuid = UUID.fromString(stringUUID);
         String userId = "userId";
 
         BookCheckoutHistory checkoutHistory = new BookCheckoutHistory();
@@ -137,100 +141,54 @@ public class BookLendingManagerTest {
         List<BookCheckoutHistory> rentalTargetCheckoutHistoryList = List.of(checkoutHistory);
         List<BookCheckoutHistory> expectedBookCheckoutHistoryList = List.of(checkoutHistory);
 
-        BookCheckoutHistory userRentalBook = new BookCheckoutHistory();
-        userRentalBook.setRentalId(stringUUID);
-        userRentalBook.setUserId(userId);
-        userRentalBook.setIsbn("1234567890124");
-        userRentalBook.setRentalAt(TEST_TIME);
-        List<BookCheckoutHistory> userRentalBookList = List.of(userRentalBook);
+        Set<String> userRentalIsbnSet = Set.of("1234567890124");
 
-        Book expectedBook = new Book();
-        expectedBook.setIsbn("1234567890123");
-        expectedBook.setTitle("Test Title");
-        expectedBook.setAuthor("Test Author");
-        expectedBook.setPublisher("Test Publisher");
-        expectedBook.setStock(10);
-        expectedBook.setAvailableStock(0);
-        expectedBook.setDescription("Test Description");
-        expectedBook.setCreatedAt(TEST_TIME);
-        expectedBook.setUpdatedAt(TEST_TIME);
-        Book expectedBook2 = new Book();
-        expectedBook2.setIsbn("1234567890124");
-        expectedBook2.setTitle("Test Title");
-        expectedBook2.setAuthor("Test Author");
-        expectedBook2.setPublisher("Test Publisher");
-        expectedBook2.setStock(10);
-        expectedBook2.setAvailableStock(1);
-        expectedBook2.setDescription("Test Description");
-        expectedBook2.setCreatedAt(TEST_TIME);
-        expectedBook2.setUpdatedAt(TEST_TIME);
-        Book expectedBook3 = new Book();
-        expectedBook3.setIsbn("1234567890125");
-        expectedBook3.setTitle("Test Title");
-        expectedBook3.setAuthor("Test Author");
-        expectedBook3.setPublisher("Test Publisher");
-        expectedBook3.setStock(10);
-        expectedBook3.setAvailableStock(0);
-        expectedBook3.setDescription("Test Description");
-        expectedBook3.setCreatedAt(TEST_TIME);
-        expectedBook3.setUpdatedAt(TEST_TIME);
-        List<Book> expectedBookList = List.of(expectedBook, expectedBook2, expectedBook3);
-
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
         book.setTitle("Test Title");
         book.setAuthor("Test Author");
         book.setPublisher("Test Publisher");
-        book.setStock(10);
         book.setAvailableStock(1);
-        book.setDescription("Test Description");
-        book.setCreatedAt(TEST_TIME);
-        book.setUpdatedAt(TEST_TIME);
-        Book alreadyCheckedOutBook = new Book();
+        BookSummary alreadyCheckedOutBook = new BookSummary();
         alreadyCheckedOutBook.setIsbn("1234567890124");
         alreadyCheckedOutBook.setTitle("Test Title");
         alreadyCheckedOutBook.setAuthor("Test Author");
         alreadyCheckedOutBook.setPublisher("Test Publisher");
-        alreadyCheckedOutBook.setStock(10);
         alreadyCheckedOutBook.setAvailableStock(1);
-        alreadyCheckedOutBook.setDescription("Test Description");
-        alreadyCheckedOutBook.setCreatedAt(TEST_TIME);
-        alreadyCheckedOutBook.setUpdatedAt(TEST_TIME);
-        Book stockNotEnoughBook = new Book();
+        BookSummary stockNotEnoughBook = new BookSummary();
         stockNotEnoughBook.setIsbn("1234567890125");
         stockNotEnoughBook.setTitle("Test Title");
         stockNotEnoughBook.setAuthor("Test Author");
         stockNotEnoughBook.setPublisher("Test Publisher");
-        stockNotEnoughBook.setStock(10);
         stockNotEnoughBook.setAvailableStock(0);
-        stockNotEnoughBook.setDescription("Test Description");
-        stockNotEnoughBook.setCreatedAt(TEST_TIME);
-        stockNotEnoughBook.setUpdatedAt(TEST_TIME);
-        List<Book> rentalTargetbookList = List.of(book, alreadyCheckedOutBook, stockNotEnoughBook);
-        List<Book> notCheckoutBookList = List.of(alreadyCheckedOutBook, stockNotEnoughBook);
+        List<BookSummary> rentalTargetbookList = List.of(book, alreadyCheckedOutBook, stockNotEnoughBook);
+        List<BookSummary> notCheckoutBookList = List.of(alreadyCheckedOutBook, stockNotEnoughBook);
         List<String> isbnList = List.of(book.getIsbn(), alreadyCheckedOutBook.getIsbn(), stockNotEnoughBook.getIsbn());
 
-        when(bookRepository.findAllById(isbnList)).thenReturn(rentalTargetbookList);
-        when(bookRepository.saveAll(rentalTargetbookList)).thenReturn(rentalTargetbookList);
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(userRentalBookList);
-        when(bookCheckoutHistoryRepository.saveAll(rentalTargetCheckoutHistoryList)).thenReturn(Collections.emptyList());
+        when(bookRepository.findSummariesByIsbnIn(isbnList)).thenReturn(rentalTargetbookList);
+        when(bookRepository.decrementAvailableStock(List.of(book.getIsbn(), stockNotEnoughBook.getIsbn()))).thenReturn(new int[]{1, 0});
+        when(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)).thenReturn(userRentalIsbnSet);
+        when(bookCheckoutHistoryRepository.insertAll(rentalTargetCheckoutHistoryList)).thenReturn(new int[]{1});
+
+        when(idGenerator.generateRentalId()).thenReturn(stringUUID);
 
-        try (MockedStatic<UUID> mockUUID = Mockito.mockStatic(UUID.class);
-                MockedStatic<LocalDateTime> mockLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
-            mockUUID.when(UUID::randomUUID).thenReturn(uuid);
+        try (MockedStatic<LocalDateTime> mockLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockLocalDateTime.when(LocalDateTime::now).thenReturn(TEST_TIME);
 
-            List<Book> notCheckoutBooks = bookLendingManager.checkout(userId, isbnList);
+            List<BookSummary> notCheckoutBooks = bookLendingManager.checkout(userId, isbnList);
             assertThat(notCheckoutBooks).isEqualTo(notCheckoutBookList);
         } catch (Exception e) {
             e.printStackTrace();
             fail();
         }
 
-        verify(bookRepository, times(1)).findAllById(isbnList);
-        verify(bookRepository, times(1)).saveAll(expectedBookList);
-        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBooksByUserId(userId);
-        verify(bookCheckoutHistoryRepository, times(1)).saveAll(expectedBookCheckoutHistoryList);
+        verify(bookRepository, times(1)).findSummariesByIsbnIn(isbnList);
+        verify(bookRepository, times(1)).decrementAvailableStock(List.of(book.getIsbn(), stockNotEnoughBook.getIsbn()));
+        verify(bookRepository, never()).saveAll(any());
+        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedIsbnsByUserId(userId);
+        verify(bookCheckoutHistoryRepository, times(1)).insertAll(expectedBookCheckoutHistoryList);
+        verify(eventPublisher, times(1)).publishEvent(new BookCatalogChangedEvent(book.getIsbn(), ChangeType.STOCK_CHANGED));
+        verify(eventPublisher, never()).publishEvent(new BookCatalogChangedEvent(stockNotEnoughBook.getIsbn(), ChangeType.STOCK_CHANGED));
 
     }
 
@@ -238,51 +196,40 @@ public class BookLendingManagerTest {
     @DisplayName("すでに借りている書籍を借りようとした場合、借りれなかった本として返される")
     void shouldReturnBookWhenAlreadyCheckedOut() {
         String stringUUID = "00000000-0000-0000-0000-000000000000";
-        UUID uuid = UUID.fromString(stringUUID);
         String userId = "userId";
 
-        Book expectedBook = new Book();
+        BookSummary expectedBook = new BookSummary();
         expectedBook.setIsbn("1234567890123");
         expectedBook.setTitle("Test Title");
         expectedBook.setAuthor("Test Author");
         expectedBook.setPublisher("Test Publisher");
-        expectedBook.setStock(10);
         expectedBook.setAvailableStock(1);
-        expectedBook.setDescription("Test Description");
-        expectedBook.setCreatedAt(TEST_TIME);
-        expectedBook.setUpdatedAt(TEST_TIME);
 
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
         book.setTitle("Test Title");
         book.setAuthor("Test Author");
         book.setPublisher("Test Publisher");
-        book.setStock(10);
         book.setAvailableStock(1);
-        book.setDescription("Test Description");
-        book.setCreatedAt(TEST_TIME);
-        book.setUpdatedAt(TEST_TIME);
-        List<Book> rentalTargetBooklist = List.of(book);
+        List<BookSummary> rentalTargetBooklist = List.of(book);
         List<String> isbnList = List.of(book.getIsbn());
 
-        BookCheckoutHistory userBook = new BookCheckoutHistory();
-        userBook.setIsbn(book.getIsbn());
-        List<BookCheckoutHistory> rentalUserBookList = List.of(userBook);
+        Set<String> rentalUserIsbnSet = Set.of(book.getIsbn());
 
-        when(bookRepository.findAllById(isbnList)).thenReturn(rentalTargetBooklist);
-        when(bookRepository.saveAll(rentalTargetBooklist)).thenReturn(rentalTargetBooklist);
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(rentalUserBookList);
-        when(bookCheckoutHistoryRepository.saveAll(Collections.emptyList())).thenReturn(Collections.emptyList());
+        when(bookRepository.findSummariesByIsbnIn(isbnList)).thenReturn(rentalTargetBooklist);
+        when(bookRepository.decrementAvailableStock(Collections.emptyList())).thenReturn(new int[0]);
+        when(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)).thenReturn(rentalUserIsbnSet);
+        when(bookCheckoutHistoryRepository.insertAll(Collections.emptyList())).thenReturn(new int[0]);
 
-        try (MockedStatic<UUID> mockUUID = Mockito.mockStatic(UUID.class);
-                MockedStatic<LocalDateTime> mockLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
-            mockUUID.when(UUID::randomUUID).thenReturn(uuid);
+        when(idGenerator.generateRentalId()).thenReturn(stringUUID);
+
+        try (MockedStatic<LocalDateTime> mockLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockLocalDateTime.when(LocalDateTime::now).thenReturn(TEST_TIME);
 
-            List<Book> notCheckoutBooks = bookLendingManager.checkout(userId, isbnList);
+            List<BookSummary> notCheckoutBooks = bookLendingManager.checkout(userId, isbnList);
 
-            verify(bookRepository, times(1)).saveAll(List.of(expectedBook));
-            verify(bookCheckoutHistoryRepository, times(1)).saveAll(Collections.emptyList());
+            verify(bookRepository, times(1)).decrementAvailableStock(Collections.emptyList());
+            verify(bookCheckoutHistoryRepository, times(1)).insertAll(Collections.emptyList());
             assertThat(notCheckoutBooks).hasSize(1);
             assertThat(notCheckoutBooks.get(0)).isEqualTo(expectedBook);
         }
@@ -292,47 +239,40 @@ public class BookLendingManagerTest {
     @DisplayName("借りようとした書籍の在庫がない場合、借りれなかった書籍として返される")
     void shouldReturnBookWhenStockIsNotEnough() {
         String stringUUID = "00000000-0000-0000-0000-000000000000";
-        UUID uuid = UUID.fromString(stringUUID);
         String userId = "userId";
 
-        Book expectedBook = new Book();
+        BookSummary expectedBook = new BookSummary();
         expectedBook.setIsbn("1234567890123");
         expectedBook.setTitle("Test Title");
         expectedBook.setAuthor("Test Author");
         expectedBook.setPublisher("Test Publisher");
-        expectedBook.setStock(10);
         expectedBook.setAvailableStock(0);
-        expectedBook.setDescription("Test Description");
-        expectedBook.setCreatedAt(TEST_TIME);
-        expectedBook.setUpdatedAt(TEST_TIME);
 
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
         book.setTitle("Test Title");
         book.setAuthor("Test Author");
         book.setPublisher("Test Publisher");
-        book.setStock(10);
         book.setAvailableStock(0);
-        book.setDescription("Test Description");
-        book.setCreatedAt(TEST_TIME);
-        book.setUpdatedAt(TEST_TIME);
-        List<Book> rentalTargetBookList = List.of(book);
+        List<BookSummary> rentalTargetBookList = List.of(book);
         List<String> isbnList = List.of(book.getIsbn());
 
-        when(bookRepository.findAllById(isbnList)).thenReturn(rentalTargetBookList);
-        when(bookRepository.saveAll(rentalTargetBookList)).thenReturn(Collections.emptyList());
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(Collections.emptyList());
-        when(bookCheckoutHistoryRepository.saveAll(Collections.emptyList())).thenReturn(Collections.emptyList());
+        when(bookRepository.findSummariesByIsbnIn(isbnList)).thenReturn(rentalTargetBookList);
+        when(bookRepository.decrementAvailableStock(isbnList)).thenReturn(new int[]{0});
+        when(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)).thenReturn(Collections.emptySet());
+        when(bookCheckoutHistoryRepository.insertAll(Collections.emptyList())).thenReturn(new int[0]);
+
+        when(idGenerator.generateRentalId()).thenReturn(stringUUID);
 
-        try (MockedStatic<UUID> mockUUID = Mockito.mockStatic(UUID.class);
-                MockedStatic<LocalDateTime> mockLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
-            mockUUID.when(UUID::randomUUID).thenReturn(uuid);
+        try (MockedStatic<LocalDateTime> mockLocalDateTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockLocalDateTime.when(LocalDateTime::now).thenReturn(TEST_TIME);
 
-            List<Book> notCheckoutBooks = bookLendingManager.checkout(userId, List.of(book.getIsbn()));
+            List<BookSummary> notCheckoutBooks = bookLendingManager.checkout(userId, List.of(book.getIsbn()));
 
-            verify(bookRepository, times(1)).saveAll(List.of(expectedBook));
-            verify(bookCheckoutHistoryRepository, times(1)).saveAll(Collections.emptyList());
+            verify(bookRepository, times(1)).decrementAvailableStock(isbnList);
+            verify(bookCheckoutHistoryRepository, times(1)).insertAll(Collections.emptyList());
+            verify(eventPublisher, never()).publishEvent(any(BookCatalogChangedEvent.class));
+            verify(eventPublisher, times(1)).publishEvent(new UserLoansChangedEvent(userId, 1L, Set.of(), Set.of()));
             assertThat(notCheckoutBooks).hasSize(1);
             assertThat(notCheckoutBooks.get(0).getIsbn()).isEqualTo(expectedBook.getIsbn());
             assertThat(notCheckoutBooks.get(0).getAvailableStock()).isEqualTo(expectedBook.getAvailableStock());
@@ -343,32 +283,15 @@ public class BookLendingManagerTest {
     @DisplayName("チェックアウト履歴の登録に失敗した場合、DataAccessExceptionのサブクラスが発生する")
     void shouldThrowDataAccessExceptionWhenFailedToSaveCheckoutHistory() {
         String stringUUID = "00000000-0000-0000-0000-000000000000";
-        UUID uuid = UUID.fromString(stringUUID);
         String userId = "userId";
 
-        Book expectedBook = new Book();
-        expectedBook.setIsbn("1234567890123");
-        expectedBook.setTitle("Test Title");
-        expectedBook.setAuthor("Test Author");
-        expectedBook.setPublisher("Test Publisher");
-        expectedBook.setStock(10);
-        expectedBook.setAvailableStock(0);
-        expectedBook.setDescription("Test Description");
-        expectedBook.setCreatedAt(TEST_TIME);
-        expectedBook.setUpdatedAt(TEST_TIME);
-        List<Book> expectedBookList = List.of(expectedBook);
-
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
         book.setTitle("Test Title");
         book.setAuthor("Test Author");
         book.setPublisher("Test Publisher");
-        book.setStock(10);
         book.setAvailableStock(1);
-        book.setDescription("Test Description");
-        book.setCreatedAt(TEST_TIME);
-        book.setUpdatedAt(TEST_TIME);
-        List<Book> rentalTargetBookList = List.of(book);
+        List<BookSummary> rentalTargetBookList = List.of(book);
 
         BookCheckoutHistory expectedCheckoutHistory = new BookCheckoutHistory();
         expectedCheckoutHistory.setRentalId(stringUUID);
@@ -377,10 +300,10 @@ public class BookLendingManagerTest {
 
         List<String> isbnList = List.of(book.getIsbn());
 
-        when(bookRepository.findAllById(isbnList)).thenReturn(rentalTargetBookList);
-        when(bookRepository.saveAll(rentalTargetBookList)).thenReturn(rentalTargetBookList);
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(Collections.emptyList());
-        when(bookCheckoutHistoryRepository.saveAll(argThat((List<BookCheckoutHistory> histories) -> {
+        when(bookRepository.findSummariesByIsbnIn(isbnList)).thenReturn(rentalTargetBookList);
+        when(bookRepository.decrementAvailableStock(isbnList)).thenReturn(new int[]{1});
+        when(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)).thenReturn(Collections.emptySet());
+        when(bookCheckoutHistoryRepository.insertAll(argThat((List<BookCheckoutHistory> histories) -> {
             if (histories.size() != 1) {
                 return false;
             }
@@ -392,24 +315,22 @@ public class BookLendingManagerTest {
         }))).thenThrow(
                 new DataAccessResourceFailureException("DBへの接続ができませんでした。"));
 
-        LocalDateTime beforeCheckout = LocalDateTime.now();
-        try (MockedStatic<UUID> mockUUID = Mockito.mockStatic(UUID.class)) {
-            mockUUID.when(UUID::randomUUID).thenReturn(uuid);
+        when(idGenerator.generateRentalId()).thenReturn(stringUUID);
 
-            assertThatThrownBy(() -> bookLendingManager.checkout(userId, List.of(book.getIsbn())))
-                    .isInstanceOf(DataAccessException.class)
-                    .hasMessageContaining("DBへの接続ができませんでした。");
-        }
+        LocalDateTime beforeCheckout = LocalDateTime.now();
+        assertThatThrownBy(() -> bookLendingManager.checkout(userId, List.of(book.getIsbn())))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("DBへの接続ができませんでした。");
         LocalDateTime afterCheckout = LocalDateTime.now();
 
-        verify(bookRepository, times(1)).findAllById(isbnList);
-        verify(bookRepository, times(1)).saveAll(expectedBookList);
-        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBooksByUserId(userId);
+        verify(bookRepository, times(1)).findSummariesByIsbnIn(isbnList);
+        verify(bookRepository, times(1)).decrementAvailableStock(isbnList);
+        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedIsbnsByUserId(userId);
 
         @SuppressWarnings({"unchecked", "rawtypes"})
         ArgumentCaptor<List<BookCheckoutHistory>> checkoutHistoriesCaptor =
                 ArgumentCaptor.forClass((Class) List.class);
-        verify(bookCheckoutHistoryRepository, times(1)).saveAll(checkoutHistoriesCaptor.capture());
+        verify(bookCheckoutHistoryRepository, times(1)).insertAll(checkoutHistoriesCaptor.capture());
 
         List<BookCheckoutHistory> savedCheckoutHistories = checkoutHistoriesCaptor.getValue();
         assertThat(savedCheckoutHistories).hasSize(1);
@@ -426,12 +347,6 @@ public class BookLendingManagerTest {
     void shouldGetUnreturnedBookByUserIdSuccessfully() {
         String userId = "userId";
 
-        BookCheckoutHistory history = new BookCheckoutHistory();
-        history.setIsbn("1234567890123");
-        history.setRentalAt(TEST_TIME);
-        history.setUserId(userId);
-        List<BookCheckoutHistory> rentalUserBookList = List.of(history);
-
         UnreturnedBookModel expectedBook = new UnreturnedBookModel();
         expectedBook.setIsbn("1234567890123");
         expectedBook.setTitle("Test Title");
@@ -439,38 +354,24 @@ public class BookLendingManagerTest {
         expectedBook.setPublisher("Test Publisher");
         expectedBook.setRentalAt(TEST_TIME);
 
-        Book book = new Book();
-        book.setIsbn("1234567890123");
-        book.setTitle("Test Title");
-        book.setAuthor("Test Author");
-        book.setPublisher("Test Publisher");
-        Set<String> unreturnedIsbnSet = Set.of(book.getIsbn());
+        UnreturnedBookSummary summary = new UnreturnedBookSummary("1234567890123", "Test Title", "Test Author", "Test Publisher", TEST_TIME);
 
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(rentalUserBookList);
-        when(bookRepository.findAllById(unreturnedIsbnSet)).thenReturn(List.of(book));
+        when(bookCheckoutHistoryRepository.findUnreturnedBookSummariesByUserId(userId)).thenReturn(List.of(summary));
 
         List<UnreturnedBookModel> unreturnedBooks = bookLendingManager.getUnreturnedBooksByUserId(userId);
 
-        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBooksByUserId(userId);
-        verify(bookRepository, times(1)).findAllById(Set.of(expectedBook.getIsbn()));
+        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBookSummariesByUserId(userId);
+        verify(bookCheckoutHistoryRepository, never()).findUnreturnedIsbnsByUserId(any());
+        verify(bookRepository, never()).findSummariesByIsbnIn(any());
         assertThat(unreturnedBooks).hasSize(1);
         assertThat(unreturnedBooks.get(0)).isEqualTo(expectedBook);
     }
 
     @Test
-    @DisplayName("ユーザIDによる未返却の書籍が複数ある場合、複数の書籍を含んだリストを返す")
+    @DisplayName("ユーザIDによる未返却の書籍が複数ある場合、検索結果の順序で複数の書籍を含んだリストを返す")
     void shouldGetUnreturnedBooksByUserIdSuccessfully() {
         String userId = "userId";
 
-        BookCheckoutHistory history1 = new BookCheckoutHistory();
-        history1.setIsbn("1234567890123");
-        history1.setRentalAt(TEST_TIME);
-        history1.setUserId(userId);
-        BookCheckoutHistory history2 = new BookCheckoutHistory();
-        history2.setIsbn("1234567890124");
-        history2.setRentalAt(TEST_TIME);
-        history2.setUserId(userId);
-
         UnreturnedBookModel unreturnedBook1 = new UnreturnedBookModel();
         unreturnedBook1.setIsbn("1234567890123");
         unreturnedBook1.setTitle("Test Title");
@@ -482,42 +383,28 @@ public class BookLendingManagerTest {
         unreturnedBook2.setTitle("Test Title 2");
         unreturnedBook2.setAuthor("Test Author 2");
         unreturnedBook2.setPublisher("Test Publisher 2");
-        unreturnedBook2.setRentalAt(TEST_TIME);
-
-        Book book1 = new Book();
-        book1.setIsbn("1234567890123");
-        book1.setTitle("Test Title");
-        book1.setAuthor("Test Author");
-        book1.setPublisher("Test Publisher");
-        Book book2 = new Book();
-        book2.setIsbn("1234567890124");
-        book2.setTitle("Test Title 2");
-        book2.setAuthor("Test Author 2");
-        book2.setPublisher("Test Publisher 2");
-
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(List.of(history1, history2));
-        when(bookRepository.findAllById(Set.of(book1.getIsbn(), book2.getIsbn()))).thenReturn(List.of(book1, book2));
+        unreturnedBook2.setRentalAt(TEST_TIME.plusDays(1));
+
+        UnreturnedBookSummary summary1 = new UnreturnedBookSummary("1234567890123", "Test Title", "Test Author", "Test Publisher", TEST_TIME);
+        UnreturnedBookSummary summary2 = new UnreturnedBookSummary("1234567890124", "Test Title 2", "Test Author 2", "Test Publisher 2", TEST_TIME.plusDays(1));
+
+        when(bookCheckoutHistoryRepository.findUnreturnedBookSummariesByUserId(userId)).thenReturn(List.of(summary1, summary2));
 
         List<UnreturnedBookModel> unreturnedBooks = bookLendingManager.getUnreturnedBooksByUserId(userId);
 
-        assertThat(unreturnedBooks).hasSize(2);
-        assertThat(unreturnedBooks.get(0)).isEqualTo(unreturnedBook1);
-        assertThat(unreturnedBooks.get(1)).isEqualTo(unreturnedBook2);
+        assertThat(unreturnedBooks).containsExactly(unreturnedBook1, unreturnedBook2);
     }
 
     @Test
     @DisplayName("ユーザIDによる未返却の書籍が存在しない場合、空のリストを返す")
     void shouldReturnEmptyListWhenNoUnreturnedBooksByUserId() {
-        Set<String> emptyIsbnSet = Set.of();
         String userId = "userId";
 
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(Collections.emptyList());
-        when(bookRepository.findAllById(emptyIsbnSet)).thenReturn(Collections.emptyList());
+        when(bookCheckoutHistoryRepository.findUnreturnedBookSummariesByUserId(userId)).thenReturn(Collections.emptyList());
 
         List<UnreturnedBookModel> unreturnedBooks = bookLendingManager.getUnreturnedBooksByUserId(userId);
 
-        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBooksByUserId(userId);
-        verify(bookRepository, times(1)).findAllById(emptyIsbnSet);
+        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBookSummariesByUserId(userId);
         assertThat(unreturnedBooks).isEmpty();
     }
 
@@ -525,27 +412,26 @@ public class BookLendingManagerTest {
     @DisplayName("貸し出し中の本の返却が正常に終了する")
     void shouldReturnBookSuccessfully() {
         String userId = "userId";
+        String isbn = "1234567890123";
 
-        Book expectedBook = new Book();
-        expectedBook.setIsbn("1234567890123");
-        expectedBook.setAvailableStock(2);
-
-        Book book = new Book();
-        book.setIsbn("1234567890123");
-        book.setAvailableStock(1);
-
-        when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
-        when(bookCheckoutHistoryRepository.updateReturnAt(eq(userId), eq(book.getIsbn()), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.existsById(isbn)).thenReturn(true);
+        when(bookCheckoutHistoryRepository.updateReturnAt(eq(userId), eq(isbn), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.incrementAvailableStock(isbn)).thenReturn(1);
 
         try {
-            bookLendingManager.returnBook(userId, book.getIsbn());
+            bookLendingManager.returnBook(userId, isbn);
         } catch (Exception e) {
             e.printStackTrace();
             fail();
         }
 
-        verify(bookRepository, times(1)).save(expectedBook);
-        verify(bookCheckoutHistoryRepository, times(1)).updateReturnAt(eq(userId), eq(expectedBook.getIsbn()), any(LocalDateTime.class));
+        verify(bookRepository, times(1)).incrementAvailableStock(isbn);
+        verify(bookRepository, never()).save(any());
+        verify(bookCheckoutHistoryRepository, times(1)).updateReturnAt(eq(userId), eq(isbn), any(LocalDateTime.class));
+        verify(eventPublisher, times(1)).publishEvent(new BookCatalogChangedEvent(isbn, ChangeType.STOCK_CHANGED));
+        verify(userLoanSummaryRepository, times(1)).incrementLoanVersion(userId);
+        verify(userLoanSummaryRepository, times(1)).addActiveLoanCount(userId, -1);
+        verify(eventPublisher, times(1)).publishEvent(new UserLoansChangedEvent(userId, 1L, Set.of(), Set.of(isbn)));
     }
 
     @Test
@@ -555,12 +441,12 @@ public class BookLendingManagerTest {
         String expectedIsbn = "1234567890123";
         String isbn = "1234567890123";
 
-        when(bookRepository.findById(isbn)).thenReturn(Optional.empty());
+        when(bookRepository.existsById(isbn)).thenReturn(false);
 
         assertThatThrownBy(() -> bookLendingManager.returnBook(userId, isbn))
                 .isInstanceOf(NoSuchElementException.class);
-        verify(bookRepository, times(1)).findById(expectedIsbn);
-        verify(bookRepository, never()).save(any());
+        verify(bookRepository, times(1)).existsById(expectedIsbn);
+        verify(bookRepository, never()).incrementAvailableStock(any());
         verify(bookCheckoutHistoryRepository, never()).updateReturnAt(any(), any(), any());
     }
 
@@ -569,18 +455,18 @@ public class BookLendingManagerTest {
     void shouldThrowNoSuchElementExceptionWhenReturnBookWithoutActiveCheckoutHistory() {
         String userId = "userId";
 
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
-        book.setAvailableStock(1);
 
-        when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
+        when(bookRepository.existsById(book.getIsbn())).thenReturn(true);
         when(bookCheckoutHistoryRepository.updateReturnAt(eq(userId), eq(book.getIsbn()), any(LocalDateTime.class))).thenReturn(0);
 
         assertThatThrownBy(() -> bookLendingManager.returnBook(userId, book.getIsbn()))
                 .isInstanceOf(NoSuchElementException.class);
-        verify(bookRepository, times(1)).findById(book.getIsbn());
+        verify(bookRepository, times(1)).existsById(book.getIsbn());
         verify(bookCheckoutHistoryRepository, times(1)).updateReturnAt(eq(userId), eq(book.getIsbn()), any(LocalDateTime.class));
-        verify(bookRepository, never()).save(any());
+        verify(bookRepository, never()).incrementAvailableStock(any());
+        verify(userLoanSummaryRepository, never()).addActiveLoanCount(any(), anyInt());
     }
 
     @Test
@@ -588,18 +474,78 @@ public class BookLendingManagerTest {
     void shouldThrowDataAccessExceptionWhenFailedToUpdateCheckoutHistory() {
         String userId = "userId";
 
-        Book book = new Book();
+        BookSummary book = new BookSummary();
         book.setIsbn("1234567890123");
-        book.setAvailableStock(1);
 
-        when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
+        when(bookRepository.existsById(book.getIsbn())).thenReturn(true);
         when(bookCheckoutHistoryRepository.updateReturnAt(eq(userId), eq(book.getIsbn()), any(LocalDateTime.class)))
                 .thenThrow(new DataAccessResourceFailureException("DBへの接続ができませんでした。"));
 
         assertThatThrownBy(() -> bookLendingManager.returnBook(userId, book.getIsbn()))
                 .isInstanceOf(DataAccessException.class);
-        verify(bookRepository, times(1)).findById(book.getIsbn());
+        verify(bookRepository, times(1)).existsById(book.getIsbn());
         verify(bookCheckoutHistoryRepository, times(1)).updateReturnAt(eq(userId), eq(book.getIsbn()), any(LocalDateTime.class));
-        verify(bookRepository, never()).save(any());
+        verify(bookRepository, never()).incrementAvailableStock(any());
+    }
+
+    @Test
+    @DisplayName("キャッシュ済みの貸出中の書籍が変更直前の状態の場合、DBから再取得せずに貸出済みかを判定する")
+    void shouldUseCachedActiveLoansWhenLoanVersionMatches() {
+        String userId = "userId";
+        BookSummary book = new BookSummary();
+        book.setIsbn("1234567890123");
+
+        when(userLoanSummaryRepository.findLoanVersionByUserId(userId)).thenReturn(Optional.of(1L), Optional.of(2L));
+        when(bookRepository.findSummariesByIsbnIn(List.of(book.getIsbn()))).thenReturn(List.of(book));
+        when(bookRepository.decrementAvailableStock(List.of(book.getIsbn()))).thenReturn(new int[]{1});
+        when(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)).thenReturn(Collections.emptySet());
+
+        bookLendingManager.checkout(userId, List.of(book.getIsbn()));
+        bookLendingManager.onUserLoansChanged(new UserLoansChangedEvent(userId, 1L, Set.of(book.getIsbn()), Set.of()));
+        List<BookSummary> notCheckoutBooks = bookLendingManager.checkout(userId, List.of(book.getIsbn()));
+
+        assertThat(notCheckoutBooks).containsExactly(book);
+        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedIsbnsByUserId(userId);
+        verify(bookRepository, times(1)).decrementAvailableStock(List.of(book.getIsbn()));
+    }
+
+    @Test
+    @DisplayName("他のトランザクションで貸出状況が変更されていた場合、キャッシュを使わずにDBから再取得する")
+    void shouldReloadActiveLoansWhenLoanVersionDoesNotMatch() {
+        String userId = "userId";
+        BookSummary book = new BookSummary();
+        book.setIsbn("1234567890123");
+
+        when(userLoanSummaryRepository.findLoanVersionByUserId(userId)).thenReturn(Optional.of(1L), Optional.of(3L));
+        when(bookRepository.findSummariesByIsbnIn(List.of(book.getIsbn()))).thenReturn(List.of(book));
+        when(bookRepository.decrementAvailableStock(List.of(book.getIsbn()))).thenReturn(new int[]{1});
+        when(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)).thenReturn(Collections.emptySet());
+
+        bookLendingManager.checkout(userId, List.of(book.getIsbn()));
+        List<BookSummary> notCheckoutBooks = bookLendingManager.checkout(userId, List.of(book.getIsbn()));
+
+        assertThat(notCheckoutBooks).isEmpty();
+        verify(bookCheckoutHistoryRepository, times(2)).findUnreturnedIsbnsByUserId(userId);
+    }
+
+    @Test
+    @DisplayName("返却がコミットされた場合、キャッシュ済みの貸出中の書籍から返却した書籍を除く")
+    void shouldRemoveReturnedBookFromCachedActiveLoans() {
+        String userId = "userId";
+        BookSummary book = new BookSummary();
+        book.setIsbn("1234567890123");
+
+        when(userLoanSummaryRepository.findLoanVersionByUserId(userId)).thenReturn(Optional.of(1L), Optional.of(3L));
+        when(bookRepository.findSummariesByIsbnIn(List.of(book.getIsbn()))).thenReturn(List.of(book));
+        when(bookRepository.decrementAvailableStock(List.of(book.getIsbn()))).thenReturn(new int[]{1});
+        when(bookCheckoutHistoryRepository.findUnreturnedIsbnsByUserId(userId)).thenReturn(Set.of(book.getIsbn()));
+
+        bookLendingManager.checkout(userId, List.of(book.getIsbn()));
+        bookLendingManager.onUserLoansChanged(new UserLoansChangedEvent(userId, 1L, Set.of(), Set.of()));
+        bookLendingManager.onUserLoansChanged(new UserLoansChangedEvent(userId, 2L, Set.of(), Set.of(book.getIsbn())));
+        List<BookSummary> notCheckoutBooks = bookLendingManager.checkout(userId, List.of(book.getIsbn()));
+
+        assertThat(notCheckoutBooks).isEmpty();
+        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedIsbnsByUserId(userId);
     }
 }
@@ -0,0 +1,208 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.projection.BookSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 人気書籍に貸出・返却が集中した場合の負荷テスト
+ * 通常のtestタスクからは除外し、stressTestタスクで実行する
+ * 仮想ユーザ数などはシステムプロパティ(stress.users, stress.iterations, stress.stock, stress.maxP99Millis)で変更できる
+ */
+@Tag("stress")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lending_stress;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class BookLendingStressTest {
+
+    /**
+     * 負荷をかける書籍のISBN
+     */
+    private static final String HOT_ISBN = "9990000000001";
+
+    /**
+     * 仮想ユーザ数
+     */
+    private static final int USERS = Integer.getInteger("stress.users", 200);
+
+    /**
+     * 仮想ユーザごとの貸出・返却の繰り返し回数
+     */
+    private static final int ITERATIONS = Integer.getInteger("stress.iterations", 20);
+
+    /**
+     * 負荷をかける書籍の在庫数
+     */
+    private static final int STOCK = Integer.getInteger("stress.stock", 3);
+
+    /**
+     * 貸出のp99レイテンシの上限(ミリ秒、0以下の場合は判定しない)
+     */
+    private static final long MAX_P99_MILLIS = Long.getLong("stress.maxP99Millis", 0L);
+
+    @Autowired
+    private BookLendingManager bookLendingManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<String> userIds;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO BOOKS (ISBN, TITLE, AUTHOR, PUBLISHER, STOCK, AVAILABLE_STOCK, CREATED_AT, UPDATED_AT) "
+                + "VALUES (?, '新刊', 'Test Author', 'Test Publisher', ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", HOT_ISBN, STOCK, STOCK);
+        userIds = new ArrayList<>();
+        List<Object[]> accounts = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String userId = UUID.randomUUID().toString();
+            userIds.add(userId);
+            accounts.add(new Object[] {userId, "stress" + i + "@solxyz.co.jp"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO ACCOUNTS (USER_ID, IS_ADMIN, EMAIL, USERNAME, PASSWORD, UPDATED_AT) "
+                + "VALUES (?, 0, ?, 'stress', '', CURRENT_TIMESTAMP)", accounts);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM BOOK_CHECKOUT_HISTORY WHERE ISBN = ?", HOT_ISBN);
+        jdbcTemplate.update("DELETE FROM BOOKS WHERE ISBN = ?", HOT_ISBN);
+        jdbcTemplate.update("DELETE FROM ACCOUNTS WHERE USERNAME = 'stress'");
+    }
+
+    @Test
+    @DisplayName("在庫の少ない書籍に貸出・返却が集中しても、利用可能在庫数が0未満や在庫数超過にならない")
+    void shouldKeepStockInvariantUnderContention() throws Exception {
+        AtomicInteger invariantViolations = new AtomicInteger();
+        ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+        monitor.scheduleAtFixedRate(() -> {
+            if (!isStockInvariantSatisfied()) {
+                invariantViolations.incrementAndGet();
+            }
+        }, 0, 5, TimeUnit.MILLISECONDS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<UserResult>> futures = new ArrayList<>();
+        for (String userId : userIds) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                return runUser(userId);
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        startSignal.countDown();
+        List<Long> checkoutLatencies = new ArrayList<>();
+        List<Long> returnLatencies = new ArrayList<>();
+        int rejectedCheckouts = 0;
+        int errors = 0;
+        for (Future<UserResult> future : futures) {
+            UserResult result = future.get();
+            checkoutLatencies.addAll(result.checkoutLatencies);
+            returnLatencies.addAll(result.returnLatencies);
+            rejectedCheckouts += result.rejectedCheckouts;
+            errors += result.errors;
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+        monitor.shutdown();
+        monitor.awaitTermination(1, TimeUnit.SECONDS);
+        if (!isStockInvariantSatisfied()) {
+            invariantViolations.incrementAndGet();
+        }
+
+        int operations = checkoutLatencies.size() + returnLatencies.size();
+        double throughput = operations / (elapsedNanos / 1_000_000_000.0);
+        double rejectedRate = (double) rejectedCheckouts / checkoutLatencies.size();
+        System.out.printf("""
+                        [stress] users=%d iterations=%d stock=%d elapsed=%.1fs
+                        [stress] throughput=%.1f ops/s (checkout=%d, return=%d)
+                        [stress] checkout p50=%.2fms p99=%.2fms / return p50=%.2fms p99=%.2fms
+                        [stress] failedCheckoutRate=%.1f%% errors=%d invariantViolations=%d
+                        """,
+                USERS, ITERATIONS, STOCK, elapsedNanos / 1_000_000_000.0,
+                throughput, checkoutLatencies.size(), returnLatencies.size(),
+                percentileMillis(checkoutLatencies, 50), percentileMillis(checkoutLatencies, 99),
+                percentileMillis(returnLatencies, 50), percentileMillis(returnLatencies, 99),
+                rejectedRate * 100, errors, invariantViolations.get());
+
+        assertThat(invariantViolations.get()).isZero();
+        assertThat(errors).isZero();
+        Map<String, Object> stock = jdbcTemplate.queryForMap("SELECT STOCK, AVAILABLE_STOCK FROM BOOKS WHERE ISBN = ?", HOT_ISBN);
+        assertThat(stock.get("AVAILABLE_STOCK")).isEqualTo(stock.get("STOCK"));
+        if (MAX_P99_MILLIS > 0) {
+            assertThat(percentileMillis(checkoutLatencies, 99)).isLessThanOrEqualTo((double) MAX_P99_MILLIS);
+        }
+    }
+
+    private UserResult runUser(String userId) {
+        UserResult result = new UserResult();
+        for (int i = 0; i < ITERATIONS; i++) {
+            try {
+                long checkoutStartedAt = System.nanoTime();
+                List<BookSummary> notCheckoutBooks = bookLendingManager.checkout(userId, List.of(HOT_ISBN));
+                result.checkoutLatencies.add(System.nanoTime() - checkoutStartedAt);
+                if (!notCheckoutBooks.isEmpty()) {
+                    result.rejectedCheckouts++;
+                    continue;
+                }
+
+                long returnStartedAt = System.nanoTime();
+                bookLendingManager.returnBook(userId, HOT_ISBN);
+                result.returnLatencies.add(System.nanoTime() - returnStartedAt);
+            } catch (RuntimeException e) {
+                result.errors++;
+            }
+        }
+        return result;
+    }
+
+    private boolean isStockInvariantSatisfied() {
+        Map<String, Object> stock = jdbcTemplate.queryForMap("SELECT STOCK, AVAILABLE_STOCK FROM BOOKS WHERE ISBN = ?", HOT_ISBN);
+        int availableStock = ((Number) stock.get("AVAILABLE_STOCK")).intValue();
+        return availableStock >= 0 && availableStock <= ((Number) stock.get("STOCK")).intValue();
+    }
+
+    private double percentileMillis(List<Long> latencies, int percentile) {
+        if (latencies.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+    }
+
+    /**
+     * 仮想ユーザごとの計測結果
+     */
+    private static class UserResult {
+        private final List<Long> checkoutLatencies = new ArrayList<>();
+        private final List<Long> returnLatencies = new ArrayList<>();
+        private int rejectedCheckouts;
+        private int errors;
+    }
+}
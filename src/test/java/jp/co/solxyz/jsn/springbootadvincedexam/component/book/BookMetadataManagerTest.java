@@ -1,7 +1,8 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
 
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCheckoutHistory;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,11 +11,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -40,6 +40,9 @@ public class BookMetadataManagerTest {
     @Mock
     private BookCheckoutHistoryRepository bookCheckoutHistoryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private final LocalDateTime TEST_TIME = LocalDateTime.of(2021, 1, 1, 0, 0, 0);
 
     @BeforeEach
@@ -82,6 +85,7 @@ public class BookMetadataManagerTest {
 
         verify(bookRepository, times(1)).findById(expectedBook.getIsbn());
         verify(bookRepository, times(1)).save(expectedBook);
+        verify(eventPublisher, times(1)).publishEvent(new BookCatalogChangedEvent(expectedBook.getIsbn(), ChangeType.REGISTERED));
     }
 
     @Test
@@ -96,6 +100,7 @@ public class BookMetadataManagerTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("指定されたISBNの書籍が既に存在します。");
         verify(bookRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -137,14 +142,15 @@ public class BookMetadataManagerTest {
 
         when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
         when(bookRepository.updateBook(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getStock(),
-                book.getAvailableStock(), book.getDescription(), book.getUpdatedAt(), TEST_TIME)).thenReturn(1);
+                book.getDescription(), book.getUpdatedAt(), TEST_TIME)).thenReturn(1);
 
         bookMetadataManager.updateBook(book, TEST_TIME);
 
         verify(bookRepository, times(1)).findById(expectedBook.getIsbn());
         verify(bookRepository, times(1)).updateBook(expectedBook.getIsbn(), expectedBook.getTitle(), expectedBook.getAuthor(),
                 expectedBook.getPublisher(), expectedBook.getStock(),
-                expectedBook.getAvailableStock(), expectedBook.getDescription(), expectedBook.getUpdatedAt(), TEST_TIME);
+                expectedBook.getDescription(), expectedBook.getUpdatedAt(), TEST_TIME);
+        verify(eventPublisher, times(1)).publishEvent(new BookCatalogChangedEvent(expectedBook.getIsbn(), ChangeType.UPDATED));
     }
 
     @Test
@@ -162,7 +168,7 @@ public class BookMetadataManagerTest {
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("指定されたISBNの書籍が存在しない、または削除されています。");
         verify(bookRepository, times(1)).findById(expectedBook.getIsbn());
-        verify(bookRepository, never()).updateBook(any(), any(), any(), any(), anyInt(), anyInt(), any(), any(), any());
+        verify(bookRepository, never()).updateBook(any(), any(), any(), any(), anyInt(), any(), any(), any());
     }
 
     @Test
@@ -190,7 +196,7 @@ public class BookMetadataManagerTest {
 
         when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
         when(bookRepository.updateBook(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getStock(),
-                book.getAvailableStock(), book.getDescription(), book.getUpdatedAt(), TEST_TIME)).thenThrow(
+                book.getDescription(), book.getUpdatedAt(), TEST_TIME)).thenThrow(
                 new DataAccessException("DBへの接続ができませんでした。") {
                 });
 
@@ -200,7 +206,7 @@ public class BookMetadataManagerTest {
         verify(bookRepository, times(1)).findById(expectedBook.getIsbn());
         verify(bookRepository, times(1)).updateBook(expectedBook.getIsbn(), expectedBook.getTitle(), expectedBook.getAuthor(),
                 expectedBook.getPublisher(), expectedBook.getStock(),
-                expectedBook.getAvailableStock(), expectedBook.getDescription(), expectedBook.getUpdatedAt(), TEST_TIME);
+                expectedBook.getDescription(), expectedBook.getUpdatedAt(), TEST_TIME);
     }
 
     @Test
@@ -228,7 +234,7 @@ public class BookMetadataManagerTest {
 
         when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
         when(bookRepository.updateBook(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getStock(),
-                book.getAvailableStock(), book.getDescription(), book.getUpdatedAt(), TEST_TIME)).thenReturn(0);
+                book.getDescription(), book.getUpdatedAt(), TEST_TIME)).thenReturn(0);
 
         assertThatThrownBy(() -> bookMetadataManager.updateBook(book, TEST_TIME))
                 .isInstanceOf(DataAccessException.class)
@@ -236,7 +242,8 @@ public class BookMetadataManagerTest {
         verify(bookRepository, times(1)).findById(expectedBook.getIsbn());
         verify(bookRepository, times(1)).updateBook(expectedBook.getIsbn(), expectedBook.getTitle(), expectedBook.getAuthor(),
                 expectedBook.getPublisher(), expectedBook.getStock(),
-                expectedBook.getAvailableStock(), expectedBook.getDescription(), expectedBook.getUpdatedAt(), TEST_TIME);
+                expectedBook.getDescription(), expectedBook.getUpdatedAt(), TEST_TIME);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -249,7 +256,7 @@ public class BookMetadataManagerTest {
         book.setIsbn("1234567890123");
 
         when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByIsbn(book.getIsbn())).thenReturn(Collections.emptyList());
+        when(bookCheckoutHistoryRepository.existsByIsbnAndReturnAtIsNull(book.getIsbn())).thenReturn(false);
         doNothing().when(bookRepository).delete(book);
 
         try {
@@ -260,8 +267,9 @@ public class BookMetadataManagerTest {
         }
 
         verify(bookRepository, times(1)).findById(expectedBook.getIsbn());
-        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBooksByIsbn(expectedBook.getIsbn());
+        verify(bookCheckoutHistoryRepository, times(1)).existsByIsbnAndReturnAtIsNull(expectedBook.getIsbn());
         verify(bookRepository, times(1)).deleteById(expectedBook.getIsbn());
+        verify(eventPublisher, times(1)).publishEvent(new BookCatalogChangedEvent(expectedBook.getIsbn(), ChangeType.DELETED));
     }
 
     @Test
@@ -285,12 +293,13 @@ public class BookMetadataManagerTest {
         book.setIsbn("1234567890123");
 
         when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByIsbn(book.getIsbn())).thenReturn(List.of(new BookCheckoutHistory()));
+        when(bookCheckoutHistoryRepository.existsByIsbnAndReturnAtIsNull(book.getIsbn())).thenReturn(true);
 
         assertThatThrownBy(() -> bookMetadataManager.deleteByIsbn(book.getIsbn()))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("貸し出し中の書籍は削除できません。");
         verify(bookRepository, never()).deleteById(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -303,7 +312,7 @@ public class BookMetadataManagerTest {
         book.setIsbn("1234567890123");
 
         when(bookRepository.findById(book.getIsbn())).thenReturn(Optional.of(book));
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByIsbn(book.getIsbn())).thenReturn(Collections.emptyList());
+        when(bookCheckoutHistoryRepository.existsByIsbnAndReturnAtIsNull(book.getIsbn())).thenReturn(false);
         doThrow(new DataAccessException("DBへの接続ができませんでした。") {
         }).when(bookRepository).deleteById(book.getIsbn());
 
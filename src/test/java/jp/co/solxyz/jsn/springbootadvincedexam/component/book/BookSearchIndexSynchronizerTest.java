@@ -0,0 +1,110 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent;
+import jp.co.solxyz.jsn.springbootadvincedexam.component.book.event.BookCatalogChangedEvent.ChangeType;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookSearchIndexSynchronizerTest {
+
+    @InjectMocks
+    private BookSearchIndexSynchronizer bookSearchIndexSynchronizer;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("索引の再構築時、ISBN順に分割して全書籍を読み込む")
+    void shouldRebuildIndexInBatches() {
+        List<Book> firstBatch = IntStream.range(0, 1000)
+                .mapToObj(index -> createBook(String.format("9784000%06d", index)))
+                .toList();
+        List<Book> secondBatch = List.of(createBook("9784001000000"));
+        when(bookRepository.findByIsbnGreaterThanOrderByIsbnAsc("", Limit.of(1000))).thenReturn(firstBatch);
+        when(bookRepository.findByIsbnGreaterThanOrderByIsbnAsc("9784000000999", Limit.of(1000))).thenReturn(secondBatch);
+
+        bookSearchIndexSynchronizer.rebuild();
+
+        InOrder order = inOrder(bookSearchIndex);
+        order.verify(bookSearchIndex).clear();
+        order.verify(bookSearchIndex).putAll(firstBatch);
+        order.verify(bookSearchIndex).putAll(secondBatch);
+        verify(bookRepository, times(2)).findByIsbnGreaterThanOrderByIsbnAsc(any(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("書籍が登録された場合、DBから読み込んだ書籍を索引に追加する")
+    void shouldPutBookWhenBookIsRegistered() {
+        Book book = createBook("9784873117904");
+        when(bookRepository.findById("9784873117904")).thenReturn(Optional.of(book));
+
+        bookSearchIndexSynchronizer.onCatalogChanged(new BookCatalogChangedEvent("9784873117904", ChangeType.REGISTERED));
+
+        verify(bookSearchIndex, times(1)).put(book);
+        verify(bookSearchIndex, never()).remove(any());
+    }
+
+    @Test
+    @DisplayName("更新された書籍がDBに存在しない場合、索引から削除する")
+    void shouldRemoveBookWhenUpdatedBookDoesNotExist() {
+        when(bookRepository.findById("9784873117904")).thenReturn(Optional.empty());
+
+        bookSearchIndexSynchronizer.onCatalogChanged(new BookCatalogChangedEvent("9784873117904", ChangeType.UPDATED));
+
+        verify(bookSearchIndex, times(1)).remove("9784873117904");
+        verify(bookSearchIndex, never()).put(any());
+    }
+
+    @Test
+    @DisplayName("書籍が削除された場合、DBを参照せずに索引から削除する")
+    void shouldRemoveBookWhenBookIsDeleted() {
+        bookSearchIndexSynchronizer.onCatalogChanged(new BookCatalogChangedEvent("9784873117904", ChangeType.DELETED));
+
+        verify(bookSearchIndex, times(1)).remove("9784873117904");
+        verify(bookRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("在庫数のみ変更された場合、索引を更新しない")
+    void shouldIgnoreStockChange() {
+        bookSearchIndexSynchronizer.onCatalogChanged(new BookCatalogChangedEvent("9784873117904", ChangeType.STOCK_CHANGED));
+
+        verify(bookRepository, never()).findById(any());
+        verify(bookSearchIndex, never()).put(any());
+        verify(bookSearchIndex, never()).remove(any());
+    }
+
+    private Book createBook(String isbn) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Test Title");
+        return book;
+    }
+}
@@ -0,0 +1,168 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.component.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex = new BookSearchIndex();
+        bookSearchIndex.putAll(List.of(
+                createBook("9784873117904", "リーダブルコード", "Dustin Boswell", "オライリー・ジャパン", "より良いコードを書くためのシンプルで実践的なテクニック"),
+                createBook("9784873119380", "Javaパフォーマンス", "Scott Oaks", "オライリー・ジャパン", "Javaアプリケーションの性能を改善する"),
+                createBook("9784297124960", "良いコード／悪いコードで学ぶ設計入門", "仙塲大也", "技術評論社", "保守しやすい成長し続けるコードの書き方")));
+    }
+
+    @Test
+    @DisplayName("日本語の部分文字列で検索した場合、一致する書籍のISBNが返される")
+    void shouldFindBooksByJapaneseSubstring() {
+        List<String> actual = bookSearchIndex.search("コード", 10);
+
+        assertThat(actual).containsExactlyInAnyOrder("9784873117904", "9784297124960");
+    }
+
+    @Test
+    @DisplayName("タイトルが検索語で始まる書籍が先頭に並ぶ")
+    void shouldRankTitlePrefixMatchFirst() {
+        List<String> actual = bookSearchIndex.search("リーダブル", 10);
+
+        assertThat(actual).containsExactly("9784873117904");
+        assertThat(bookSearchIndex.search("java", 10)).first().isEqualTo("9784873119380");
+    }
+
+    @Test
+    @DisplayName("全角英数字や大文字で検索した場合も正規化して一致する")
+    void shouldNormalizeQueryAndDocument() {
+        List<String> actual = bookSearchIndex.search("ＪＡＶＡ", 10);
+
+        assertThat(actual).containsExactly("9784873119380");
+    }
+
+    @Test
+    @DisplayName("空白区切りの検索語は全てを含む書籍のみ返される")
+    void shouldMatchAllTermsSeparatedBySpace() {
+        List<String> actual = bookSearchIndex.search("オライリー 性能", 10);
+
+        assertThat(actual).containsExactly("9784873119380");
+    }
+
+    @Test
+    @DisplayName("バイグラムが全て含まれていても連続して出現しない場合は一致しない")
+    void shouldNotMatchWhenBigramsAreNotContiguous() {
+        // 「東京」「京都」のバイグラムはどちらも含むが「東京都」とは連続していない
+        bookSearchIndex.put(createBook("9784000000001", "東京 京都 散歩", "Test Author", "Test Publisher", ""));
+
+        assertThat(bookSearchIndex.search("東京都", 10)).isEmpty();
+        assertThat(bookSearchIndex.search("東京", 10)).containsExactly("9784000000001");
+    }
+
+    @Test
+    @DisplayName("1文字の検索語でも一致する書籍が返される")
+    void shouldFindBooksBySingleCharacter() {
+        List<String> actual = bookSearchIndex.search("塲", 10);
+
+        assertThat(actual).containsExactly("9784297124960");
+    }
+
+    @Test
+    @DisplayName("最大件数を超える場合は最大件数まで返される")
+    void shouldLimitSearchResults() {
+        List<String> actual = bookSearchIndex.search("コ", 1);
+
+        assertThat(actual).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("ページを指定した場合、そのページのISBNと一致した全件数が返される")
+    void shouldReturnRequestedPageAndTotalCount() {
+        BookSearchIndex.SearchHits firstPage = bookSearchIndex.search("コード", 0, 1);
+        BookSearchIndex.SearchHits secondPage = bookSearchIndex.search("コード", 1, 1);
+        BookSearchIndex.SearchHits lastPage = bookSearchIndex.search("コード", 2, 1);
+
+        assertThat(firstPage.isbnList()).containsExactly("9784873117904");
+        assertThat(secondPage.isbnList()).containsExactly("9784297124960");
+        assertThat(lastPage.isbnList()).isEmpty();
+        assertThat(firstPage.totalCount()).isEqualTo(2);
+        assertThat(lastPage.totalCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("書籍を更新した場合、更新後の内容で検索される")
+    void shouldReplaceIndexedBookWhenPutAgain() {
+        bookSearchIndex.put(createBook("9784873117904", "新しいタイトル", "Dustin Boswell", "オライリー・ジャパン", ""));
+
+        assertThat(bookSearchIndex.search("リーダブル", 10)).isEmpty();
+        assertThat(bookSearchIndex.search("新しい", 10)).containsExactly("9784873117904");
+        assertThat(bookSearchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("書籍を削除した場合、検索結果に含まれない")
+    void shouldNotFindRemovedBook() {
+        bookSearchIndex.remove("9784873119380");
+
+        assertThat(bookSearchIndex.search("java", 10)).isEmpty();
+        assertThat(bookSearchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("書籍を繰り返し更新しても、文書の枠は増えない")
+    void shouldReuseDocumentSlotWhenPutAgain() {
+        for (int i = 0; i < 100; i++) {
+            bookSearchIndex.put(createBook("9784873117904", "リーダブルコード 第" + i + "版", "Dustin Boswell", "オライリー・ジャパン", ""));
+        }
+
+        assertThat(bookSearchIndex.documentSlotCount()).isEqualTo(3);
+        assertThat(bookSearchIndex.search("コード", 10)).containsExactly("9784873117904", "9784297124960");
+    }
+
+    @Test
+    @DisplayName("削除済みの枠が半分を超えた場合、枠を詰めても登録順に検索される")
+    void shouldCompactRemovedDocumentSlots() {
+        for (int i = 0; i < 100; i++) {
+            bookSearchIndex.put(createBook(String.format("978000000%04d", i), "テスト書籍" + i, "著者", "出版社", ""));
+        }
+        for (int i = 0; i < 90; i++) {
+            bookSearchIndex.remove(String.format("978000000%04d", i));
+        }
+
+        assertThat(bookSearchIndex.documentSlotCount()).isLessThan(103);
+        assertThat(bookSearchIndex.size()).isEqualTo(13);
+        assertThat(bookSearchIndex.search("テスト書籍", 3)).containsExactly("9780000000090", "9780000000091", "9780000000092");
+        assertThat(bookSearchIndex.search("コード", 10)).containsExactly("9784873117904", "9784297124960");
+    }
+
+    @Test
+    @DisplayName("検索語が空白のみの場合、空のリストが返される")
+    void shouldReturnEmptyListWhenQueryIsBlank() {
+        assertThat(bookSearchIndex.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("索引を空にした場合、何も検索されない")
+    void shouldFindNothingAfterClear() {
+        bookSearchIndex.clear();
+
+        assertThat(bookSearchIndex.search("コード", 10)).isEmpty();
+        assertThat(bookSearchIndex.size()).isZero();
+    }
+
+    private Book createBook(String isbn, String title, String author, String publisher, String description) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setPublisher(publisher);
+        book.setDescription(description);
+        return book;
+    }
+}
@@ -1,8 +1,7 @@
 package jp.co.solxyz.jsn.springbootadvincedexam.component.user;
 
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCheckoutHistory;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.user.UserAccount;
-import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.BookCheckoutHistoryRepository;
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book.UserLoanSummaryRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.user.UserAccountRepository;
 import jp.co.solxyz.jsn.springbootadvincedexam.util.PasswordUtility;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,7 +37,7 @@ class UserAccountManagerTest {
     UserAccountRepository userAccountRepository;
 
     @Mock
-    BookCheckoutHistoryRepository bookCheckoutHistoryRepository;
+    UserLoanSummaryRepository userLoanSummaryRepository;
 
     @Mock
     PasswordUtility passwordUtility;
@@ -508,7 +507,7 @@ class UserAccountManagerTest {
         String expectedUserId = "testUserId";
 
         when(userAccountRepository.findById(userId)).thenReturn(Optional.of(new UserAccount()));
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(List.of());
+        when(userLoanSummaryRepository.existsByUserIdAndActiveLoanCountGreaterThan(userId, 0)).thenReturn(false);
 
         try {
             userAccountManager.deleteUser(userId);
@@ -518,7 +517,7 @@ class UserAccountManagerTest {
         }
 
         verify(userAccountRepository, times(1)).findById(userId);
-        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBooksByUserId(userId);
+        verify(userLoanSummaryRepository, times(1)).existsByUserIdAndActiveLoanCountGreaterThan(userId, 0);
         verify(userAccountRepository, times(1)).deleteById(expectedUserId);
     }
 
@@ -535,7 +534,7 @@ class UserAccountManagerTest {
         assertThatThrownBy(() -> userAccountManager.deleteUser(userId))
                 .isInstanceOf(NoSuchElementException.class);
         verify(userAccountRepository, times(1)).findById(userId);
-        verify(bookCheckoutHistoryRepository, times(0)).findUnreturnedBooksByUserId(userId);
+        verify(userLoanSummaryRepository, times(0)).existsByUserIdAndActiveLoanCountGreaterThan(userId, 0);
         verify(userAccountRepository, times(0)).deleteById(userId);
     }
 
@@ -545,12 +544,12 @@ class UserAccountManagerTest {
         String userId = "testUserId";
 
         when(userAccountRepository.findById(userId)).thenReturn(Optional.of(new UserAccount()));
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(List.of(new BookCheckoutHistory()));
+        when(userLoanSummaryRepository.existsByUserIdAndActiveLoanCountGreaterThan(userId, 0)).thenReturn(true);
 
         assertThatThrownBy(() -> userAccountManager.deleteUser(userId))
                 .isInstanceOf(IllegalStateException.class);
         verify(userAccountRepository, times(1)).findById(userId);
-        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBooksByUserId(userId);
+        verify(userLoanSummaryRepository, times(1)).existsByUserIdAndActiveLoanCountGreaterThan(userId, 0);
         verify(userAccountRepository, times(0)).deleteById(userId);
     }
 
@@ -560,14 +559,14 @@ class UserAccountManagerTest {
         String userId = "testUserId";
 
         when(userAccountRepository.findById(userId)).thenReturn(Optional.of(new UserAccount()));
-        when(bookCheckoutHistoryRepository.findUnreturnedBooksByUserId(userId)).thenReturn(List.of());
+        when(userLoanSummaryRepository.existsByUserIdAndActiveLoanCountGreaterThan(userId, 0)).thenReturn(false);
 
         doThrow(DataAccessResourceFailureException.class).when(userAccountRepository).deleteById(userId);
 
         assertThatThrownBy(() -> userAccountManager.deleteUser(userId))
                 .isInstanceOf(DataAccessException.class);
         verify(userAccountRepository, times(1)).findById(userId);
-        verify(bookCheckoutHistoryRepository, times(1)).findUnreturnedBooksByUserId(userId);
+        verify(userLoanSummaryRepository, times(1)).existsByUserIdAndActiveLoanCountGreaterThan(userId, 0);
         verify(userAccountRepository, times(1)).deleteById(userId);
     }
 }
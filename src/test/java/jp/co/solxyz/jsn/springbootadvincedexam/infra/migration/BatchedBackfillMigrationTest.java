@@ -0,0 +1,112 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.migration;
+
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+public class BatchedBackfillMigrationTest {
+
+    @Mock
+    private Context context;
+
+    private SingleConnectionDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:batched_backfill;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE ITEMS (ID INTEGER PRIMARY KEY, NAME VARCHAR(20) NOT NULL, NORMALIZED_NAME VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO ITEMS (ID, NAME) SELECT X, 'Item' || X FROM SYSTEM_RANGE(1, 25)");
+        when(context.getConnection()).thenReturn(dataSource.getConnection());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE ITEMS");
+        dataSource.destroy();
+    }
+
+    @Test
+    @DisplayName("未補正の行がなくなるまで、1回の更新件数ずつ補正してコミットする")
+    void shouldBackfillAllRowsInBatches() throws Exception {
+        V99__BackfillNormalizedName migration = new V99__BackfillNormalizedName(
+                "UPDATE ITEMS SET NORMALIZED_NAME = LOWER(NAME) WHERE NORMALIZED_NAME IS NULL FETCH FIRST ? ROWS ONLY");
+
+        migration.migrate(context);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ITEMS WHERE NORMALIZED_NAME IS NULL", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT NORMALIZED_NAME FROM ITEMS WHERE ID = 25", String.class)).isEqualTo("item25");
+        assertThat(dataSource.getConnection().getAutoCommit()).isTrue();
+    }
+
+    @Test
+    @DisplayName("補正対象の行がない場合、何も更新せずに終了する")
+    void shouldFinishWhenNothingToBackfill() throws Exception {
+        jdbcTemplate.update("UPDATE ITEMS SET NORMALIZED_NAME = 'done'");
+        V99__BackfillNormalizedName migration = new V99__BackfillNormalizedName(
+                "UPDATE ITEMS SET NORMALIZED_NAME = LOWER(NAME) WHERE NORMALIZED_NAME IS NULL FETCH FIRST ? ROWS ONLY");
+
+        migration.migrate(context);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ITEMS WHERE NORMALIZED_NAME = 'done'", Integer.class)).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("途中で失敗した場合、コミット済みのバッチは残り、例外をそのままスローする")
+    void shouldKeepCommittedBatchesWhenBackfillFails() throws Exception {
+        // ID 20以降の行で桁あふれを起こし、2回目のバッチ(ID 11〜20)で失敗させる
+        V99__BackfillNormalizedName migration = new V99__BackfillNormalizedName(
+                "UPDATE ITEMS SET NORMALIZED_NAME = CASE WHEN ID >= 20 THEN REPEAT('x', 30) ELSE LOWER(NAME) END "
+                        + "WHERE ID IN (SELECT ID FROM ITEMS WHERE NORMALIZED_NAME IS NULL ORDER BY ID FETCH FIRST ? ROWS ONLY)");
+
+        assertThatThrownBy(() -> migration.migrate(context)).isInstanceOf(SQLException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ITEMS WHERE NORMALIZED_NAME IS NOT NULL", Integer.class)).isEqualTo(10);
+        assertThat(dataSource.getConnection().getAutoCommit()).isTrue();
+    }
+
+    @Test
+    @DisplayName("バッチごとにコミットするため、Flywayのトランザクション内では実行しない")
+    void shouldNotExecuteInTransaction() {
+        V99__BackfillNormalizedName migration = new V99__BackfillNormalizedName("UPDATE ITEMS SET NAME = NAME");
+
+        assertThat(migration.canExecuteInTransaction()).isFalse();
+    }
+
+    /**
+     * テスト用のバックフィル(1回の更新件数は10件)
+     */
+    private static class V99__BackfillNormalizedName extends BatchedBackfillMigration {
+
+        private final String batchUpdateSql;
+
+        V99__BackfillNormalizedName(String batchUpdateSql) {
+            this.batchUpdateSql = batchUpdateSql;
+        }
+
+        @Override
+        protected String getBatchUpdateSql() {
+            return batchUpdateSql;
+        }
+
+        @Override
+        protected int getBatchSize() {
+            return 10;
+        }
+    }
+}
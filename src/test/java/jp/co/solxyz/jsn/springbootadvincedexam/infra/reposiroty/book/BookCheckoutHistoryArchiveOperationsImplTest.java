@@ -0,0 +1,85 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookCheckoutHistoryArchiveOperationsImplTest {
+
+    private static final String USER_ID = "f3d6bcdc-6c32-45b6-9aea-1aa6d36b6b17";
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BookCheckoutHistoryArchiveOperationsImpl archiveOperations;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:checkout_history_archive;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/seed")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        archiveOperations = new BookCheckoutHistoryArchiveOperationsImpl(jdbcTemplate);
+
+        insertHistory("rental-old-1", "9784814400072", CUTOFF.minusDays(30), CUTOFF.minusDays(20));
+        insertHistory("rental-old-2", "9784814400515", CUTOFF.minusDays(30), CUTOFF.minusDays(10));
+        insertHistory("rental-old-3", "9784814400690", CUTOFF.minusDays(30), CUTOFF.minusDays(5));
+        insertHistory("rental-recent", "9784814400072", CUTOFF.minusDays(3), CUTOFF.plusDays(1));
+        insertHistory("rental-active", "9784814400072", CUTOFF.minusDays(30), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("返却日時が基準日時より前の貸出履歴を、返却日時の古い順に最大件数までアーカイブテーブルへ移動する")
+    void shouldArchiveOldestReturnedHistoriesUpToBatchSize() {
+        int archivedCount = archiveOperations.archiveReturnedBefore(CUTOFF, 2);
+
+        assertThat(archivedCount).isEqualTo(2);
+        assertThat(archivedRentalIds()).containsExactly("rental-old-1", "rental-old-2");
+        assertThat(rentalIds()).containsExactly("rental-active", "rental-old-3", "rental-recent");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT ISBN FROM BOOK_CHECKOUT_HISTORY_ARCHIVE WHERE TRIM(RENTAL_ID) = 'rental-old-2'", String.class))
+                .isEqualTo("9784814400515");
+    }
+
+    @Test
+    @DisplayName("移動対象がなくなるまで繰り返した場合、返却から期間が経過していない履歴と貸出中の履歴は残る")
+    void shouldKeepRecentAndActiveHistories() {
+        assertThat(archiveOperations.archiveReturnedBefore(CUTOFF, 2)).isEqualTo(2);
+        assertThat(archiveOperations.archiveReturnedBefore(CUTOFF, 2)).isEqualTo(1);
+        assertThat(archiveOperations.archiveReturnedBefore(CUTOFF, 2)).isZero();
+
+        assertThat(archivedRentalIds()).containsExactly("rental-old-1", "rental-old-2", "rental-old-3");
+        assertThat(rentalIds()).containsExactly("rental-active", "rental-recent");
+    }
+
+    private void insertHistory(String rentalId, String isbn, LocalDateTime rentalAt, LocalDateTime returnAt) {
+        jdbcTemplate.update("INSERT INTO BOOK_CHECKOUT_HISTORY (RENTAL_ID, ISBN, USER_ID, RENTAL_AT, RETURN_AT) VALUES (?, ?, ?, ?, ?)",
+                rentalId, isbn, USER_ID, rentalAt, returnAt);
+    }
+
+    private List<String> rentalIds() {
+        return jdbcTemplate.queryForList("SELECT TRIM(RENTAL_ID) FROM BOOK_CHECKOUT_HISTORY ORDER BY RENTAL_ID", String.class);
+    }
+
+    private List<String> archivedRentalIds() {
+        return jdbcTemplate.queryForList("SELECT TRIM(RENTAL_ID) FROM BOOK_CHECKOUT_HISTORY_ARCHIVE ORDER BY RETURN_AT", String.class);
+    }
+}
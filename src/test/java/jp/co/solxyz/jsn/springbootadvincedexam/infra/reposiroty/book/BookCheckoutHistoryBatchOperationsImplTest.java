@@ -0,0 +1,96 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCheckoutHistory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookCheckoutHistoryBatchOperationsImplTest {
+
+    private static final String USER_ID = "f3d6bcdc-6c32-45b6-9aea-1aa6d36b6b17";
+
+    private static final LocalDateTime RENTAL_AT = LocalDateTime.of(2026, 5, 17, 10, 30);
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BookCheckoutHistoryBatchOperationsImpl batchOperations;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:checkout_history_batch;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/seed")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        batchOperations = new BookCheckoutHistoryBatchOperationsImpl(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("複数の貸出履歴をまとめて登録し、貸出履歴ごとの登録件数を返す")
+    void shouldInsertAllHistories() {
+        List<BookCheckoutHistory> histories = List.of(
+                history("00000000-0000-0000-0000-000000000001", "9784814400072"),
+                history("00000000-0000-0000-0000-000000000002", "9784814400515"));
+
+        int[] insertedCounts = batchOperations.insertAll(histories);
+
+        assertThat(insertedCounts).containsExactly(1, 1);
+        Map<String, Object> inserted = jdbcTemplate.queryForMap(
+                "SELECT ISBN, USER_ID, RENTAL_AT, RETURN_AT, VERSION FROM BOOK_CHECKOUT_HISTORY WHERE RENTAL_ID = ?",
+                "00000000-0000-0000-0000-000000000002");
+        assertThat(inserted.get("ISBN")).isEqualTo("9784814400515");
+        assertThat(inserted.get("USER_ID")).isEqualTo(USER_ID);
+        assertThat(((Timestamp) inserted.get("RENTAL_AT")).toLocalDateTime()).isEqualTo(RENTAL_AT);
+        assertThat(inserted.get("RETURN_AT")).isNull();
+        assertThat(inserted.get("VERSION")).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("登録する貸出履歴が空の場合、DBを更新せずに空の配列を返す")
+    void shouldReturnEmptyArrayWhenHistoriesIsEmpty() {
+        int[] insertedCounts = batchOperations.insertAll(Collections.emptyList());
+
+        assertThat(insertedCounts).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_CHECKOUT_HISTORY", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("同じユーザが同じ書籍を重複して借りる貸出履歴を登録した場合、DataAccessExceptionのサブクラスが発生する")
+    void shouldThrowDataAccessExceptionWhenActiveLoanIsDuplicated() {
+        List<BookCheckoutHistory> histories = List.of(
+                history("00000000-0000-0000-0000-000000000001", "9784814400072"),
+                history("00000000-0000-0000-0000-000000000002", "9784814400072"));
+
+        assertThatThrownBy(() -> batchOperations.insertAll(histories)).isInstanceOf(DataAccessException.class);
+    }
+
+    private BookCheckoutHistory history(String rentalId, String isbn) {
+        BookCheckoutHistory history = new BookCheckoutHistory();
+        history.setRentalId(rentalId);
+        history.setIsbn(isbn);
+        history.setUserId(USER_ID);
+        history.setRentalAt(RENTAL_AT);
+        return history;
+    }
+}
@@ -0,0 +1,91 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 書籍貸し出し履歴の検索・更新が、全件走査ではなくインデックスを使用することを
+ * Flywayのマイグレーションで作成したスキーマに対するH2の実行計画(EXPLAIN)で確認する
+ */
+public class BookCheckoutHistoryQueryPlanTest {
+
+    private static final String USER_ID = "f3d6bcdc-6c32-45b6-9aea-1aa6d36b6b17";
+
+    private static final String ISBN = "9784814400072";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:checkout_history_plan;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/seed")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // 返却済みの履歴を蓄積した状態で実行計画を確認する
+        // 外部キー用に自動作成される単一列のインデックスではなく、返却日時を含むインデックスが選ばれることを確認する
+        jdbcTemplate.update("INSERT INTO BOOK_CHECKOUT_HISTORY (RENTAL_ID, ISBN, USER_ID, RENTAL_AT, RETURN_AT) "
+                + "SELECT CAST(RANDOM_UUID() AS CHAR(36)), ?, ?, DATEADD(MINUTE, -X, CURRENT_TIMESTAMP), DATEADD(SECOND, -X, CURRENT_TIMESTAMP) "
+                + "FROM SYSTEM_RANGE(1, 1000)",
+                ISBN, USER_ID);
+        jdbcTemplate.update("INSERT INTO BOOK_CHECKOUT_HISTORY (RENTAL_ID, ISBN, USER_ID, RENTAL_AT) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+                "00000000-0000-0000-0000-000000000001", ISBN, USER_ID);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("ユーザIDによる未返却の書籍のISBNの検索は、ユーザIDと返却日時のインデックスを使用する")
+    void shouldUseUserIdIndexWhenFindingUnreturnedIsbnsByUserId() {
+        String plan = explain("SELECT e.ISBN FROM BOOK_CHECKOUT_HISTORY e "
+                + "WHERE e.USER_ID = '" + USER_ID + "' AND e.RETURN_AT IS NULL");
+
+        assertThat(plan).contains("BOOK_CHECKOUT_HISTORY_IX1").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("ユーザIDによる未返却の書籍の概要の検索は、ユーザIDのインデックスと書籍の主キーを使用する")
+    void shouldUseIndexesWhenFindingUnreturnedBookSummariesByUserId() {
+        String plan = explain("SELECT b.ISBN, b.TITLE, b.AUTHOR, b.PUBLISHER, e.RENTAL_AT "
+                + "FROM BOOK_CHECKOUT_HISTORY e JOIN BOOKS b ON b.ISBN = e.ISBN "
+                + "WHERE e.USER_ID = '" + USER_ID + "' AND e.RETURN_AT IS NULL ORDER BY e.RENTAL_AT, b.ISBN");
+
+        assertThat(plan).contains("BOOK_CHECKOUT_HISTORY_IX1").contains("PRIMARY_KEY").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("ISBNによる未返却の書籍の存在確認は、ISBNと返却日時のインデックスを使用する")
+    void shouldUseIsbnIndexWhenCheckingUnreturnedBooksByIsbn() {
+        String plan = explain("SELECT e.RENTAL_ID FROM BOOK_CHECKOUT_HISTORY e "
+                + "WHERE e.ISBN = '" + ISBN + "' AND e.RETURN_AT IS NULL FETCH FIRST 1 ROWS ONLY");
+
+        assertThat(plan).contains("BOOK_CHECKOUT_HISTORY_IX2").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("返却日時の更新は、返却日時を含むインデックスを使用する")
+    void shouldUseIndexWhenUpdatingReturnAt() {
+        String plan = explain("UPDATE BOOK_CHECKOUT_HISTORY e SET RETURN_AT = CURRENT_TIMESTAMP "
+                + "WHERE e.USER_ID = '" + USER_ID + "' AND e.ISBN = '" + ISBN + "' AND e.RETURN_AT IS NULL");
+
+        assertThat(plan).containsPattern("BOOK_CHECKOUT_HISTORY_IX[12]").doesNotContain("tableScan");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
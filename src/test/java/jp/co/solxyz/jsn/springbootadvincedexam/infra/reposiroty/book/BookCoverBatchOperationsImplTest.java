@@ -0,0 +1,73 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.book.BookCover;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookCoverBatchOperationsImplTest {
+
+    private static final LocalDateTime FETCHED_AT = LocalDateTime.of(2026, 5, 17, 10, 30);
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BookCoverBatchOperationsImpl batchOperations;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:book_cover_batch;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        batchOperations = new BookCoverBatchOperationsImpl(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("未保存の書影は登録し、保存済みの書影は書影URLと取得日時を更新する")
+    void shouldInsertNewCoversAndUpdateStoredCovers() {
+        jdbcTemplate.update("INSERT INTO BOOK_COVERS (ISBN, COVER_URL, FETCHED_AT) VALUES (?, '', ?)",
+                "9784873117904", Timestamp.valueOf(FETCHED_AT.minusDays(1)));
+
+        int[] updatedCounts = batchOperations.upsertAll(List.of(
+                new BookCover("9784873117904", "https://cover.openbd.jp/9784873117904.jpg", FETCHED_AT),
+                new BookCover("9784873119380", "", FETCHED_AT)));
+
+        assertThat(updatedCounts).containsExactly(1, 1);
+        Map<String, Object> updated = jdbcTemplate.queryForMap(
+                "SELECT COVER_URL, FETCHED_AT FROM BOOK_COVERS WHERE ISBN = ?", "9784873117904");
+        assertThat(updated.get("COVER_URL")).isEqualTo("https://cover.openbd.jp/9784873117904.jpg");
+        assertThat(((Timestamp) updated.get("FETCHED_AT")).toLocalDateTime()).isEqualTo(FETCHED_AT);
+        assertThat(jdbcTemplate.queryForObject("SELECT COVER_URL FROM BOOK_COVERS WHERE ISBN = ?", String.class, "9784873119380"))
+                .isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_COVERS", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("保存する書影が空の場合、DBを更新せずに空の配列を返す")
+    void shouldReturnEmptyArrayWhenCoversIsEmpty() {
+        int[] updatedCounts = batchOperations.upsertAll(Collections.emptyList());
+
+        assertThat(updatedCounts).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_COVERS", Integer.class)).isZero();
+    }
+}
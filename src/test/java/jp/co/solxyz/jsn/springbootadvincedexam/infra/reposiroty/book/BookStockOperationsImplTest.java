@@ -0,0 +1,89 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.infra.reposiroty.book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Collections;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BookStockOperationsImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BookStockOperationsImpl bookStockOperations;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:book_stock;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE BOOKS (ISBN VARCHAR(13) PRIMARY KEY, AVAILABLE_STOCK INTEGER NOT NULL)");
+        jdbcTemplate.update("INSERT INTO BOOKS (ISBN, AVAILABLE_STOCK) VALUES ('1234567890123', 2), ('1234567890124', 0)");
+        bookStockOperations = new BookStockOperationsImpl(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE BOOKS");
+    }
+
+    @Test
+    @DisplayName("在庫がある書籍のみ利用可能在庫数を減らし、ISBNごとの更新件数を返す")
+    void shouldDecrementOnlyBooksInStock() {
+        int[] updatedCounts = bookStockOperations.decrementAvailableStock(List.of("1234567890123", "1234567890124", "9999999999999"));
+
+        assertThat(updatedCounts).containsExactly(1, 0, 0);
+        assertThat(availableStock("1234567890123")).isEqualTo(1);
+        assertThat(availableStock("1234567890124")).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("在庫数を超えて減らそうとした場合、在庫数は0未満にならない")
+    void shouldNotDecrementBelowZero() {
+        bookStockOperations.decrementAvailableStock(List.of("1234567890123"));
+        bookStockOperations.decrementAvailableStock(List.of("1234567890123"));
+        int[] updatedCounts = bookStockOperations.decrementAvailableStock(List.of("1234567890123"));
+
+        assertThat(updatedCounts).containsExactly(0);
+        assertThat(availableStock("1234567890123")).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("ISBNリストが空の場合、DBを更新せずに空の配列を返す")
+    void shouldReturnEmptyArrayWhenIsbnListIsEmpty() {
+        int[] updatedCounts = bookStockOperations.decrementAvailableStock(Collections.emptyList());
+
+        assertThat(updatedCounts).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JDBCドライバが更新件数を返さない場合、減算できたかを判定できないため例外が発生する")
+    @SuppressWarnings("unchecked")
+    void shouldThrowWhenDriverReturnsNoUpdateCount() {
+        JdbcTemplate noInfoJdbcTemplate = mock(JdbcTemplate.class);
+        when(noInfoJdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][] {{1, Statement.SUCCESS_NO_INFO}});
+        BookStockOperationsImpl noInfoStockOperations = new BookStockOperationsImpl(noInfoJdbcTemplate);
+
+        assertThatThrownBy(() -> noInfoStockOperations.decrementAvailableStock(List.of("1234567890123", "1234567890124")))
+                .isInstanceOf(IncorrectUpdateSemanticsDataAccessException.class);
+    }
+
+    private int availableStock(String isbn) {
+        return jdbcTemplate.queryForObject("SELECT AVAILABLE_STOCK FROM BOOKS WHERE ISBN = ?", Integer.class, isbn);
+    }
+}
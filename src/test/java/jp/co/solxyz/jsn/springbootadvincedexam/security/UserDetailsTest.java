@@ -50,6 +50,16 @@ class UserDetailsTest {
         assertThat(userDetails.getUsername()).isEqualTo(userAccount.getUsername());
         assertThat(userDetails.getPassword()).isEqualTo(userAccount.getPassword());
         assertThat(userDetails.getUserId()).isEqualTo(userAccount.getUserId());
+        assertThat(userDetails.isAdmin()).isTrue();
+    }
+
+    @Test
+    @DisplayName("認証情報を消去した場合、パスワードが返されなくなる")
+    void shouldNotReturnPasswordWhenCredentialsAreErased() {
+        userDetails.eraseCredentials();
+
+        assertThat(userDetails.getPassword()).isNull();
+        assertThat(userDetails.getUserId()).isEqualTo(userAccount.getUserId());
     }
 
     @Test
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class CartSessionTest {
@@ -27,8 +29,7 @@ class CartSessionTest {
         cart.setIsbn("1234567890123");
         cartSession.addCart(cart);
 
-        assertThat(cartSession.getCartList().size()).isEqualTo(1);
-        assertThat(cartSession.getCartList().get(0).getIsbn()).isEqualTo(expected);
+        assertThat(cartSession.getIsbnList()).containsExactly(expected);
     }
 
     @Test
@@ -39,7 +40,7 @@ class CartSessionTest {
         cartSession.addCart(cart);
         cartSession.addCart(cart);
 
-        assertThat(cartSession.getCartList().size()).isEqualTo(1);
+        assertThat(cartSession.size()).isEqualTo(1);
     }
 
     @Test
@@ -50,7 +51,7 @@ class CartSessionTest {
         cartSession.addCart(cart);
         cartSession.removeCart("1234567890123");
 
-        assertThat(cartSession.getCartList()).isEmpty();
+        assertThat(cartSession.getIsbnList()).isEmpty();
     }
 
     @Test
@@ -61,7 +62,7 @@ class CartSessionTest {
         cartSession.addCart(cart);
         cartSession.removeCart("0987654321");
 
-        assertThat(cartSession.getCartList().size()).isEqualTo(1);
+        assertThat(cartSession.size()).isEqualTo(1);
     }
 
     @Test
@@ -72,6 +73,37 @@ class CartSessionTest {
         cartSession.addCart(cart);
         cartSession.clearCart();
 
-        assertThat(cartSession.getCartList()).isEmpty();
+        assertThat(cartSession.getIsbnList()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("カートを追加・削除した場合、変更ありとなる")
+    void shouldBeChangedWhenCartIsAddedOrRemoved() {
+        CartSession restored = CartSession.restore(List.of("1234567890123"));
+        assertThat(restored.isChanged()).isFalse();
+
+        restored.removeCart("1234567890123");
+
+        assertThat(restored.isChanged()).isTrue();
+    }
+
+    @Test
+    @DisplayName("重複した追加、該当しない削除、空のカートのクリアの場合、変更なしのままとなる")
+    void shouldNotBeChangedWhenCartIsNotModified() {
+        CartSession restored = CartSession.restore(List.of("1234567890123"));
+
+        restored.addCart(cart("1234567890123"));
+        restored.removeCart("0987654321");
+        CartSession empty = new CartSession();
+        empty.clearCart();
+
+        assertThat(restored.isChanged()).isFalse();
+        assertThat(empty.isChanged()).isFalse();
+    }
+
+    private Cart cart(String isbn) {
+        Cart cart = new Cart();
+        cart.setIsbn(isbn);
+        return cart;
     }
 }
@@ -0,0 +1,216 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.session;
+
+import jp.co.solxyz.jsn.springbootadvincedexam.infra.entity.user.UserAccount;
+import jp.co.solxyz.jsn.springbootadvincedexam.security.MyUserDetails;
+import jp.co.solxyz.jsn.springbootadvincedexam.session.dto.Cart;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactSessionAttributeSerializerTest {
+
+    private final DefaultSerializer javaSerializer = new DefaultSerializer();
+
+    private CompactSessionAttributeSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new CompactSessionAttributeSerializer(getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("カートはISBNを数値に詰めて書き込み、読み込むと同じ内容に戻る")
+    void shouldRoundTripCartInCompactFormat() throws IOException {
+        CartSession cartSession = cartSession("9784873117904", "0123456789012");
+
+        byte[] bytes = serializer.serializeToByteArray(cartSession);
+        CartSession actual = (CartSession) serializer.deserializeFromByteArray(bytes);
+
+        assertThat(actual.getIsbnList()).isEqualTo(cartSession.getIsbnList());
+        assertThat(bytes).hasSize(1 + 4 + 8 * 2);
+        assertThat(bytes.length).isLessThan(javaSerializer.serializeToByteArray(cartSession).length / 5);
+    }
+
+    @Test
+    @DisplayName("13桁の数字でないISBNを含むカートは、Javaシリアライズで書き込む")
+    void shouldFallBackToJavaSerializationWhenIsbnIsNotPackable() throws IOException {
+        CartSession cartSession = cartSession("9784873117904", "ISBN-UNKNOWN");
+
+        byte[] bytes = serializer.serializeToByteArray(cartSession);
+        CartSession actual = (CartSession) serializer.deserializeFromByteArray(bytes);
+
+        assertThat(bytes).isEqualTo(javaSerializer.serializeToByteArray(cartSession));
+        assertThat(actual.getIsbnList()).isEqualTo(cartSession.getIsbnList());
+    }
+
+    @Test
+    @DisplayName("認証済みのセキュリティコンテキストは、パスワードを含めずに書き込み、読み込むと同じ認可情報に戻る")
+    void shouldRoundTripSecurityContextWithoutPassword() throws IOException {
+        MyUserDetails principal = new MyUserDetails(userAccount());
+        principal.eraseCredentials();
+        SecurityContext securityContext = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, List.of(new SimpleGrantedAuthority("ROLE_USER"), new TestAuthority("FACTOR_PASSWORD"))));
+
+        byte[] bytes = serializer.serializeToByteArray(securityContext);
+        SecurityContext actual = (SecurityContext) serializer.deserializeFromByteArray(bytes);
+
+        Authentication authentication = actual.getAuthentication();
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(authentication.getCredentials()).isNull();
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "FACTOR_PASSWORD");
+        assertThat(authentication.getAuthorities()).element(1).isInstanceOf(TestAuthority.class);
+        MyUserDetails actualPrincipal = (MyUserDetails) authentication.getPrincipal();
+        assertThat(actualPrincipal.getUserId()).isEqualTo("0190f4d6-5b6c-7a2e-8f3d-2c1b4a5e6f70");
+        assertThat(actualPrincipal.getUsername()).isEqualTo("テストユーザ");
+        assertThat(actualPrincipal.isAdmin()).isFalse();
+        assertThat(actualPrincipal.getPassword()).isNull();
+        assertThat(bytes.length).isLessThan(javaSerializer.serializeToByteArray(securityContext).length / 2);
+    }
+
+    @Test
+    @DisplayName("対象外の属性は、Javaシリアライズで書き込み、読み込むと同じ内容に戻る")
+    void shouldRoundTripOtherAttributesWithJavaSerialization() throws IOException {
+        Map<String, String> attribute = Map.of("key", "value");
+
+        byte[] bytes = serializer.serializeToByteArray(attribute);
+
+        assertThat(bytes).isEqualTo(javaSerializer.serializeToByteArray(attribute));
+        assertThat(serializer.deserializeFromByteArray(bytes)).isEqualTo(attribute);
+    }
+
+    @Test
+    @DisplayName("Javaシリアライズで保存済みのカートも読み込める")
+    void shouldReadCartStoredWithJavaSerialization() throws IOException {
+        CartSession cartSession = cartSession("9784873117904");
+
+        CartSession actual = (CartSession) serializer.deserializeFromByteArray(javaSerializer.serializeToByteArray(cartSession));
+
+        assertThat(actual.getIsbnList()).isEqualTo(cartSession.getIsbnList());
+    }
+
+    @Test
+    @DisplayName("変更前のMyUserDetailsで保存済みのセキュリティコンテキストは、エラーにせずセッションにないものとして扱う")
+    void shouldTreatSecurityContextWithOldUserDetailsAsMissing() throws IOException {
+        MyUserDetails principal = new MyUserDetails(userAccount());
+        SecurityContext securityContext = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        byte[] stored = withSerialVersionUid(javaSerializer.serializeToByteArray(securityContext),
+                MyUserDetails.class, 7985440768523436212L);
+
+        assertThat(serializer.deserializeFromByteArray(stored)).isNull();
+    }
+
+    @Test
+    @DisplayName("変更前のCartSessionで保存済みのカートは、エラーにせずセッションにないものとして扱う")
+    void shouldTreatCartWithOldVersionAsMissing() throws IOException {
+        byte[] stored = withSerialVersionUid(javaSerializer.serializeToByteArray(cartSession("ISBN-UNKNOWN")),
+                CartSession.class, 1L);
+
+        assertThat(serializer.deserializeFromByteArray(stored)).isNull();
+    }
+
+    @Test
+    @DisplayName("途中で途切れた独自形式の属性は、エラーにせずセッションにないものとして扱う")
+    void shouldTreatTruncatedCompactAttributeAsMissing() throws IOException {
+        byte[] bytes = serializer.serializeToByteArray(cartSession("9784873117904", "0123456789012"));
+
+        assertThat(serializer.deserializeFromByteArray(Arrays.copyOf(bytes, bytes.length - 4))).isNull();
+    }
+
+    @Test
+    @DisplayName("件数が負の独自形式の属性は、エラーにせずセッションにないものとして扱う")
+    void shouldTreatNegativeLengthAsMissing() throws IOException {
+        byte[] bytes = ByteBuffer.allocate(1 + 4).put((byte) 0x01).putInt(-1).array();
+
+        assertThat(serializer.deserializeFromByteArray(bytes)).isNull();
+    }
+
+    @Test
+    @DisplayName("件数が残りのバイト数を超える独自形式の属性は、配列を確保せずセッションにないものとして扱う")
+    void shouldTreatLengthExceedingRemainingBytesAsMissing() throws IOException {
+        byte[] bytes = ByteBuffer.allocate(1 + 4 + 8).put((byte) 0x01).putInt(Integer.MAX_VALUE).putLong(9784873117904L).array();
+
+        assertThat(serializer.deserializeFromByteArray(bytes)).isNull();
+    }
+
+    @Test
+    @DisplayName("権限以外の値が書き込まれたセキュリティコンテキストは、エラーにせずセッションにないものとして扱う")
+    void shouldTreatSecurityContextWithInvalidAuthorityAsMissing() throws IOException {
+        byte[] serialized = javaSerializer.serializeToByteArray("ROLE_USER");
+        byte[] userId = "user".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 2 + userId.length + 2 + userId.length + 1 + 4 + 1 + 4 + serialized.length)
+                .put((byte) 0x02)
+                .putShort((short) userId.length).put(userId)
+                .putShort((short) userId.length).put(userId)
+                .put((byte) 0)
+                .putInt(1)
+                .put((byte) 1)
+                .putInt(serialized.length).put(serialized);
+
+        assertThat(serializer.deserializeFromByteArray(buffer.array())).isNull();
+    }
+
+    /**
+     * Javaシリアライズ済みのバイト列に含まれるクラスのserialVersionUIDを書き換え、変更前のクラスで保存されたバイト列を作る
+     */
+    private byte[] withSerialVersionUid(byte[] serialized, Class<?> type, long serialVersionUid) {
+        byte[] className = type.getName().getBytes(StandardCharsets.UTF_8);
+        int uidIndex = indexOf(serialized, className) + className.length;
+        ByteBuffer.wrap(serialized, uidIndex, Long.BYTES).putLong(serialVersionUid);
+        return serialized;
+    }
+
+    private int indexOf(byte[] bytes, byte[] target) {
+        for (int i = 0; i <= bytes.length - target.length; i++) {
+            if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("class name is not found");
+    }
+
+    private CartSession cartSession(String... isbns) {
+        CartSession cartSession = new CartSession();
+        for (String isbn : isbns) {
+            Cart cart = new Cart();
+            cart.setIsbn(isbn);
+            cartSession.addCart(cart);
+        }
+        return cartSession;
+    }
+
+    private UserAccount userAccount() {
+        UserAccount userAccount = new UserAccount();
+        userAccount.setUserId("0190f4d6-5b6c-7a2e-8f3d-2c1b4a5e6f70");
+        userAccount.setUsername("テストユーザ");
+        userAccount.setEmail("test@example.com");
+        userAccount.setPassword("$2a$10$abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXY");
+        userAccount.setIsAdmin(false);
+        return userAccount;
+    }
+
+    private record TestAuthority(String authority) implements GrantedAuthority {
+
+        @Override
+        public String getAuthority() {
+            return authority;
+        }
+    }
+}
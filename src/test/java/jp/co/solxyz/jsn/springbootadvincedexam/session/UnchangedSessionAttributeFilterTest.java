@@ -0,0 +1,100 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.session;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnchangedSessionAttributeFilterTest {
+
+    private static final String ATTRIBUTE_NAME = "scopedTarget.cartSession";
+
+    @Mock
+    private HttpSession session;
+
+    private MockHttpServletRequest request;
+
+    private UnchangedSessionAttributeFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        request = new MockHttpServletRequest();
+        request.setSession(session);
+        filter = new UnchangedSessionAttributeFilter();
+    }
+
+    @Test
+    @DisplayName("変更のないカートが同じインスタンスで設定された場合、セッションへの設定を省略する")
+    void shouldSkipSettingUnchangedCart() throws Exception {
+        CartSession cartSession = CartSession.restore(List.of("9784873117904"));
+        when(session.getAttribute(ATTRIBUTE_NAME)).thenReturn(cartSession);
+
+        doFilter(httpSession -> httpSession.setAttribute(ATTRIBUTE_NAME, cartSession));
+
+        verify(session, never()).setAttribute(ATTRIBUTE_NAME, cartSession);
+    }
+
+    @Test
+    @DisplayName("変更されたカートが設定された場合、セッションへ設定する")
+    void shouldSetChangedCart() throws Exception {
+        CartSession cartSession = CartSession.restore(List.of("9784873117904"));
+        when(session.getAttribute(ATTRIBUTE_NAME)).thenReturn(cartSession);
+
+        doFilter(httpSession -> {
+            cartSession.removeCart("9784873117904");
+            httpSession.setAttribute(ATTRIBUTE_NAME, cartSession);
+        });
+
+        verify(session).setAttribute(ATTRIBUTE_NAME, cartSession);
+    }
+
+    @Test
+    @DisplayName("セッションにないカートが設定された場合、変更がなくてもセッションへ設定する")
+    void shouldSetNewCart() throws Exception {
+        CartSession cartSession = new CartSession();
+
+        doFilter(httpSession -> httpSession.setAttribute(ATTRIBUTE_NAME, cartSession));
+
+        verify(session).setAttribute(ATTRIBUTE_NAME, cartSession);
+    }
+
+    @Test
+    @DisplayName("変更を追跡しない属性は、常にセッションへ設定する")
+    void shouldAlwaysSetUntrackedAttribute() throws Exception {
+        List<String> attribute = List.of("value");
+        when(session.getAttribute("attribute")).thenReturn(attribute);
+
+        doFilter(httpSession -> httpSession.setAttribute("attribute", attribute));
+
+        verify(session).setAttribute("attribute", attribute);
+    }
+
+    @Test
+    @DisplayName("セッションがなく作成も要求されない場合、nullを返す")
+    void shouldReturnNullWhenSessionDoesNotExist() throws Exception {
+        request = new MockHttpServletRequest();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (FilterChain) (req, res) ->
+                assertThat(((HttpServletRequest) req).getSession(false)).isNull());
+    }
+
+    private void doFilter(Consumer<HttpSession> action) throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), (FilterChain) (req, res) ->
+                action.accept(((HttpServletRequest) req).getSession()));
+    }
+}
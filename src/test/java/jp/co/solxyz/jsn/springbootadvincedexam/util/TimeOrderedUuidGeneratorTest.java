@@ -0,0 +1,64 @@
+package jp.co.solxyz.jsn.springbootadvincedexam.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidGeneratorTest {
+
+    private final TimeOrderedUuidGenerator idGenerator = new TimeOrderedUuidGenerator();
+
+    @Test
+    @DisplayName("ユーザーIDが正常に生成される")
+    void shouldGenerateUserIdSuccessfully() {
+        String userId = idGenerator.generateUserId();
+
+        assertThat(userId).isNotNull();
+        assertThat(userId).matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    }
+
+    @Test
+    @DisplayName("貸出IDがUUIDバージョン7の形式で生成される")
+    void shouldGenerateRentalIdAsVersion7Uuid() {
+        UUID rentalId = UUID.fromString(idGenerator.generateRentalId());
+
+        assertThat(rentalId.version()).isEqualTo(7);
+        assertThat(rentalId.variant()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("生成したUUIDの上位48ビットに生成時刻(ミリ秒)が格納される")
+    void shouldEmbedGenerationTimeInUuid() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuidGenerator.timeOrderedUuid();
+        long after = System.currentTimeMillis();
+
+        assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, after);
+    }
+
+    @Test
+    @DisplayName("異なる時刻に生成したUUIDは、文字列として生成順に並ぶ")
+    void shouldSortUuidsByGenerationTime() throws InterruptedException {
+        String first = idGenerator.generateRentalId();
+        Thread.sleep(2);
+        String second = idGenerator.generateRentalId();
+
+        assertThat(first).isLessThan(second);
+    }
+
+    @Test
+    @DisplayName("同じ時刻に大量に生成した場合も重複しない")
+    void shouldNotGenerateDuplicateUuids() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(idGenerator.generateRentalId());
+        }
+
+        assertThat(ids).hasSize(100_000);
+    }
+}